@@ -0,0 +1,100 @@
+package boyd.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import boyd.utils.BoydResponse;
+import boyd.utils.CommandPipeline;
+import boyd.utils.Parser;
+import boyd.utils.TaskList;
+
+/**
+ * Throughput of commands from {@value #PRODUCERS} threads at once, through a
+ * {@link CommandPipeline} and, for comparison, through {@link Parser#handle(String, TaskList)}
+ * under one lock, against an in-memory list of {@code size} tasks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(CommandPipelineBenchmarks.PRODUCERS)
+public class CommandPipelineBenchmarks {
+
+    /** Threads submitting commands, as several server clients would. */
+    static final int PRODUCERS = 4;
+
+    /** Distinct add commands cycled through; enough that branch prediction cannot learn them. */
+    private static final int COMMAND_COUNT = 4096;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private String[] addCommands;
+    private String deleteLast;
+    private TaskList tasks;
+    private CommandPipeline pipeline;
+    private final Object lock = new Object();
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * Builds the list, the commands to run against it and the pipeline.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        addCommands = TaskMix.addCommands(COMMAND_COUNT);
+        deleteLast = "delete " + (size + 1);
+        // No storage and no undo history: only parsing, handing over and the list itself are measured.
+        tasks = new TaskList(TaskMix.tasks(size), null, 0);
+        // As many parser threads as BoydServer would start on this machine.
+        int parsers = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+        pipeline = new CommandPipeline(tasks, 1 << 14, parsers);
+    }
+
+    /**
+     * Stops the pipeline's threads.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pipeline.close();
+    }
+
+    /**
+     * Submits an add command and then a delete of a task past the original list, and
+     * waits for both, so the list keeps about its size.
+     *
+     * @return the delete response
+     */
+    @Benchmark
+    public BoydResponse pipelineAddThenDelete() {
+        pipeline.submit(addCommands[next.getAndIncrement() & (COMMAND_COUNT - 1)]);
+        return pipeline.submit(deleteLast).join();
+    }
+
+    /**
+     * Handles an add command and then a delete of a task past the original list, each
+     * under one lock shared by every thread.
+     *
+     * @return the delete response
+     */
+    @Benchmark
+    public BoydResponse lockedAddThenDelete() {
+        String add = addCommands[next.getAndIncrement() & (COMMAND_COUNT - 1)];
+        synchronized (lock) {
+            Parser.handle(add, tasks);
+        }
+        synchronized (lock) {
+            return Parser.handle(deleteLast, tasks);
+        }
+    }
+}
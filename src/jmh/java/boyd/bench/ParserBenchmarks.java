@@ -0,0 +1,116 @@
+package boyd.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import boyd.tasks.Task;
+import boyd.utils.BoydResponse;
+import boyd.utils.CommandMetrics;
+import boyd.utils.Parser;
+import boyd.utils.PreparedCommand;
+import boyd.utils.TaskList;
+
+/**
+ * Throughput of {@link Parser#parseTask(String)}, of {@link Parser#prepare(String)} and of
+ * {@link Parser#handle(String, TaskList)} against an in-memory list of {@code size} tasks,
+ * with {@link CommandMetrics} on and off, so the cost of timing each command shows.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ParserBenchmarks {
+
+    /** Distinct add commands cycled through; enough that branch prediction cannot learn them. */
+    private static final int COMMAND_COUNT = 4096;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"true", "false"})
+    public boolean metrics;
+
+    private String[] addCommands;
+    private String[] markCommands;
+    private String deleteLast;
+    private TaskList tasks;
+    private int next;
+
+    /**
+     * Builds the list and the commands to run against it.
+     */
+    @Setup
+    public void setUp() {
+        addCommands = TaskMix.addCommands(COMMAND_COUNT);
+        markCommands = new String[COMMAND_COUNT];
+        for (int i = 0; i < COMMAND_COUNT; i++) {
+            markCommands[i] = (i % 2 == 0 ? "mark " : "unmark ") + (1 + (int) ((long) i * size / COMMAND_COUNT));
+        }
+        deleteLast = "delete " + (size + 1);
+        // No storage and no undo history: only parsing and the list itself are measured.
+        tasks = new TaskList(TaskMix.tasks(size), null, 0);
+        if (metrics) {
+            tasks.setSaveListener(CommandMetrics.saveListener());
+        }
+        CommandMetrics.setEnabled(metrics);
+    }
+
+    /**
+     * Turns metrics back on and forgets what they recorded.
+     */
+    @TearDown
+    public void tearDown() {
+        CommandMetrics.setEnabled(true);
+        CommandMetrics.reset();
+    }
+
+    /**
+     * Parses an add command into a task.
+     *
+     * @return the task
+     */
+    @Benchmark
+    public Task parseTask() {
+        return Parser.parseTask(addCommands[next++ & (COMMAND_COUNT - 1)]);
+    }
+
+    /**
+     * Prepares an add command: tokenizing, handler lookup and building the task, as the
+     * parser threads of a {@link boyd.utils.CommandPipeline} do.
+     *
+     * @return the prepared command
+     */
+    @Benchmark
+    public PreparedCommand prepare() {
+        return Parser.prepare(addCommands[next++ & (COMMAND_COUNT - 1)]);
+    }
+
+    /**
+     * Handles an add command and then deletes the added task, so the list keeps its size.
+     *
+     * @return the delete response
+     */
+    @Benchmark
+    public BoydResponse handleAddThenDelete() {
+        Parser.handle(addCommands[next++ & (COMMAND_COUNT - 1)], tasks);
+        return Parser.handle(deleteLast, tasks);
+    }
+
+    /**
+     * Handles a mark or unmark command on a task spread across the list.
+     *
+     * @return the response
+     */
+    @Benchmark
+    public BoydResponse handleMark() {
+        return Parser.handle(markCommands[next++ & (COMMAND_COUNT - 1)], tasks);
+    }
+}
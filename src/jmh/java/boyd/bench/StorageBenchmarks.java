@@ -0,0 +1,119 @@
+package boyd.bench;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import boyd.tasks.Task;
+import boyd.utils.Storage;
+
+/**
+ * Throughput of {@link Storage#load()} and {@link Storage#save(List)} on save files of
+ * {@code size} tasks, and of the way saves were written before {@link Storage} used a
+ * {@link java.nio.channels.FileChannel}, for comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class StorageBenchmarks {
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private Path dir;
+    private List<Task> tasks;
+    private Storage loadFrom;
+    private Storage saveTo;
+
+    /**
+     * Writes the file {@link #load()} reads.
+     *
+     * @throws IOException if the temporary directory cannot be created
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("boyd-jmh");
+        tasks = TaskMix.tasks(size);
+        loadFrom = new Storage(dir.resolve("load.txt").toString());
+        loadFrom.save(tasks);
+        saveTo = new Storage(dir.resolve("save.txt").toString());
+    }
+
+    /**
+     * Deletes the files written.
+     *
+     * @throws IOException if a file cannot be deleted
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(dir.resolve("load.txt"));
+        Files.deleteIfExists(dir.resolve("save.txt"));
+        Files.deleteIfExists(dir.resolve("legacy.txt"));
+        Files.deleteIfExists(dir);
+    }
+
+    /**
+     * Reads and parses the whole save file.
+     *
+     * @return the tasks read
+     */
+    @Benchmark
+    public List<Task> load() {
+        return loadFrom.load();
+    }
+
+    /**
+     * Writes the whole list, as every change does.
+     */
+    @Benchmark
+    public void save() {
+        saveTo.save(tasks);
+    }
+
+    /**
+     * Writes the whole list as {@link #save()} did before: a new string per task, hashed
+     * and written line by line through a {@link FileWriter}. The records themselves no
+     * longer go through {@code String.format}, so this understates the old cost.
+     *
+     * @return the sum of the line hashes
+     * @throws IOException if the file cannot be written
+     */
+    @Benchmark
+    public long saveWithFileWriter() throws IOException {
+        long hashes = 0;
+        try (FileWriter writer = new FileWriter(dir.resolve("legacy.txt").toFile(), StandardCharsets.UTF_8, false)) {
+            for (Task t : tasks) {
+                String line = t.toDataString();
+                writer.write(line);
+                writer.write(System.lineSeparator());
+                hashes += lineHash(line);
+            }
+        }
+        return hashes;
+    }
+
+    /** The 64-bit FNV-1a line hash that {@link Storage} keeps for each saved line. */
+    private static long lineHash(String line) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < line.length(); i++) {
+            hash ^= line.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
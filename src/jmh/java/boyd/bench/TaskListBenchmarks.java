@@ -0,0 +1,59 @@
+package boyd.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import boyd.tasks.Task;
+import boyd.utils.TaskList;
+
+/**
+ * Throughput of {@link TaskList#find(String)} over {@code size} tasks, for a keyword in
+ * one task in a thousand and for one in most tasks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TaskListBenchmarks {
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private TaskList tasks;
+
+    /**
+     * Builds the list.
+     */
+    @Setup
+    public void setUp() {
+        tasks = new TaskList(TaskMix.tasks(size), null, 0);
+    }
+
+    /**
+     * Searches for a keyword few tasks contain.
+     *
+     * @return the matches
+     */
+    @Benchmark
+    public List<Task> findRare() {
+        return tasks.find(TaskMix.RARE_WORD);
+    }
+
+    /**
+     * Searches for a keyword many tasks contain, so building the result dominates.
+     *
+     * @return the matches
+     */
+    @Benchmark
+    public List<Task> findCommon() {
+        return tasks.find(TaskMix.COMMON_WORD);
+    }
+}
@@ -0,0 +1,100 @@
+package boyd.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import boyd.tasks.Deadline;
+import boyd.tasks.Event;
+import boyd.tasks.Task;
+import boyd.tasks.ToDo;
+
+/**
+ * Builds task lists that look like real ones for the benchmarks: mostly to-dos, a fair
+ * share of deadlines and some events, about a third of them done, with descriptions of
+ * a few words that are sometimes not ASCII.
+ */
+final class TaskMix {
+
+    /** Words descriptions are built from; {@link #RARE_WORD} is added to one task in 1000. */
+    private static final String[] WORDS = {
+        "read", "book", "return", "submit", "report", "project", "sync", "call", "mum", "buy",
+        "milk", "lecture", "tutorial", "revise", "café", "中文", "gym", "pay", "rent", "plan",
+    };
+
+    /** Word present in few tasks, for searches with few matches. */
+    static final String RARE_WORD = "quarterly";
+
+    /** Word present in many tasks, for searches with many matches. */
+    static final String COMMON_WORD = "book";
+
+    private TaskMix() {
+    }
+
+    /**
+     * Returns {@code size} tasks; the same size always gives the same tasks.
+     *
+     * @param size number of tasks
+     * @return new, mutable list of tasks
+     */
+    static List<Task> tasks(int size) {
+        Random random = new Random(size);
+        List<Task> tasks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            tasks.add(task(random, i));
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns add commands in the same mix, for benchmarks that parse them.
+     *
+     * @param count number of commands
+     * @return commands such as {@code deadline submit report /by 2024-02-29 23:59}
+     */
+    static String[] addCommands(int count) {
+        Random random = new Random(count);
+        String[] commands = new String[count];
+        for (int i = 0; i < count; i++) {
+            String description = description(random, i);
+            int kind = random.nextInt(10);
+            if (kind < 6) {
+                commands[i] = "todo " + description;
+            } else if (kind < 9) {
+                commands[i] = "deadline " + description + " /by 2024-02-29 23:59";
+            } else {
+                commands[i] = "event " + description + " /from 2024-03-01 09:00 /to 2024-03-01 10:00";
+            }
+        }
+        return commands;
+    }
+
+    private static Task task(Random random, int index) {
+        String description = description(random, index);
+        int kind = random.nextInt(10);
+        Task task;
+        if (kind < 6) {
+            task = new ToDo(description);
+        } else if (kind < 9) {
+            task = new Deadline(description, "2024-02-29", "23:59");
+        } else {
+            task = new Event(description, "2024-03-01 09:00", "2024-03-01 10:00");
+        }
+        if (random.nextInt(3) == 0) {
+            task.markAsDone();
+        }
+        return task;
+    }
+
+    private static String description(Random random, int index) {
+        StringBuilder sb = new StringBuilder();
+        int words = 2 + random.nextInt(4);
+        for (int w = 0; w < words; w++) {
+            sb.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        if (index % 1000 == 0) {
+            sb.append(RARE_WORD).append(' ');
+        }
+        return sb.append(index).toString();
+    }
+}
@@ -1,10 +1,19 @@
 package boyd;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.DoubleConsumer;
 
+import boyd.tasks.Task;
 import boyd.utils.BoydResponse;
+import boyd.utils.CommandMetrics;
+import boyd.utils.DataFileWatcher;
 import boyd.utils.Parser;
 import boyd.utils.Storage;
+import boyd.utils.TaskExporter;
+import boyd.utils.TaskImporter;
 import boyd.utils.TaskList;
 
 /**
@@ -16,18 +25,15 @@ import boyd.utils.TaskList;
  */
 public class Boyd {
 
-    /** Default path for persisted data. */
-    private static final String DEFAULT_SAVE_PATH = "./data/boyd.txt";
-
-    /** Shared storage provider for loading/saving tasks. */
-    private static final Storage STORAGE = new Storage();
-
     /** Chatbot display name used in greetings. */
     private static final String CHATBOT_NAME = "Boyd";
 
     /** In-memory task list backing the application. */
     private final TaskList tasks;
 
+    /** Where {@link #tasks} is saved; {@code null} if this instance was built around an existing list. */
+    private final Storage storage;
+
     /**
      * Constructs an instance using the default save path.
      *
@@ -35,19 +41,13 @@ public class Boyd {
      * an empty task list and continues to run.</p>
      */
     public Boyd() {
-        TaskList loaded;
-        try {
-            loaded = new TaskList(STORAGE.load(DEFAULT_SAVE_PATH), STORAGE);
-        } catch (RuntimeException e) {
-            // Malformed/legacy save data: start with an empty list instead of failing to launch.
-            loaded = new TaskList(new ArrayList<>(), STORAGE);
-        }
-        assert loaded != null : "TaskList must not be null";
-        this.tasks = loaded;
+        this(Storage.DEFAULT_FILE_PATH);
     }
 
     /**
      * Constructs an instance and initializes the task list from the given path.
+     * Changes are saved back to the same path, and each save is timed in
+     * {@link CommandMetrics}.
      *
      * <p>If loading fails (e.g., file missing or corrupted), the app starts with
      * an empty task list and continues to run.</p>
@@ -56,18 +56,126 @@ public class Boyd {
      * @throws IllegalArgumentException if {@code filePath} is {@code null} or blank
      */
     public Boyd(String filePath) {
+        this(filePath, progress -> { });
+    }
+
+    private Boyd(String filePath, DoubleConsumer onProgress) {
         if (filePath == null || filePath.isBlank()) {
             throw new IllegalArgumentException("filePath must be non-null and non-blank");
         }
+        Storage storage = new Storage(filePath);
         TaskList loaded;
         try {
-            loaded = new TaskList(STORAGE.load(filePath), STORAGE);
+            loaded = new TaskList(storage.load(onProgress), storage);
         } catch (RuntimeException e) {
             // Malformed/legacy save data: start with an empty list instead of failing to launch.
-            loaded = new TaskList(new ArrayList<>(), STORAGE);
+            loaded = new TaskList(new ArrayList<>(), storage);
         }
         assert loaded != null : "TaskList must not be null";
+        loaded.setSaveListener(CommandMetrics.saveListener());
         this.tasks = loaded;
+        this.storage = storage;
+    }
+
+    /**
+     * Constructs an instance around an existing task list, e.g. an in-memory list for
+     * tests or a list shared with another front-end.
+     *
+     * @param tasks task list to operate on
+     * @throws IllegalArgumentException if {@code tasks} is {@code null}
+     */
+    public Boyd(TaskList tasks) {
+        if (tasks == null) {
+            throw new IllegalArgumentException("tasks must be non-null");
+        }
+        this.tasks = tasks;
+        this.storage = null;
+    }
+
+    /**
+     * Constructs an instance on a background thread, so a UI can show itself while a
+     * large save file loads. Once loaded, every task's display line is rendered too, so
+     * the first {@code list} or {@code find} does not pay for it.
+     *
+     * @param filePath path to the save file (e.g., {@code ./data/boyd.txt})
+     * @param onProgress receives the fraction of the work done, from {@code 0} to
+     *         {@code 1}; called on the loading thread
+     * @return a future completed with the loaded instance
+     * @throws IllegalArgumentException if {@code filePath} is {@code null} or blank, or
+     *         {@code onProgress} is {@code null}
+     */
+    public static CompletableFuture<Boyd> loadAsync(String filePath, DoubleConsumer onProgress) {
+        if (filePath == null || filePath.isBlank()) {
+            throw new IllegalArgumentException("filePath must be non-null and non-blank");
+        }
+        if (onProgress == null) {
+            throw new IllegalArgumentException("onProgress must be non-null");
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            // Reading the file is most of the work; rendering display lines is the rest.
+            Boyd boyd = new Boyd(filePath, progress -> onProgress.accept(0.9 * progress));
+            for (Task task : boyd.tasks.snapshot().getTasks()) {
+                task.toDisplayString();
+            }
+            onProgress.accept(1.0);
+            return boyd;
+        }, runnable -> {
+            Thread thread = new Thread(runnable, "boyd-loader");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+    /**
+     * Returns the task list this instance operates on.
+     *
+     * @return the backing task list
+     */
+    public TaskList getTaskList() {
+        return tasks;
+    }
+
+    /**
+     * Starts applying edits that other programs make to the save file to this instance's
+     * task list, so they are not overwritten by the next save.
+     *
+     * @return the running watcher; close it to stop watching
+     * @throws IOException if the save file's directory cannot be watched
+     * @throws IllegalStateException if this instance was built around an existing task list
+     */
+    public DataFileWatcher watchDataFile() throws IOException {
+        if (storage == null) {
+            throw new IllegalStateException("No save file to watch");
+        }
+        return new DataFileWatcher(tasks, storage).start();
+    }
+
+    /**
+     * Adds every task command ({@code todo}, {@code deadline}, {@code event}) in a file,
+     * in file order, saving once at the end. Same as the {@code import <file>} command.
+     *
+     * @param file UTF-8 text file with one command per line
+     * @return how many tasks were added, and why the other lines were not
+     * @throws IllegalArgumentException if {@code file} is {@code null}
+     * @throws IOException if the file cannot be read; nothing is added in that case
+     */
+    public TaskImporter.Result importTasks(Path file) throws IOException {
+        return TaskImporter.importFile(file, tasks);
+    }
+
+    /**
+     * Writes the current tasks, or those matching a keyword, to a CSV or JSON file.
+     * Same as the {@code export csv|json <file> [keyword]} command.
+     *
+     * @param format output format
+     * @param file destination file, replaced if it exists
+     * @param keyword case-insensitive filter, as for {@code find}; {@code null} exports every task
+     * @return number of tasks written
+     * @throws IllegalArgumentException if {@code format} or {@code file} is {@code null}
+     * @throws IOException if the file cannot be written
+     */
+    public int exportTasks(TaskExporter.Format format, Path file, String keyword) throws IOException {
+        return TaskExporter.export(tasks.snapshot(), format, file, keyword);
     }
 
     /**
@@ -76,6 +184,15 @@ public class Boyd {
      * @return greeting text addressed to the user
      */
     public String getGreeting() {
+        return greeting();
+    }
+
+    /**
+     * Returns the greeting of {@link #getGreeting()}, for showing before any instance exists.
+     *
+     * @return greeting text addressed to the user
+     */
+    public static String greeting() {
         assert CHATBOT_NAME != null && !CHATBOT_NAME.isBlank()
                 : "CHATBOT_NAME must be configured";
         return "Hello! I'm " + CHATBOT_NAME + "!" + System.lineSeparator()
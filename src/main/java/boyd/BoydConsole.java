@@ -0,0 +1,138 @@
+package boyd;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+import boyd.utils.BoydResponse;
+import boyd.utils.CommandMetrics;
+import boyd.utils.Ui;
+
+/**
+ * Headless console front-end: reads one command per line and prints each response
+ * framed by {@link Ui}, until {@code bye} or the end of input.
+ *
+ * <p>Built for scripted input as much as for a person typing. Input is read through a
+ * {@link BufferedReader} and output goes through a single buffered writer that is
+ * flushed only when no further input is ready, so a piped script is answered in large
+ * writes rather than one per line. Commands that are already waiting are run together
+ * inside {@link boyd.utils.TaskList#batch(Runnable)} (at most {@link #MAX_BATCH} at a
+ * time), so the save file is written once per burst instead of once per command.</p>
+ */
+public class BoydConsole {
+
+    /** Most commands run between two saves while input keeps arriving. */
+    public static final int MAX_BATCH = 1024;
+
+    private static final int BUFFER_CHARS = 64 * 1024;
+
+    private final Boyd boyd;
+
+    /**
+     * Creates a console front-end for the given instance.
+     *
+     * @param boyd application logic to send commands to
+     * @throws IllegalArgumentException if {@code boyd} is {@code null}
+     */
+    public BoydConsole(Boyd boyd) {
+        if (boyd == null) {
+            throw new IllegalArgumentException("boyd must be non-null");
+        }
+        this.boyd = boyd;
+    }
+
+    /**
+     * Greets, then answers commands from {@code in} until {@code bye} or the end of input.
+     * Everything written to {@code out} has been flushed when this returns.
+     *
+     * @param in source of commands, one per line
+     * @param out destination of the framed responses
+     * @throws IOException if reading {@code in} fails
+     */
+    public void run(Reader in, Writer out) throws IOException {
+        BufferedReader reader = in instanceof BufferedReader
+                ? (BufferedReader) in : new BufferedReader(in, BUFFER_CHARS);
+        Ui ui = new Ui(out instanceof BufferedWriter ? out : new BufferedWriter(out, BUFFER_CHARS));
+        ui.greet();
+        try {
+            boolean isExit = false;
+            while (!isExit) {
+                if (!reader.ready()) {
+                    ui.flush();
+                }
+                String line = reader.readLine();
+                if (line == null) {
+                    break;
+                }
+                isExit = runBurst(line, reader, ui);
+            }
+        } finally {
+            ui.flush();
+        }
+    }
+
+    /**
+     * Runs {@code first} and then the lines already waiting in {@code reader}, up to
+     * {@link #MAX_BATCH} in all, as one batch.
+     *
+     * @return whether an exit command was run
+     */
+    private boolean runBurst(String first, BufferedReader reader, Ui ui) throws IOException {
+        boolean[] isExit = new boolean[1];
+        try {
+            boyd.getTaskList().batch(() -> {
+                String line = first;
+                int count = 0;
+                while (line != null) {
+                    BoydResponse response = boyd.getResponse(line);
+                    ui.printResponse(response);
+                    if (response.isExit()) {
+                        isExit[0] = true;
+                        return;
+                    }
+                    line = ++count < MAX_BATCH && isReady(reader) ? readLine(reader) : null;
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return isExit[0];
+    }
+
+    private static boolean isReady(BufferedReader reader) {
+        try {
+            return reader.ready();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String readLine(BufferedReader reader) {
+        try {
+            return reader.readLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Runs the console on standard input and output.
+     *
+     * @param args optional {@code [dataFile]}
+     * @throws IOException if standard input or output fails
+     */
+    public static void main(String[] args) throws IOException {
+        CommandMetrics.registerMBean();
+        Boyd boyd = args.length > 0 ? new Boyd(args[0]) : new Boyd();
+        // Bypass System.out, which flushes on every line.
+        Writer out = new OutputStreamWriter(new FileOutputStream(FileDescriptor.out));
+        new BoydConsole(boyd).run(new InputStreamReader(System.in), out);
+    }
+}
@@ -0,0 +1,118 @@
+package boyd;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import boyd.utils.BoydResponse;
+
+/**
+ * Runs commands against a {@link Boyd} instance on a dedicated background thread.
+ *
+ * <p>Commands execute one at a time in submission order, so a {@code delete} typed
+ * after an {@code add} always sees the added task. Each response is handed to its
+ * callback through the given callback executor (for the GUI,
+ * {@code Platform::runLater}); because commands complete in order and that executor
+ * is FIFO, callbacks also run in submission order.</p>
+ *
+ * <p>Streamed responses (see {@link BoydResponse#isStreamed()}) can be delivered chunk by
+ * chunk with {@link #submit(String, Consumer, Consumer)}: the background thread renders
+ * one chunk, hands it over, and waits until it has been shown before rendering the
+ * next, so the first lines appear at once and only one chunk is in flight.</p>
+ *
+ * <p>The core may still be loading when the runner is created: commands submitted
+ * before it is ready wait on the background thread and then run in order.</p>
+ */
+public class CommandRunner implements AutoCloseable {
+
+    private final CompletableFuture<Boyd> boyd;
+    private final Executor callbackExecutor;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "boyd-command-runner");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Creates a runner for the given core.
+     *
+     * @param boyd application core to execute commands against
+     * @param callbackExecutor executor used to deliver responses, e.g. the UI thread
+     * @throws IllegalArgumentException if any argument is {@code null}
+     */
+    public CommandRunner(Boyd boyd, Executor callbackExecutor) {
+        this(boyd == null ? null : CompletableFuture.completedFuture(boyd), callbackExecutor);
+    }
+
+    /**
+     * Creates a runner for a core that may still be loading, e.g. from
+     * {@link Boyd#loadAsync(String, java.util.function.DoubleConsumer)}.
+     *
+     * @param boyd future application core to execute commands against
+     * @param callbackExecutor executor used to deliver responses, e.g. the UI thread
+     * @throws IllegalArgumentException if any argument is {@code null}
+     */
+    public CommandRunner(CompletableFuture<Boyd> boyd, Executor callbackExecutor) {
+        if (boyd == null || callbackExecutor == null) {
+            throw new IllegalArgumentException("boyd and callbackExecutor must be non-null");
+        }
+        this.boyd = boyd;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /**
+     * Queues a command for execution and returns immediately.
+     *
+     * @param input raw user input (non-null)
+     * @param onResponse receives the response on the callback executor
+     * @return a future completed once {@code onResponse} has run
+     * @throws IllegalArgumentException if any argument is {@code null}
+     */
+    public CompletableFuture<Void> submit(String input, Consumer<BoydResponse> onResponse) {
+        if (input == null || onResponse == null) {
+            throw new IllegalArgumentException("input and onResponse must be non-null");
+        }
+        return CompletableFuture.supplyAsync(() -> boyd.join().getResponse(input), worker)
+                .exceptionally(e -> BoydResponse.error("Something went wrong. Please try again."))
+                .thenAcceptAsync(onResponse, callbackExecutor);
+    }
+
+    /**
+     * Queues a command whose response may be streamed. Each chunk of a streamed response
+     * is passed to {@code onChunk} on the callback executor, then {@code onResponse} runs;
+     * for other responses only {@code onResponse} runs, as with {@link #submit(String, Consumer)}.
+     *
+     * @param input raw user input (non-null)
+     * @param onChunk receives the chunks of a streamed response on the callback executor
+     * @param onResponse receives the response on the callback executor, after all its chunks
+     * @return a future completed once {@code onResponse} has run
+     * @throws IllegalArgumentException if any argument is {@code null}
+     */
+    public CompletableFuture<Void> submit(String input, Consumer<String> onChunk, Consumer<BoydResponse> onResponse) {
+        if (input == null || onChunk == null || onResponse == null) {
+            throw new IllegalArgumentException("input, onChunk and onResponse must be non-null");
+        }
+        return CompletableFuture.supplyAsync(() -> deliverChunks(boyd.join().getResponse(input), onChunk), worker)
+                .exceptionally(e -> BoydResponse.error("Something went wrong. Please try again."))
+                .thenAcceptAsync(onResponse, callbackExecutor);
+    }
+
+    private BoydResponse deliverChunks(BoydResponse response, Consumer<String> onChunk) {
+        if (response.isStreamed()) {
+            for (String chunk : response.chunks()) {
+                CompletableFuture.runAsync(() -> onChunk.accept(chunk), callbackExecutor).join();
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Stops the background thread. Commands still queued are discarded.
+     */
+    @Override
+    public void close() {
+        worker.shutdownNow();
+    }
+}
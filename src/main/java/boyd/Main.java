@@ -2,23 +2,42 @@ package boyd;
 
 import java.io.IOException;
 import java.net.URL;
+import java.util.concurrent.CompletableFuture;
 
+import boyd.utils.CommandMetrics;
+import boyd.utils.DataFileWatcher;
+import boyd.utils.Storage;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
+import javafx.scene.control.SplitPane;
 import javafx.scene.layout.AnchorPane;
 import javafx.stage.Stage;
 
 /**
  * JavaFX launcher for the Boyd GUI using FXML.
+ *
+ * <p>The window is shown before the tasks are loaded: loading runs in the background
+ * (see {@link Boyd#loadAsync(String, java.util.function.DoubleConsumer)}), and the
+ * task table and save-file watcher are added once it finishes. The time to first
+ * paint and to ready are recorded in {@link StartupMetrics}.</p>
  */
 public class Main extends Application {
 
     /** Classpath location of the main FXML layout. */
     private static final String MAIN_FXML_PATH = "/view/MainWindow.fxml";
 
-    /** Core application instance injected into the controller. */
-    private final Boyd boyd = new Boyd();
+    private final StartupMetrics startupMetrics = new StartupMetrics();
+
+    /** Applies edits other programs make to the save file while the window is open. */
+    private volatile DataFileWatcher dataFileWatcher;
+
+    /** Table of all tasks shown beside the chat; added once the tasks are loaded. */
+    private TaskTablePanel taskTablePanel;
+
+    /** Set once the application is stopping, so a load finishing late starts nothing. */
+    private volatile boolean isStopped = false;
 
     /**
      * Starts the JavaFX application and initializes the primary stage.
@@ -34,19 +53,68 @@ public class Main extends Application {
             FXMLLoader fxmlLoader = new FXMLLoader(fxmlUrl);
             AnchorPane root = fxmlLoader.load();
 
-            // Inject core object into controller
+            CommandMetrics.registerMBean();
+            // Inject the core, still loading, into the controller
             MainWindow controller = fxmlLoader.getController();
             assert controller != null : "MainWindow controller should be present";
-            controller.setBoyd(boyd);
+            CompletableFuture<Boyd> loading = Boyd.loadAsync(Storage.DEFAULT_FILE_PATH,
+                    progress -> Platform.runLater(() -> controller.setLoadProgress(progress)));
+            controller.setBoyd(loading);
+
+            SplitPane split = new SplitPane(root);
+            SplitPane.setResizableWithParent(root, false);
 
-            Scene scene = new Scene(root);
+            Scene scene = new Scene(split, 960, 560);
             // Attach stylesheet programmatically to avoid FXML URL resolution issues.
             scene.getStylesheets().add(Main.class.getResource("/view/styles.css").toExternalForm());
+            scene.addPostLayoutPulseListener(new Runnable() {
+                @Override
+                public void run() {
+                    startupMetrics.markFirstPaint();
+                    scene.removePostLayoutPulseListener(this);
+                }
+            });
             stage.setScene(scene);
             stage.setTitle("Boyd");
             stage.show();
+
+            loading.thenAccept(boyd -> {
+                if (isStopped) {
+                    return;
+                }
+                startupMetrics.markReady(boyd.getTaskList().size());
+                try {
+                    dataFileWatcher = boyd.watchDataFile();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+                Platform.runLater(() -> showTaskTable(split, boyd));
+            });
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
+
+    private void showTaskTable(SplitPane split, Boyd boyd) {
+        if (isStopped) {
+            return;
+        }
+        taskTablePanel = new TaskTablePanel(boyd.getTaskList());
+        split.getItems().add(taskTablePanel);
+        split.setDividerPositions(0.45);
+    }
+
+    /**
+     * Stops watching the save file and the task list when the application exits.
+     */
+    @Override
+    public void stop() {
+        isStopped = true;
+        if (dataFileWatcher != null) {
+            dataFileWatcher.close();
+        }
+        if (taskTablePanel != null) {
+            taskTablePanel.close();
+        }
+    }
 }
@@ -1,39 +1,99 @@
 package boyd;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 import boyd.utils.BoydResponse;
+import boyd.utils.ChatHistory;
+import boyd.utils.ChatMessage;
 import boyd.utils.DialogBox;
+import boyd.utils.ObservableChatHistory;
+import boyd.utils.RenderCoalescer;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ContentDisplay;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TextField;
 import javafx.scene.image.Image;
 import javafx.scene.layout.AnchorPane;
-import javafx.scene.layout.VBox;
+import javafx.util.Duration;
 
 /**
  * Controller for the main GUI.
+ *
+ * <p>Commands never run on the JavaFX Application Thread: they are queued on a
+ * {@link CommandRunner} and their responses are posted back with
+ * {@link Platform#runLater}, so parsing, searching and saving cannot stall rendering.</p>
+ *
+ * <p>The conversation is a {@link ListView} over a {@link ChatHistory}: only the bubbles
+ * on screen are real nodes, and older messages are kept on disk rather than in memory,
+ * so a long session costs no more to lay out than a short one. New messages go through
+ * a {@link RenderCoalescer}, so a burst of them (pasted commands, a long streamed
+ * response) is added as one change with one scroll to the bottom.</p>
+ *
+ * <p>The window does not wait for the tasks to load: the greeting shows at once, the
+ * pending indicator tracks loading progress, and commands typed meanwhile are queued
+ * and answered once loading finishes.</p>
  */
 public class MainWindow extends AnchorPane {
+    /** Commands taking longer than this show the pending indicator. */
+    private static final Duration PENDING_INDICATOR_DELAY = Duration.millis(150);
+
     @FXML
-    private ScrollPane scrollPane;
-    @FXML
-    private VBox dialogContainer;
+    private ListView<ChatMessage> chatList;
     @FXML
     private TextField userInput;
     @FXML
     private Button sendButton;
+    @FXML
+    private ProgressIndicator pendingIndicator;
+
+    private CommandRunner commandRunner;
+    private final ChatHistory history = new ChatHistory();
+    private final ObservableChatHistory messages = new ObservableChatHistory(history);
+    private final RenderCoalescer<ChatMessage> renderer = new RenderCoalescer<>(Platform::runLater, this::render);
 
-    private Boyd boyd;
+    /** Commands submitted but not yet answered; only touched on the FX thread. */
+    private int pendingCount = 0;
+    /** Whether the core is still loading; only touched on the FX thread. */
+    private boolean isLoading = false;
 
     private Image userImage = new Image(this.getClass().getResourceAsStream("/images/DaUser.jpeg"));
     private Image boydImage = new Image(this.getClass().getResourceAsStream("/images/DaBoyd.jpg"));
 
+    /** Shows one message as a dialog bubble; the bubble is reused for every message the cell shows. */
+    private final class MessageCell extends ListCell<ChatMessage> {
+        private final DialogBox bubble = new DialogBox();
+
+        MessageCell() {
+            // Let the bubble wrap to the list's width instead of widening the list.
+            setPrefWidth(0);
+            setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+        }
+
+        @Override
+        protected void updateItem(ChatMessage message, boolean isEmpty) {
+            super.updateItem(message, isEmpty);
+            if (isEmpty || message == null) {
+                setGraphic(null);
+                return;
+            }
+            bubble.show(message, message.getSender() == ChatMessage.Sender.USER ? userImage : boydImage);
+            setGraphic(bubble);
+        }
+    }
+
     /**
      * Initializes controller bindings after FXML is loaded.
      */
     @FXML
     public void initialize() {
-        scrollPane.vvalueProperty().bind(dialogContainer.heightProperty());
+        chatList.setItems(messages);
+        chatList.setCellFactory(list -> new MessageCell());
     }
 
     /**
@@ -46,16 +106,53 @@ public class MainWindow extends AnchorPane {
         if (d == null) {
             throw new IllegalArgumentException("Boyd instance must not be null");
         }
-        boyd = d;
+        setBoyd(CompletableFuture.completedFuture(d));
+    }
+
+    /**
+     * Injects a {@link Boyd} core that may still be loading and posts an initial greeting
+     * right away. Until loading finishes, the pending indicator shows its progress (see
+     * {@link #setLoadProgress(double)}) and commands wait in order.
+     *
+     * @param loading the application core, once loaded
+     * @throws IllegalArgumentException if {@code loading} is {@code null}
+     */
+    public void setBoyd(CompletableFuture<Boyd> loading) {
+        if (loading == null) {
+            throw new IllegalArgumentException("Boyd instance must not be null");
+        }
+        commandRunner = new CommandRunner(loading, Platform::runLater);
         // Proactively message the user first
-        String greeting = boyd.getGreeting();
-        dialogContainer.getChildren().add(
-                DialogBox.getBoydDialog(greeting, boydImage)
-        );
+        show(ChatMessage.Sender.BOYD, Boyd.greeting());
+        if (!loading.isDone()) {
+            isLoading = true;
+            pendingIndicator.setProgress(0.0);
+            pendingIndicator.setVisible(true);
+            loading.whenComplete((boyd, e) -> Platform.runLater(this::finishLoading));
+        }
     }
 
     /**
-     * Handles the Send action: reads user input, gets a response, and updates the dialog.
+     * Shows how far loading has got. Must be called on the FX thread.
+     *
+     * @param progress fraction loaded, from {@code 0} to {@code 1}
+     */
+    public void setLoadProgress(double progress) {
+        if (isLoading) {
+            pendingIndicator.setProgress(progress);
+        }
+    }
+
+    /** Returns the pending indicator to tracking commands once loading is over. */
+    private void finishLoading() {
+        isLoading = false;
+        pendingIndicator.setProgress(ProgressIndicator.INDETERMINATE_PROGRESS);
+        pendingIndicator.setVisible(pendingCount > 0);
+    }
+
+    /**
+     * Handles the Send action: echoes the user input and queues the command.
+     * The response is shown by {@link #showResponse(BoydResponse)} once it is ready.
      */
     @FXML
     private void handleUserInput() {
@@ -64,18 +161,57 @@ public class MainWindow extends AnchorPane {
             return;
         }
 
-        BoydResponse res = boyd.getResponse(input);
+        show(ChatMessage.Sender.USER, input);
+        userInput.clear();
 
-        dialogContainer.getChildren().addAll(
-                DialogBox.getUserDialog(input, userImage),
-                res.isError()
-                        ? DialogBox.getErrorDialog(res.message(), boydImage)
-                        : DialogBox.getBoydDialog(res.message(), boydImage)
-        );
+        pendingCount++;
+        PauseTransition delay = new PauseTransition(PENDING_INDICATOR_DELAY);
+        delay.setOnFinished(e -> pendingIndicator.setVisible(isLoading || pendingCount > 0));
+        delay.play();
+
+        commandRunner.submit(input, this::showChunk, this::showResponse);
+    }
+
+    /**
+     * Shows one chunk of a long, streamed response as soon as it has been rendered.
+     *
+     * @param chunk a few lines of the response
+     */
+    private void showChunk(String chunk) {
+        show(ChatMessage.Sender.BOYD, chunk);
+    }
+
+    /**
+     * Shows a command's response. Runs on the FX thread, in command order, after any
+     * chunks of a streamed response have been shown by {@link #showChunk(String)}.
+     *
+     * @param res the response to display
+     */
+    private void showResponse(BoydResponse res) {
+        pendingCount--;
+        if (pendingCount == 0 && !isLoading) {
+            pendingIndicator.setVisible(false);
+        }
+
+        if (!res.isStreamed()) {
+            show(res.isError() ? ChatMessage.Sender.ERROR : ChatMessage.Sender.BOYD, res.message());
+        }
 
-        userInput.clear();
         if (res.isExit()) {
-            javafx.application.Platform.exit();
+            renderer.close();
+            commandRunner.close();
+            history.close();
+            Platform.exit();
         }
     }
+
+    /** Queues a message to be added to the conversation with the next batch. */
+    private void show(ChatMessage.Sender sender, String text) {
+        renderer.submit(new ChatMessage(sender, text));
+    }
+
+    /** Adds a batch of messages to the conversation and scrolls to the last one. */
+    private void render(List<ChatMessage> batch) {
+        chatList.scrollTo(messages.appendAll(batch));
+    }
 }
@@ -0,0 +1,41 @@
+package boyd;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event for one startup milestone recorded by {@link StartupMetrics}.
+ */
+@Name("boyd.Startup")
+@Label("Startup")
+@Category("Boyd")
+@Description("A GUI startup milestone, measured from JVM start")
+@StackTrace(false)
+final class StartupEvent extends jdk.jfr.Event {
+    @Label("Milestone")
+    @Description("first paint or ready")
+    String milestone;
+
+    @Label("Since JVM Start")
+    @Timespan(Timespan.MILLISECONDS)
+    long uptime;
+
+    @Label("Tasks")
+    @Description("Tasks loaded when ready; 0 for first paint")
+    int tasks;
+
+    /** Commits an event for a milestone, if one is being recorded. */
+    static void commit(String milestone, long uptimeMillis, int tasks) {
+        StartupEvent event = new StartupEvent();
+        if (event.shouldCommit()) {
+            event.milestone = milestone;
+            event.uptime = uptimeMillis;
+            event.tasks = tasks;
+            event.commit();
+        }
+    }
+}
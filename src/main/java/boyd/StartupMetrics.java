@@ -0,0 +1,88 @@
+package boyd;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.LongSupplier;
+
+/**
+ * Records how long the GUI takes to start, measured from JVM start.
+ *
+ * <p>Two moments matter: <em>first paint</em>, when the window and greeting are on
+ * screen, and <em>ready</em>, when the tasks are loaded and commands run without
+ * waiting. Each is recorded once; later marks are ignored.</p>
+ *
+ * <p>Nothing is printed: each milestone is emitted as a {@code boyd.Startup} Flight
+ * Recorder event, e.g. for {@code java -XX:StartFlightRecording}, and can be read back
+ * through the getters.</p>
+ */
+public class StartupMetrics {
+    /** Marks not yet recorded read as this. */
+    public static final long NOT_YET = -1;
+
+    private final LongSupplier uptimeMillis;
+
+    private volatile long firstPaintMillis = NOT_YET;
+    private volatile long readyMillis = NOT_YET;
+    private volatile int readyTasks;
+
+    /**
+     * Creates metrics measured from JVM start.
+     */
+    public StartupMetrics() {
+        this(() -> ManagementFactory.getRuntimeMXBean().getUptime());
+    }
+
+    /**
+     * Creates metrics measured by the given clock.
+     *
+     * @param uptimeMillis milliseconds elapsed since start
+     * @throws IllegalArgumentException if {@code uptimeMillis} is {@code null}
+     */
+    StartupMetrics(LongSupplier uptimeMillis) {
+        if (uptimeMillis == null) {
+            throw new IllegalArgumentException("uptimeMillis must be non-null");
+        }
+        this.uptimeMillis = uptimeMillis;
+    }
+
+    /**
+     * Records that the window has been painted for the first time.
+     *
+     * @return whether this call recorded it, i.e. it was the first
+     */
+    public synchronized boolean markFirstPaint() {
+        if (firstPaintMillis != NOT_YET) {
+            return false;
+        }
+        firstPaintMillis = uptimeMillis.getAsLong();
+        StartupEvent.commit("first paint", firstPaintMillis, 0);
+        return true;
+    }
+
+    /**
+     * Records that the tasks are loaded and commands can run.
+     *
+     * @param taskCount number of tasks loaded
+     * @return whether this call recorded it, i.e. it was the first
+     */
+    public synchronized boolean markReady(int taskCount) {
+        if (readyMillis != NOT_YET) {
+            return false;
+        }
+        readyMillis = uptimeMillis.getAsLong();
+        readyTasks = taskCount;
+        StartupEvent.commit("ready", readyMillis, taskCount);
+        return true;
+    }
+
+    public long getFirstPaintMillis() {
+        return firstPaintMillis;
+    }
+
+    public long getReadyMillis() {
+        return readyMillis;
+    }
+
+    public int getReadyTasks() {
+        return readyTasks;
+    }
+}
@@ -0,0 +1,111 @@
+package boyd;
+
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+import boyd.tasks.DateTimes;
+import boyd.tasks.Deadline;
+import boyd.tasks.Event;
+import boyd.tasks.Task;
+import boyd.utils.ObservableTaskList;
+import boyd.utils.TaskList;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
+import javafx.geometry.Insets;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.util.Duration;
+
+/**
+ * Side panel listing every task in a sortable table, with a filter box.
+ *
+ * <p>The table is backed by an {@link ObservableTaskList}, so it follows the task list
+ * change by change, and only the rows on screen are rendered, which keeps it responsive
+ * with a million tasks. The filter matches like {@code find} and is applied once typing
+ * pauses; clicking a column header sorts by it.</p>
+ */
+public class TaskTablePanel extends VBox implements AutoCloseable {
+    /** Typing pause after which the filter is applied. */
+    private static final Duration FILTER_DELAY = Duration.millis(200);
+
+    private final ObservableTaskList tasks;
+
+    /**
+     * Creates a panel following the given task list. Must be called on the JavaFX
+     * Application Thread.
+     *
+     * @param taskList task list to show
+     * @throws IllegalArgumentException if {@code taskList} is {@code null}
+     */
+    public TaskTablePanel(TaskList taskList) {
+        if (taskList == null) {
+            throw new IllegalArgumentException("taskList must be non-null");
+        }
+        tasks = new ObservableTaskList(taskList, Platform::runLater);
+        FilteredList<Task> filtered = new FilteredList<>(tasks);
+        SortedList<Task> sorted = new SortedList<>(filtered);
+
+        TableView<Task> table = new TableView<>(sorted);
+        sorted.comparatorProperty().bind(table.comparatorProperty());
+        table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+        table.setPlaceholder(new Label("No tasks"));
+        table.getColumns().add(column("Type", 60, TaskTablePanel::typeOf));
+        table.getColumns().add(column("Done", 50, task -> task.isDone() ? "X" : ""));
+        table.getColumns().add(column("Description", 220, Task::getDescription));
+        table.getColumns().add(column("Due / From", 130, task -> format(startOf(task))));
+        table.getColumns().add(column("To", 130,
+                task -> task instanceof Event ? format(((Event) task).getEndDateTime()) : ""));
+        VBox.setVgrow(table, Priority.ALWAYS);
+
+        TextField filter = new TextField();
+        filter.setPromptText("Filter tasks…");
+        PauseTransition delay = new PauseTransition(FILTER_DELAY);
+        delay.setOnFinished(e -> filtered.setPredicate(ObservableTaskList.findFilter(filter.getText())));
+        filter.textProperty().addListener((observable, oldText, newText) -> delay.playFromStart());
+
+        setSpacing(8.0);
+        setPadding(new Insets(8.0));
+        getChildren().addAll(filter, table);
+    }
+
+    /**
+     * Stops following the task list.
+     */
+    @Override
+    public void close() {
+        tasks.close();
+    }
+
+    private static TableColumn<Task, String> column(String title, double width, Function<Task, String> value) {
+        TableColumn<Task, String> column = new TableColumn<>(title);
+        column.setPrefWidth(width);
+        column.setCellValueFactory(cell -> new ReadOnlyStringWrapper(value.apply(cell.getValue())));
+        return column;
+    }
+
+    private static String typeOf(Task task) {
+        if (task instanceof Deadline) {
+            return "Deadline";
+        }
+        return task instanceof Event ? "Event" : "To-do";
+    }
+
+    private static LocalDateTime startOf(Task task) {
+        if (task instanceof Deadline) {
+            return ((Deadline) task).getDateTime();
+        }
+        return task instanceof Event ? ((Event) task).getStartDateTime() : null;
+    }
+
+    /** Formats as {@code uuuu-MM-dd HH:mm}, which also sorts chronologically as text. */
+    private static String format(LocalDateTime dateTime) {
+        return dateTime == null ? "" : DateTimes.format(dateTime);
+    }
+}
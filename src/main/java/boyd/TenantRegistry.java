@@ -0,0 +1,282 @@
+package boyd;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import boyd.tasks.Task;
+import boyd.utils.TaskList;
+import boyd.utils.TaskListListener;
+
+/**
+ * Hosts many users' task lists in one JVM.
+ *
+ * <p>Each user ID maps to its own save file, {@code <dataDir>/<userId>.txt}. A user's
+ * {@link Boyd} instance is loaded lazily on first access and kept resident until it
+ * is evicted. Budgets are checked on every {@link #get(String)}: while either the number
+ * of resident tenants or the total number of resident tasks (a cheap proxy for heap
+ * use) is over its limit, the least-recently-used tenant is evicted. Evicted tenants
+ * are saved one last time and sealed ({@link TaskList#seal()}), and are transparently
+ * reloaded on their next access.</p>
+ *
+ * <p>This class is thread-safe. Loading and saving happen outside the registry's lock,
+ * so one slow disk read holds up only the callers waiting for that same user; a
+ * reload waits until the evicted copy has been saved. The number of resident tasks is
+ * kept as a running total, updated by a listener on each resident list. Callers should
+ * look a tenant up via {@link #get(String)} for each request rather than holding on to
+ * the returned instance: once evicted, a held instance refuses every change, so it can
+ * never overwrite the reloaded copy.</p>
+ */
+public class TenantRegistry implements AutoCloseable {
+
+    private static final Pattern USER_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private final Path dataDir;
+    private final int maxTenants;
+    private final long maxResidentTasks;
+
+    /** Resident tenants in access order (eldest first); guarded by {@code this}. */
+    private final LinkedHashMap<String, Tenant> tenants = new LinkedHashMap<>(16, 0.75f, true);
+    /** Evicted tenants still being saved, by user ID; guarded by {@code this}. */
+    private final Map<String, CompletableFuture<Void>> unloading = new HashMap<>();
+    /** Tasks held by resident tenants that have finished loading. */
+    private final AtomicLong residentTasks = new AtomicLong();
+
+    /** One resident user: its instance once loaded, and its share of {@link #residentTasks}. */
+    private final class Tenant implements TaskListListener {
+        private final String userId;
+        private final CompletableFuture<Boyd> loaded = new CompletableFuture<>();
+        /** Completed once this tenant, after eviction, has been saved and sealed. */
+        private final CompletableFuture<Void> unloaded = new CompletableFuture<>();
+        /** Tasks counted in {@link #residentTasks}; guarded by {@code this}. */
+        private long size;
+        /** Whether this tenant has been evicted and no longer counts; guarded by {@code this}. */
+        private boolean isDetached;
+
+        Tenant(String userId) {
+            this.userId = userId;
+        }
+
+        synchronized void attach(int initialSize) {
+            resize(initialSize);
+        }
+
+        /** Stops counting this tenant's tasks, as of now. */
+        synchronized void detach() {
+            residentTasks.addAndGet(-size);
+            size = 0;
+            isDetached = true;
+        }
+
+        private synchronized void resize(long newSize) {
+            if (!isDetached) {
+                residentTasks.addAndGet(newSize - size);
+                size = newSize;
+            }
+        }
+
+        @Override
+        public void onAdded(int index, Task task, long version) {
+            addToSize(1);
+        }
+
+        @Override
+        public void onAddedAll(int index, List<Task> added, long version) {
+            addToSize(added.size());
+        }
+
+        @Override
+        public void onRemoved(int index, Task task, long version) {
+            addToSize(-1);
+        }
+
+        @Override
+        public void onReset(List<Task> snapshot, long version) {
+            resize(snapshot.size());
+        }
+
+        private synchronized void addToSize(long delta) {
+            resize(size + delta);
+        }
+    }
+
+    /**
+     * Creates a registry that stores each user's tasks under {@code dataDir}.
+     *
+     * @param dataDir directory holding one save file per user
+     * @param maxTenants maximum number of tenants kept in memory (at least 1)
+     * @param maxResidentTasks maximum total tasks across resident tenants (at least 1); the
+     *     most recently used tenant is always kept, even if it alone exceeds this budget
+     * @throws IllegalArgumentException if {@code dataDir} is {@code null} or a budget is not positive
+     */
+    public TenantRegistry(Path dataDir, int maxTenants, long maxResidentTasks) {
+        if (dataDir == null) {
+            throw new IllegalArgumentException("dataDir must be non-null");
+        }
+        if (maxTenants < 1 || maxResidentTasks < 1) {
+            throw new IllegalArgumentException("budgets must be positive");
+        }
+        this.dataDir = dataDir;
+        this.maxTenants = maxTenants;
+        this.maxResidentTasks = maxResidentTasks;
+    }
+
+    /**
+     * Returns the {@link Boyd} instance for a user, loading it from disk if it is not resident.
+     *
+     * @param userId user identifier: 1-64 letters, digits, {@code _} or {@code -}
+     * @return the user's application core
+     * @throws IllegalArgumentException if {@code userId} is {@code null} or not a valid identifier
+     */
+    public Boyd get(String userId) {
+        if (userId == null || !USER_ID.matcher(userId).matches()) {
+            throw new IllegalArgumentException("userId must be 1-64 letters, digits, '_' or '-'");
+        }
+        Tenant tenant;
+        CompletableFuture<Void> previous = null;
+        boolean isLoader = false;
+        List<Tenant> evicted;
+        synchronized (this) {
+            tenant = tenants.get(userId);
+            if (tenant == null) {
+                tenant = new Tenant(userId);
+                tenants.put(userId, tenant);
+                previous = unloading.get(userId);
+                isLoader = true;
+            }
+            evicted = evictOverBudget();
+        }
+        unload(evicted);
+        if (isLoader) {
+            load(tenant, previous);
+        }
+        return tenant.loaded.join();
+    }
+
+    /** Loads a tenant's list, once any earlier copy of it has been saved and sealed. */
+    private void load(Tenant tenant, CompletableFuture<Void> previous) {
+        try {
+            if (previous != null) {
+                previous.join();
+            }
+            Boyd boyd = new Boyd(dataDir.resolve(tenant.userId + ".txt").toString());
+            TaskList tasks = boyd.getTaskList();
+            tasks.addListener(tenant);
+            tenant.attach(tasks.size());
+            tenant.loaded.complete(boyd);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                tenants.remove(tenant.userId, tenant);
+            }
+            tenant.loaded.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns whether the user's list is currently loaded.
+     *
+     * @param userId user identifier
+     * @return {@code true} if resident
+     */
+    public synchronized boolean isResident(String userId) {
+        return tenants.containsKey(userId);
+    }
+
+    /**
+     * Returns the number of tenants currently loaded.
+     *
+     * @return resident tenant count
+     */
+    public synchronized int residentCount() {
+        return tenants.size();
+    }
+
+    /**
+     * Returns the number of tasks held by resident tenants.
+     *
+     * @return resident task count
+     */
+    public long residentTaskCount() {
+        return residentTasks.get();
+    }
+
+    /**
+     * Saves, seals and unloads every resident tenant.
+     */
+    @Override
+    public void close() {
+        List<Tenant> evicted;
+        synchronized (this) {
+            evicted = new ArrayList<>(tenants.values());
+            for (Tenant tenant : evicted) {
+                evict(tenant);
+            }
+            tenants.clear();
+        }
+        unload(evicted);
+    }
+
+    /**
+     * Evicts least-recently-used tenants, never the most recent one nor one still
+     * loading, until both budgets hold. Must hold {@code this}; the caller then
+     * {@link #unload(List) unloads} the returned tenants once it has released the lock.
+     */
+    private List<Tenant> evictOverBudget() {
+        List<Tenant> evicted = new ArrayList<>();
+        Iterator<Tenant> eldestFirst = tenants.values().iterator();
+        int remaining = tenants.size();
+        while (remaining > 1 && (tenants.size() > maxTenants || residentTasks.get() > maxResidentTasks)) {
+            Tenant tenant = eldestFirst.next();
+            remaining--;
+            if (tenant.loaded.isDone()) {
+                evict(tenant);
+                evicted.add(tenant);
+                eldestFirst.remove();
+            }
+        }
+        return evicted;
+    }
+
+    /** Stops counting a tenant, so a reload waits for it to be unloaded. Must hold {@code this}. */
+    private void evict(Tenant tenant) {
+        tenant.detach();
+        unloading.put(tenant.userId, tenant.unloaded);
+    }
+
+    /**
+     * Saves and seals evicted tenants. Must not hold {@code this}, as this does disk I/O.
+     * Every tenant is unloaded even if an earlier one fails to save; the first failure is
+     * then rethrown.
+     */
+    private void unload(List<Tenant> evicted) {
+        RuntimeException failure = null;
+        for (Tenant tenant : evicted) {
+            try {
+                TaskList tasks = tenant.loaded.join().getTaskList();
+                tasks.removeListener(tenant);
+                tasks.seal();
+            } catch (CompletionException e) {
+                // Never loaded, so there is nothing to save.
+            } catch (RuntimeException e) {
+                failure = failure == null ? e : failure;
+            } finally {
+                synchronized (this) {
+                    unloading.remove(tenant.userId, tenant.unloaded);
+                }
+                tenant.unloaded.complete(null);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package boyd.exceptions;
+
+/**
+ * Thrown when a command expected the task list to be at an older version than it is,
+ * i.e. another client changed it in the meantime.
+ */
+public class VersionConflictException extends BoydException {
+
+    private final long currentVersion;
+
+    /**
+     * Creates a conflict for a command that expected {@code expectedVersion}.
+     *
+     * @param expectedVersion version the command was based on
+     * @param currentVersion version the list is actually at
+     */
+    public VersionConflictException(long expectedVersion, long currentVersion) {
+        super(String.format("Conflict: the list has changed since @v%d (now @v%d). "
+                + "Please check the list and try again.", expectedVersion, currentVersion));
+        this.currentVersion = currentVersion;
+    }
+
+    /**
+     * Returns the version the list was at when the conflict was detected.
+     *
+     * @return current list version
+     */
+    public long getCurrentVersion() {
+        return currentVersion;
+    }
+}
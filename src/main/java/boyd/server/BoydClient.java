@@ -0,0 +1,101 @@
+package boyd.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+import boyd.utils.BoydResponse;
+
+/**
+ * Blocking client for {@link BoydServer}.
+ *
+ * <p>Instances are not thread-safe; use one client per thread.</p>
+ */
+public class BoydClient implements AutoCloseable {
+
+    private final Socket socket;
+    private final BufferedReader in;
+    private final BufferedWriter out;
+    private final BoydResponse greeting;
+
+    /**
+     * Connects to a server and reads its greeting.
+     *
+     * @param host server host, e.g. {@code "localhost"}
+     * @param port server port
+     * @throws IOException if the connection fails
+     */
+    public BoydClient(String host, int port) throws IOException {
+        this.socket = new Socket(host, port);
+        this.socket.setTcpNoDelay(true);
+        this.in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        this.out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+        this.greeting = LineProtocol.readResponse(in);
+    }
+
+    /**
+     * Returns the greeting the server sent on connect.
+     *
+     * @return greeting response
+     */
+    public BoydResponse getGreeting() {
+        return greeting;
+    }
+
+    /**
+     * Sends one command and waits for its response.
+     *
+     * @param command a single-line command, e.g. {@code "todo read book"}
+     * @return the server's response
+     * @throws IOException if the connection fails
+     * @throws IllegalArgumentException if {@code command} is {@code null} or spans several lines
+     */
+    public BoydResponse send(String command) throws IOException {
+        write(command);
+        return LineProtocol.readResponse(in);
+    }
+
+    /**
+     * Sends one command and hands each line of the response message to {@code onLine}
+     * as soon as it arrives, so a long list can be shown without waiting for, or
+     * holding, the whole reply.
+     *
+     * @param command a single-line command, e.g. {@code "list"}
+     * @param onLine receives the message lines in order
+     * @return the server's response status and version, with an empty message
+     * @throws IOException if the connection fails
+     * @throws IllegalArgumentException if {@code command} is {@code null} or spans several lines,
+     *     or {@code onLine} is {@code null}
+     */
+    public BoydResponse send(String command, Consumer<String> onLine) throws IOException {
+        if (onLine == null) {
+            throw new IllegalArgumentException("onLine must be non-null");
+        }
+        write(command);
+        return LineProtocol.readResponse(in, onLine);
+    }
+
+    private void write(String command) throws IOException {
+        if (command == null || command.indexOf('\n') >= 0 || command.indexOf('\r') >= 0) {
+            throw new IllegalArgumentException("command must be a single non-null line");
+        }
+        out.write(command);
+        out.write('\n');
+        out.flush();
+    }
+
+    /**
+     * Closes the connection without sending {@code bye}.
+     *
+     * @throws IOException if closing the socket fails
+     */
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
@@ -0,0 +1,251 @@
+package boyd.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import boyd.Boyd;
+import boyd.utils.BoydResponse;
+import boyd.utils.CommandMetrics;
+import boyd.utils.CommandPipeline;
+import boyd.utils.DataFileWatcher;
+
+/**
+ * Headless front-end that serves a single {@link Boyd} instance over a local TCP socket.
+ *
+ * <p>The server binds to the loopback interface only. Each client sends one command
+ * per line (UTF-8) and receives one framed response per command, as described in
+ * {@link LineProtocol}. The greeting is sent as the first response after connecting,
+ * and the connection is closed after an {@code EXIT} response (i.e. after {@code bye}).
+ * Besides a {@link Boyd} instance, the server can front any command handler, such as a
+ * read-only {@link ReplicationFollower}.</p>
+ *
+ * <p>Commands sent to a {@link Boyd} instance go through one {@link CommandPipeline}
+ * shared by all clients: they are parsed in parallel, applied by a single writer in
+ * arrival order, and saved once per batch rather than once per command. Each client
+ * still gets its response only after its command has been saved. Commands that only
+ * read the list are answered on the client's own thread instead, without waiting.</p>
+ *
+ * <p>Every connection is handled on its own virtual thread when the runtime supports
+ * them (Java 21+), so thousands of mostly idle clients are cheap. On older runtimes
+ * it falls back to a cached pool of platform daemon threads.</p>
+ */
+public class BoydServer implements AutoCloseable {
+
+    /** Port used by {@link #main(String[])} when none is given. */
+    public static final int DEFAULT_PORT = 7171;
+
+    /** Ring buffer size of the command pipeline in front of a {@link Boyd} instance. */
+    private static final int PIPELINE_CAPACITY = 1024;
+
+    private static final int PIPELINE_PARSERS =
+            Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+
+    private final Function<String, BoydResponse> handler;
+    /** Pipeline in front of the {@link Boyd} instance served, or {@code null} for a plain handler. */
+    private final CommandPipeline pipeline;
+    private final String greeting;
+    private final ServerSocket serverSocket;
+    private final ExecutorService connectionExecutor = newConnectionExecutor();
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final Thread acceptThread;
+
+    /**
+     * Binds a server on the loopback interface. Call {@link #start()} to accept clients.
+     *
+     * @param boyd application core shared by all clients
+     * @param port TCP port to listen on, or {@code 0} to pick a free port
+     * @throws IOException if the port cannot be bound
+     * @throws IllegalArgumentException if {@code boyd} is {@code null}
+     */
+    public BoydServer(Boyd boyd, int port) throws IOException {
+        this(requireNonNull(boyd), null, boyd.getGreeting(), port);
+    }
+
+    /**
+     * Binds a server that answers every command line with {@code handler}.
+     *
+     * @param handler computes the response to one command line; called concurrently
+     * @param greeting message sent to each client on connect
+     * @param port TCP port to listen on, or {@code 0} to pick a free port
+     * @throws IOException if the port cannot be bound
+     * @throws IllegalArgumentException if {@code handler} or {@code greeting} is {@code null}
+     */
+    public BoydServer(Function<String, BoydResponse> handler, String greeting, int port) throws IOException {
+        this(null, handler, greeting, port);
+    }
+
+    private BoydServer(Boyd boyd, Function<String, BoydResponse> handler, String greeting, int port)
+            throws IOException {
+        if ((boyd == null && handler == null) || greeting == null) {
+            throw new IllegalArgumentException("handler and greeting must be non-null");
+        }
+        // Bind first, so a port that is taken leaves no pipeline threads behind.
+        this.serverSocket = new ServerSocket(port, 512, InetAddress.getLoopbackAddress());
+        if (boyd != null) {
+            CommandPipeline commands = new CommandPipeline(boyd.getTaskList(), PIPELINE_CAPACITY, PIPELINE_PARSERS);
+            this.pipeline = commands;
+            this.handler = line -> respond(commands, line);
+        } else {
+            this.pipeline = null;
+            this.handler = handler;
+        }
+        this.greeting = greeting;
+        this.acceptThread = new Thread(this::acceptLoop, "boyd-server-accept");
+    }
+
+    /**
+     * Starts accepting connections on a background thread.
+     *
+     * @return this server, for chaining
+     */
+    public BoydServer start() {
+        acceptThread.start();
+        return this;
+    }
+
+    /**
+     * Returns the port the server is bound to.
+     *
+     * @return local port
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Stops accepting connections and closes all open client connections.
+     */
+    @Override
+    public void close() {
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // Already closed; nothing left to release.
+        }
+        for (Socket socket : connections) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Closing a half-dead socket can fail; the handler exits either way.
+            }
+        }
+        connectionExecutor.shutdownNow();
+        if (pipeline != null) {
+            pipeline.close();
+        }
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connections.add(socket);
+                connectionExecutor.execute(() -> serve(socket));
+            } catch (SocketException e) {
+                // Server socket closed by close(); leave the loop.
+                return;
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter out = new BufferedWriter(
+                     new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            LineProtocol.writeResponse(out, BoydResponse.ok(greeting));
+            out.flush();
+
+            String line;
+            while ((line = in.readLine()) != null) {
+                BoydResponse response = handler.apply(line);
+                LineProtocol.writeResponse(out, response);
+                if (response.isExit()) {
+                    break;
+                }
+                // Pipelined clients: only flush once every buffered command has been answered.
+                if (!in.ready()) {
+                    out.flush();
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            // Client disconnected abruptly; the socket is closed by try-with-resources.
+        } finally {
+            connections.remove(socket);
+        }
+    }
+
+    /** Hands a command line to the pipeline and waits until it has been applied and saved, or answered. */
+    private static BoydResponse respond(CommandPipeline pipeline, String line) {
+        try {
+            return pipeline.submit(line).join();
+        } catch (IllegalStateException | CompletionException e) {
+            // The pipeline was closed by close(); the connection is being closed too.
+            return BoydResponse.error("The server is shutting down.");
+        }
+    }
+
+    private static Boyd requireNonNull(Boyd boyd) {
+        if (boyd == null) {
+            throw new IllegalArgumentException("Boyd instance must not be null");
+        }
+        return boyd;
+    }
+
+    /**
+     * Returns a virtual-thread-per-task executor when available, else a cached daemon pool.
+     * Looked up reflectively so the project still builds and runs on Java 17.
+     */
+    private static ExecutorService newConnectionExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "boyd-server-connection");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Runs the server until the process is terminated.
+     *
+     * @param args optional {@code [port [dataFile]]}
+     * @throws IOException if the port cannot be bound
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        CommandMetrics.registerMBean();
+        Boyd boyd = args.length > 1 ? new Boyd(args[1]) : new Boyd();
+        BoydServer server = new BoydServer(boyd, port).start();
+        DataFileWatcher watcher = boyd.watchDataFile();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            watcher.close();
+        }));
+        System.out.println("Boyd server listening on " + InetAddress.getLoopbackAddress().getHostAddress()
+                + ":" + server.getPort());
+    }
+}
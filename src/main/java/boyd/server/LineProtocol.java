@@ -0,0 +1,153 @@
+package boyd.server;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.StringJoiner;
+import java.util.function.Consumer;
+
+import boyd.utils.BoydResponse;
+
+/**
+ * Encodes and decodes {@link BoydResponse} values for the server's line protocol.
+ *
+ * <p>A response is a status line ({@code OK}, {@code ERROR}, {@code CONFLICT} or
+ * {@code EXIT}, followed by {@code " @v<version>"} when the response reflects a task
+ * list version and by {@code " UNSAVED"} when its change could not be saved), the message
+ * lines, and a terminator line holding a single {@code "."}. Message lines that start
+ * with {@code "."} get an extra leading dot so they can never be mistaken for the
+ * terminator. Lines always end with {@code '\n'}.</p>
+ *
+ * <p>A streamed response is written chunk by chunk as its chunks are produced and can be
+ * read line by line as the lines arrive, so neither end holds the whole message.</p>
+ */
+final class LineProtocol {
+
+    static final String STATUS_OK = "OK";
+    static final String STATUS_ERROR = "ERROR";
+    static final String STATUS_CONFLICT = "CONFLICT";
+    static final String STATUS_EXIT = "EXIT";
+    static final String VERSION_PREFIX = " @v";
+    static final String UNSAVED_SUFFIX = " UNSAVED";
+    static final String END = ".";
+
+    private LineProtocol() {
+        // Utility class; do not instantiate.
+    }
+
+    /**
+     * Writes one framed response. A streamed response is flushed after each chunk, so the
+     * client sees its first lines at once; otherwise does not flush.
+     *
+     * @param out destination
+     * @param response response to encode
+     * @throws IOException if writing fails
+     */
+    static void writeResponse(Writer out, BoydResponse response) throws IOException {
+        out.write(statusOf(response));
+        if (response.version() != BoydResponse.NO_VERSION) {
+            out.write(VERSION_PREFIX);
+            out.write(Long.toString(response.version()));
+        }
+        if (response.isSaveFailed()) {
+            out.write(UNSAVED_SUFFIX);
+        }
+        out.write('\n');
+        for (String chunk : response.chunks()) {
+            for (String line : chunk.split("\\R", -1)) {
+                if (line.startsWith(END)) {
+                    out.write('.');
+                }
+                out.write(line);
+                out.write('\n');
+            }
+            if (response.isStreamed()) {
+                out.flush();
+            }
+        }
+        out.write(END);
+        out.write('\n');
+    }
+
+    /**
+     * Reads one framed response.
+     *
+     * @param in source
+     * @return the decoded response; message lines are joined with the platform line separator
+     * @throws IOException if reading fails, the stream ends mid-response or the status is unknown
+     */
+    static BoydResponse readResponse(BufferedReader in) throws IOException {
+        StringJoiner message = new StringJoiner(System.lineSeparator());
+        return readResponse(in, message::add, message);
+    }
+
+    /**
+     * Reads one framed response, handing each message line to {@code onLine} as soon as it
+     * has been read.
+     *
+     * @param in source
+     * @param onLine receives the message lines in order
+     * @return the decoded status and version, with an empty message
+     * @throws IOException if reading fails, the stream ends mid-response or the status is unknown
+     */
+    static BoydResponse readResponse(BufferedReader in, Consumer<String> onLine) throws IOException {
+        return readResponse(in, onLine, null);
+    }
+
+    private static BoydResponse readResponse(BufferedReader in, Consumer<String> onLine, StringJoiner message)
+            throws IOException {
+        String status = in.readLine();
+        if (status == null) {
+            throw new EOFException("Connection closed before a response was received");
+        }
+        boolean isSaveFailed = status.endsWith(UNSAVED_SUFFIX);
+        if (isSaveFailed) {
+            status = status.substring(0, status.length() - UNSAVED_SUFFIX.length());
+        }
+        long version = BoydResponse.NO_VERSION;
+        int versionStart = status.indexOf(VERSION_PREFIX);
+        if (versionStart >= 0) {
+            try {
+                version = Long.parseLong(status.substring(versionStart + VERSION_PREFIX.length()));
+            } catch (NumberFormatException e) {
+                throw new IOException("Bad status line: " + status, e);
+            }
+            status = status.substring(0, versionStart);
+        }
+        String line;
+        while (!END.equals(line = in.readLine())) {
+            if (line == null) {
+                throw new EOFException("Connection closed in the middle of a response");
+            }
+            onLine.accept(line.startsWith("..") ? line.substring(1) : line);
+        }
+        BoydResponse response = decode(status, message == null ? "" : message.toString()).withVersion(version);
+        return isSaveFailed ? response.withSaveFailed() : response;
+    }
+
+    private static BoydResponse decode(String status, String message) throws IOException {
+        switch (status) {
+        case STATUS_OK:
+            return BoydResponse.ok(message);
+        case STATUS_ERROR:
+            return BoydResponse.error(message);
+        case STATUS_CONFLICT:
+            return BoydResponse.conflict(message);
+        case STATUS_EXIT:
+            return BoydResponse.exit(message);
+        default:
+            throw new IOException("Unknown response status: " + status);
+        }
+    }
+
+    private static String statusOf(BoydResponse response) {
+        if (response.isExit()) {
+            return STATUS_EXIT;
+        }
+        if (response.isConflict()) {
+            return STATUS_CONFLICT;
+        }
+        return response.isError() ? STATUS_ERROR : STATUS_OK;
+    }
+}
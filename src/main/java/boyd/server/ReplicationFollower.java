@@ -0,0 +1,273 @@
+package boyd.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import boyd.Boyd;
+import boyd.tasks.Task;
+import boyd.utils.BoydResponse;
+import boyd.utils.CommandMetrics;
+import boyd.utils.Storage;
+import boyd.utils.TaskList;
+
+/**
+ * Read-only replica of a {@link ReplicationLeader}'s task list.
+ *
+ * <p>The follower keeps its own in-memory {@link TaskList}, applies the leader's change
+ * stream to it, and answers {@code list} and {@code find} from that copy without touching
+ * the save file. Every other command except {@code bye} is refused. If the connection
+ * drops, the follower reconnects with exponential backoff and resumes from the last
+ * version it applied (or from a fresh snapshot if the leader can no longer serve that).</p>
+ *
+ * <p>Reads have bounded staleness: the leader sends a change or heartbeat at least every
+ * {@value ReplicationLeader#PING_INTERVAL_MILLIS} ms, and if nothing has arrived for longer
+ * than the configured maximum staleness, reads are refused until the follower has caught
+ * up again.</p>
+ */
+public class ReplicationFollower implements AutoCloseable {
+
+    /** Maximum staleness used by {@link #main(String[])} when none is given. */
+    public static final long DEFAULT_MAX_STALENESS_MILLIS = 1_000;
+
+    static final String READ_ONLY_MESSAGE = "This is a read-only replica. Send changes to the leader.";
+    static final String STALE_MESSAGE = "This replica is out of date. Please try again shortly.";
+
+    private static final long MIN_BACKOFF_MILLIS = 50;
+    private static final long MAX_BACKOFF_MILLIS = 2_000;
+
+    private final String host;
+    private final int leaderPort;
+    private final long maxStalenessNanos;
+    private final TaskList tasks = new TaskList(new ArrayList<>(), null, 0);
+    private final Boyd boyd = new Boyd(tasks);
+    private final Thread thread;
+
+    /** Epoch of the leader whose stream {@link #tasks} follows, or {@code null}; replication thread only. */
+    private String epoch;
+    /** {@link System#nanoTime()} when the leader was last heard from. */
+    private volatile long lastHeardNanos;
+    private volatile boolean isConnected = false;
+    private volatile boolean isRunning = true;
+    private volatile Socket socket;
+
+    /**
+     * Creates a follower. Call {@link #start()} to connect.
+     *
+     * @param host leader host, e.g. {@code "localhost"}
+     * @param leaderPort the leader's replication port
+     * @param maxStalenessMillis how long reads are served without hearing from the leader
+     * @throws IllegalArgumentException if {@code host} is {@code null} or {@code maxStalenessMillis} is not positive
+     */
+    public ReplicationFollower(String host, int leaderPort, long maxStalenessMillis) {
+        if (host == null) {
+            throw new IllegalArgumentException("host must be non-null");
+        }
+        if (maxStalenessMillis <= 0) {
+            throw new IllegalArgumentException("maxStalenessMillis must be positive");
+        }
+        this.host = host;
+        this.leaderPort = leaderPort;
+        this.maxStalenessNanos = maxStalenessMillis * 1_000_000;
+        this.thread = new Thread(this::replicate, "boyd-replication-follower");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Starts following the leader on a background thread.
+     *
+     * @return this follower, for chaining
+     */
+    public ReplicationFollower start() {
+        thread.start();
+        return this;
+    }
+
+    /**
+     * Returns the replicated task list. Its version equals the leader's version of the
+     * same content. Callers must not modify it.
+     *
+     * @return the local copy
+     */
+    public TaskList getTaskList() {
+        return tasks;
+    }
+
+    /**
+     * Returns the greeting to show clients of this replica.
+     *
+     * @return greeting text
+     */
+    public String getGreeting() {
+        return boyd.getGreeting();
+    }
+
+    /**
+     * Answers a command from the local copy. Only {@code list}, {@code find} and
+     * {@code bye} are accepted, and reads are refused while the copy may be stale.
+     *
+     * @param input raw user input
+     * @return the response
+     * @throws IllegalArgumentException if {@code input} is {@code null}
+     */
+    public BoydResponse getResponse(String input) {
+        if (input == null) {
+            throw new IllegalArgumentException("input must be non-null");
+        }
+        String keyword = input.trim().split("\\s+", 2)[0];
+        if (keyword.equalsIgnoreCase("bye")) {
+            return boyd.getResponse(input);
+        }
+        if (!keyword.equalsIgnoreCase("list") && !keyword.equalsIgnoreCase("find")) {
+            return BoydResponse.error(READ_ONLY_MESSAGE);
+        }
+        if (!isConnected || System.nanoTime() - lastHeardNanos > maxStalenessNanos) {
+            return BoydResponse.error(STALE_MESSAGE);
+        }
+        return boyd.getResponse(input);
+    }
+
+    /**
+     * Stops following and disconnects from the leader.
+     */
+    @Override
+    public void close() {
+        isRunning = false;
+        thread.interrupt();
+        Socket current = socket;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                // The replication thread exits either way.
+            }
+        }
+    }
+
+    private void replicate() {
+        long backoff = MIN_BACKOFF_MILLIS;
+        while (isRunning) {
+            try (Socket s = new Socket(host, leaderPort)) {
+                socket = s;
+                if (!isRunning) {
+                    return;
+                }
+                follow(s);
+                backoff = MIN_BACKOFF_MILLIS;
+            } catch (IOException | RuntimeException e) {
+                // Leader unreachable or the stream was cut or garbled; retry below.
+            } finally {
+                isConnected = false;
+            }
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                return;
+            }
+            backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+        }
+    }
+
+    /** Handshakes and applies the leader's stream until the connection ends. */
+    private void follow(Socket s) throws IOException {
+        s.setTcpNoDelay(true);
+        BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+        BufferedWriter out = new BufferedWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8));
+        String hello = readLine(in);
+        if (!hello.startsWith("HELLO ")) {
+            throw new IOException("Unexpected greeting from leader: " + hello);
+        }
+        String leaderEpoch = hello.substring("HELLO ".length());
+        out.write("FOLLOW " + (epoch == null ? "-" : epoch) + " " + tasks.getVersion() + "\n");
+        out.flush();
+        try {
+            while (isRunning) {
+                apply(in, readLine(in));
+                // Only a successfully applied message proves the stream belongs to this leader.
+                epoch = leaderEpoch;
+                lastHeardNanos = System.nanoTime();
+                isConnected = true;
+            }
+        } catch (RuntimeException e) {
+            // Our copy may no longer match the leader's log: ask for a snapshot next time.
+            epoch = null;
+            throw e;
+        }
+    }
+
+    private void apply(BufferedReader in, String message) throws IOException {
+        String[] parts = message.split(" ", 4);
+        long version = Long.parseLong(parts[1]);
+        switch (parts[0]) {
+        case "ADD":
+            tasks.applyInsert(Integer.parseInt(parts[2]), Storage.fromDataString(parts[3]), version);
+            break;
+        case "ADDALL":
+            tasks.applyInsertAll(Integer.parseInt(parts[2]), readTasks(in, Integer.parseInt(parts[3])), version);
+            break;
+        case "REMOVE":
+            tasks.applyRemove(Integer.parseInt(parts[2]), version);
+            break;
+        case "SET":
+            tasks.applyReplace(Integer.parseInt(parts[2]), Storage.fromDataString(parts[3]), version);
+            break;
+        case "RESET":
+            tasks.applyReset(readTasks(in, Integer.parseInt(parts[2])), version);
+            break;
+        case "PING":
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown replication message: " + message);
+        }
+    }
+
+    private static List<Task> readTasks(BufferedReader in, int count) throws IOException {
+        List<Task> read = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            read.add(Storage.fromDataString(readLine(in)));
+        }
+        return read;
+    }
+
+    private static String readLine(BufferedReader in) throws IOException {
+        String line = in.readLine();
+        if (line == null) {
+            throw new EOFException("Leader closed the connection");
+        }
+        return line;
+    }
+
+    /**
+     * Runs a follower that serves its copy to clients through a {@link BoydServer}.
+     * Prints the client port once listening.
+     *
+     * @param args {@code leaderPort [clientPort [maxStalenessMillis]]}; a client port of 0 picks a free port
+     * @throws IOException if the client port cannot be bound
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: ReplicationFollower <leaderPort> [clientPort [maxStalenessMillis]]");
+            System.exit(2);
+        }
+        int leaderPort = Integer.parseInt(args[0]);
+        int clientPort = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+        long maxStaleness = args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_MAX_STALENESS_MILLIS;
+        CommandMetrics.registerMBean();
+        String host = InetAddress.getLoopbackAddress().getHostAddress();
+        ReplicationFollower follower = new ReplicationFollower(host, leaderPort, maxStaleness).start();
+        BoydServer server = new BoydServer(follower::getResponse, follower.getGreeting(), clientPort).start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            follower.close();
+        }));
+        System.out.println("Boyd follower listening on " + host + ":" + server.getPort());
+    }
+}
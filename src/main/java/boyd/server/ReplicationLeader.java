@@ -0,0 +1,319 @@
+package boyd.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import boyd.Boyd;
+import boyd.tasks.Task;
+import boyd.utils.CommandMetrics;
+import boyd.utils.DataFileWatcher;
+import boyd.utils.TaskList;
+import boyd.utils.TaskListListener;
+
+/**
+ * Streams every change to a {@link TaskList} to read-only {@link ReplicationFollower}s.
+ *
+ * <p>The leader keeps the most recent changes in a bounded in-memory log, one entry
+ * per version. Each follower connection is served by its own thread, which sends the
+ * entries the follower is missing as they appear and a heartbeat every
+ * {@value #PING_INTERVAL_MILLIS} ms while nothing changes. A follower that is new, that
+ * has fallen further behind than the log reaches, or that last followed a different
+ * leader process first receives a full snapshot instead. Changes that replace the whole
+ * list, e.g. undo and redo, are logged only as a marker rather than a copy of the list, so
+ * a follower that has yet to see one also catches up from a fresh snapshot.</p>
+ *
+ * <p>The protocol is line-based UTF-8 over loopback TCP. Tasks are encoded with
+ * {@link Task#toDataString()}, the same format as the save file.</p>
+ * <pre>
+ * leader:   HELLO &lt;epoch&gt;
+ * follower: FOLLOW &lt;epoch&gt; &lt;version&gt;     (epoch "-" if it has none yet)
+ * leader:   ADD &lt;version&gt; &lt;index&gt; &lt;task&gt;
+ *           ADDALL &lt;version&gt; &lt;index&gt; &lt;count&gt;  (followed by count task lines)
+ *           REMOVE &lt;version&gt; &lt;index&gt;
+ *           SET &lt;version&gt; &lt;index&gt; &lt;task&gt;
+ *           RESET &lt;version&gt; &lt;count&gt;       (followed by count task lines)
+ *           PING &lt;version&gt;
+ * </pre>
+ * <p>Indices are zero-based. The epoch is chosen randomly per leader instance, so a
+ * restarted leader (whose versions start again from zero) is never mistaken for the
+ * one a follower was following before.</p>
+ */
+public class ReplicationLeader implements TaskListListener, AutoCloseable {
+
+    /** Number of changes kept for followers that reconnect after falling behind. */
+    public static final int DEFAULT_LOG_CAPACITY = 10_000;
+
+    /** Interval between heartbeats while there are no changes to send. */
+    public static final long PING_INTERVAL_MILLIS = 100;
+
+    private final TaskList tasks;
+    private final String epoch = Long.toHexString(ThreadLocalRandom.current().nextLong());
+    private final ServerSocket serverSocket;
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final Thread acceptThread;
+
+    /**
+     * Encoded changes, indexed by {@code version % log.length}, with {@code null} marking a
+     * reset; guarded by itself.
+     */
+    private final String[] log;
+    /** Oldest version still in {@link #log}; guarded by {@link #log}. */
+    private long firstVersion;
+    /** Newest version in {@link #log}; guarded by {@link #log}. */
+    private long lastVersion;
+    private volatile boolean isClosed = false;
+
+    /**
+     * Binds a leader on the loopback interface and starts recording changes to {@code tasks}.
+     * Call {@link #start()} to accept followers.
+     *
+     * @param tasks list whose changes are replicated
+     * @param port TCP port for followers, or {@code 0} to pick a free port
+     * @param logCapacity number of changes kept for catch-up (at least 1)
+     * @throws IOException if the port cannot be bound
+     * @throws IllegalArgumentException if {@code tasks} is {@code null} or {@code logCapacity} is not positive
+     */
+    public ReplicationLeader(TaskList tasks, int port, int logCapacity) throws IOException {
+        if (tasks == null) {
+            throw new IllegalArgumentException("tasks must be non-null");
+        }
+        if (logCapacity < 1) {
+            throw new IllegalArgumentException("logCapacity must be at least 1");
+        }
+        this.tasks = tasks;
+        this.log = new String[logCapacity];
+        synchronized (log) {
+            lastVersion = tasks.getVersion();
+            firstVersion = lastVersion + 1;
+            tasks.addListener(this);
+        }
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.acceptThread = new Thread(this::acceptLoop, "boyd-replication-accept");
+        this.acceptThread.setDaemon(true);
+    }
+
+    /**
+     * Starts accepting followers on a background thread.
+     *
+     * @return this leader, for chaining
+     */
+    public ReplicationLeader start() {
+        acceptThread.start();
+        return this;
+    }
+
+    /**
+     * Returns the port followers connect to.
+     *
+     * @return local port
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Stops recording changes and disconnects all followers.
+     */
+    @Override
+    public void close() {
+        isClosed = true;
+        tasks.removeListener(this);
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // Already closed; nothing left to release.
+        }
+        for (Socket socket : connections) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // The follower's thread exits either way.
+            }
+        }
+        synchronized (log) {
+            log.notifyAll();
+        }
+    }
+
+    @Override
+    public void onAdded(int index, Task task, long version) {
+        record(version, "ADD " + version + " " + index + " " + task.toDataString());
+    }
+
+    @Override
+    public void onAddedAll(int index, List<Task> added, long version) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("ADDALL ").append(version).append(' ').append(index).append(' ').append(added.size());
+        for (Task task : added) {
+            sb.append('\n').append(task.toDataString());
+        }
+        record(version, sb.toString());
+    }
+
+    @Override
+    public void onRemoved(int index, Task task, long version) {
+        record(version, "REMOVE " + version + " " + index);
+    }
+
+    @Override
+    public void onReplaced(int index, Task oldTask, Task newTask, long version) {
+        record(version, "SET " + version + " " + index + " " + newTask.toDataString());
+    }
+
+    @Override
+    public void onReset(List<Task> snapshot, long version) {
+        // Logging the whole list would copy it on every undo; followers fetch a snapshot instead.
+        record(version, null);
+    }
+
+    private void record(long version, String entry) {
+        synchronized (log) {
+            if (version != lastVersion + 1) {
+                // Not a continuation of the log (only possible right after construction): start afresh.
+                firstVersion = version;
+            }
+            log[slot(version)] = entry;
+            lastVersion = version;
+            if (lastVersion - firstVersion >= log.length) {
+                firstVersion = lastVersion - log.length + 1;
+            }
+            log.notifyAll();
+        }
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connections.add(socket);
+                Thread thread = new Thread(() -> serve(socket), "boyd-replication-follower");
+                thread.setDaemon(true);
+                thread.start();
+            } catch (SocketException e) {
+                // Server socket closed by close(); leave the loop.
+                return;
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter out = new BufferedWriter(
+                     new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            out.write("HELLO " + epoch + "\n");
+            out.flush();
+            String[] follow = String.valueOf(in.readLine()).split(" ");
+            if (follow.length != 3 || !follow[0].equals("FOLLOW")) {
+                return;
+            }
+            long sent = follow[1].equals(epoch) ? Long.parseLong(follow[2]) : -1;
+            stream(out, sent);
+        } catch (IOException | NumberFormatException e) {
+            // Follower disconnected or spoke gibberish; it will reconnect if it wants to.
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            connections.remove(socket);
+        }
+    }
+
+    /**
+     * Sends changes after version {@code sent} until closed, or a snapshot if {@code sent < 0},
+     * if the log no longer reaches back to it, or if a reset comes next.
+     */
+    private void stream(Writer out, long sent) throws IOException, InterruptedException {
+        List<String> pending = new ArrayList<>();
+        while (!isClosed) {
+            boolean isSnapshotNeeded;
+            synchronized (log) {
+                if (sent >= lastVersion) {
+                    log.wait(PING_INTERVAL_MILLIS);
+                }
+                isSnapshotNeeded = sent < 0 || sent + 1 < firstVersion;
+                for (long v = sent + 1; v <= lastVersion && !isSnapshotNeeded; v++) {
+                    String entry = log[slot(v)];
+                    isSnapshotNeeded = entry == null;
+                    pending.add(entry);
+                }
+            }
+            if (isSnapshotNeeded) {
+                pending.clear();
+                TaskList.Snapshot snapshot = tasks.snapshot();
+                StringBuilder sb = new StringBuilder();
+                appendReset(sb, snapshot.getTasks(), snapshot.getVersion());
+                out.write(sb.toString());
+                sent = snapshot.getVersion();
+            } else if (pending.isEmpty()) {
+                out.write("PING " + sent + "\n");
+            } else {
+                for (String entry : pending) {
+                    out.write(entry);
+                    out.write('\n');
+                }
+                sent += pending.size();
+                pending.clear();
+            }
+            out.flush();
+        }
+    }
+
+    private static void appendReset(StringBuilder sb, List<Task> snapshot, long version) {
+        sb.append("RESET ").append(version).append(' ').append(snapshot.size()).append('\n');
+        for (Task task : snapshot) {
+            sb.append(task.toDataString()).append('\n');
+        }
+    }
+
+    private int slot(long version) {
+        return (int) Math.floorMod(version, (long) log.length);
+    }
+
+    /**
+     * Runs a leader: a {@link BoydServer} for clients plus a replication port for followers.
+     *
+     * @param args {@code replicationPort [clientPort [dataFile]]}
+     * @throws IOException if a port cannot be bound
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: ReplicationLeader <replicationPort> [clientPort [dataFile]]");
+            System.exit(2);
+        }
+        int replicationPort = Integer.parseInt(args[0]);
+        int clientPort = args.length > 1 ? Integer.parseInt(args[1]) : BoydServer.DEFAULT_PORT;
+        CommandMetrics.registerMBean();
+        Boyd boyd = args.length > 2 ? new Boyd(args[2]) : new Boyd();
+        ReplicationLeader leader = new ReplicationLeader(boyd.getTaskList(), replicationPort, DEFAULT_LOG_CAPACITY);
+        BoydServer server = new BoydServer(boyd, clientPort);
+        leader.start();
+        server.start();
+        DataFileWatcher watcher = boyd.watchDataFile();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            watcher.close();
+            leader.close();
+        }));
+        String host = InetAddress.getLoopbackAddress().getHostAddress();
+        System.out.println("Boyd leader listening on " + host + ":" + server.getPort()
+                + ", replicating on " + host + ":" + leader.getPort());
+    }
+}
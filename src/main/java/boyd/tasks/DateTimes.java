@@ -0,0 +1,215 @@
+package boyd.tasks;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Parses and prints the {@code uuuu-MM-dd[ HH:mm]} datetimes used by tasks.
+ *
+ * <p>Inputs in the usual fixed-width form ({@code 2019-12-02}, {@code 2019-12-02 18:00})
+ * are read straight from their characters, and datetimes with a four-digit year are
+ * printed into a single char array, so the common case allocates nothing beyond the
+ * result. Anything else (signed or longer years, invalid values, stray characters) is
+ * handed to {@link DateTimeFormatter}, which also supplies the exception. Each method
+ * accepts and returns exactly what the {@code java.time} call it replaces does.</p>
+ */
+public final class DateTimes {
+
+    /** Display and save format of task datetimes, e.g. {@code 2019-12-02 18:00}. */
+    public static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("uuuu-MM-dd HH:mm");
+
+    /** ISO-8601 form of task datetimes used by exports, e.g. {@code 2019-12-02T18:00}. */
+    public static final DateTimeFormatter ISO_FORMAT = DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm");
+
+    private static final int DATE_LENGTH = "uuuu-MM-dd".length();
+    private static final int TIME_LENGTH = "HH:mm".length();
+    private static final int DATE_TIME_LENGTH = DATE_LENGTH + 1 + TIME_LENGTH;
+
+    private DateTimes() {
+    }
+
+    /**
+     * Parses an ISO date; same as {@link LocalDate#parse(CharSequence)}.
+     *
+     * @param text date such as {@code 2019-12-02}
+     * @return the date
+     * @throws java.time.format.DateTimeParseException if {@code text} is not a valid date
+     */
+    public static LocalDate parseDate(String text) {
+        if (text.length() == DATE_LENGTH && isDateShape(text, 0)) {
+            int year = digits(text, 0, 4);
+            int month = digits(text, 5, 2);
+            int day = digits(text, 8, 2);
+            if (month >= 1 && month <= 12 && day >= 1 && day <= lengthOfMonth(year, month)) {
+                return LocalDate.of(year, month, day);
+            }
+        }
+        return LocalDate.parse(text);
+    }
+
+    /**
+     * Parses a date and time; same as {@code LocalDateTime.parse(text, DATE_TIME_FORMAT)}.
+     *
+     * <p>Like the formatter's default smart resolution, a day past the end of its month
+     * (up to 31) becomes the month's last day, and {@code 24:00} is midnight at the end
+     * of the day.</p>
+     *
+     * @param text datetime such as {@code 2019-12-02 18:00}
+     * @return the datetime
+     * @throws java.time.format.DateTimeParseException if {@code text} is not a valid datetime
+     */
+    public static LocalDateTime parseDateTime(String text) {
+        if (text.length() == DATE_TIME_LENGTH && isDateShape(text, 0) && text.charAt(DATE_LENGTH) == ' '
+                && isTimeShape(text, DATE_LENGTH + 1)) {
+            int year = digits(text, 0, 4);
+            int month = digits(text, 5, 2);
+            int day = digits(text, 8, 2);
+            if (month >= 1 && month <= 12 && day >= 1 && day <= 31) {
+                LocalDateTime result = atTime(LocalDate.of(year, month, Math.min(day, lengthOfMonth(year, month))),
+                        text, DATE_LENGTH + 1);
+                if (result != null) {
+                    return result;
+                }
+            }
+        }
+        return LocalDateTime.parse(text, DATE_TIME_FORMAT);
+    }
+
+    /**
+     * Parses a date and a time given separately; same as checking {@code date} with
+     * {@link #parseDate(String)} and then parsing {@code date + " " + time} with
+     * {@link #parseDateTime(String)}, without building the joined string.
+     *
+     * @param date date such as {@code 2019-12-02}
+     * @param time time such as {@code 18:00}
+     * @return the datetime
+     * @throws java.time.format.DateTimeParseException if either part is invalid
+     */
+    public static LocalDateTime parseDateTime(String date, String time) {
+        LocalDate parsedDate = parseDate(date);
+        // A valid date of this length always has the fixed-width shape.
+        if (date.length() == DATE_LENGTH && time.length() == TIME_LENGTH && isTimeShape(time, 0)) {
+            LocalDateTime result = atTime(parsedDate, time, 0);
+            if (result != null) {
+                return result;
+            }
+        }
+        return LocalDateTime.parse(date + " " + time, DATE_TIME_FORMAT);
+    }
+
+    /**
+     * Prints a datetime; same as {@code dateTime.format(DATE_TIME_FORMAT)}.
+     *
+     * @param dateTime datetime to print
+     * @return text such as {@code 2019-12-02 18:00}
+     */
+    public static String format(LocalDateTime dateTime) {
+        int year = dateTime.getYear();
+        if (year < 0 || year > 9999) {
+            return dateTime.format(DATE_TIME_FORMAT);
+        }
+        char[] out = new char[DATE_TIME_LENGTH];
+        putDigits(out, 0, year, 4);
+        out[4] = '-';
+        putDigits(out, 5, dateTime.getMonthValue(), 2);
+        out[7] = '-';
+        putDigits(out, 8, dateTime.getDayOfMonth(), 2);
+        out[10] = ' ';
+        putDigits(out, 11, dateTime.getHour(), 2);
+        out[13] = ':';
+        putDigits(out, 14, dateTime.getMinute(), 2);
+        return new String(out);
+    }
+
+    /**
+     * Appends a datetime in ISO-8601 form; same as appending
+     * {@code dateTime.format(ISO_FORMAT)}, without the intermediate string.
+     *
+     * @param dateTime datetime to print
+     * @param out where to append text such as {@code 2019-12-02T18:00}
+     */
+    public static void appendIso(LocalDateTime dateTime, StringBuilder out) {
+        int year = dateTime.getYear();
+        if (year < 0 || year > 9999) {
+            out.append(dateTime.format(ISO_FORMAT));
+            return;
+        }
+        appendDigits(out, year, 4);
+        out.append('-');
+        appendDigits(out, dateTime.getMonthValue(), 2);
+        out.append('-');
+        appendDigits(out, dateTime.getDayOfMonth(), 2);
+        out.append('T');
+        appendDigits(out, dateTime.getHour(), 2);
+        out.append(':');
+        appendDigits(out, dateTime.getMinute(), 2);
+    }
+
+    /** Returns {@code date} at the {@code HH:mm} time at {@code offset}, or {@code null} if the time is invalid. */
+    private static LocalDateTime atTime(LocalDate date, String text, int offset) {
+        int hour = digits(text, offset, 2);
+        int minute = digits(text, offset + 3, 2);
+        if (minute > 59) {
+            return null;
+        }
+        if (hour == 24 && minute == 0) {
+            return date.plusDays(1).atStartOfDay();
+        }
+        return hour > 23 ? null : date.atTime(hour, minute);
+    }
+
+    /** Returns whether {@code text} has the form {@code dddd-dd-dd} at {@code offset}. */
+    private static boolean isDateShape(String text, int offset) {
+        return digits(text, offset, 4) >= 0 && text.charAt(offset + 4) == '-'
+                && digits(text, offset + 5, 2) >= 0 && text.charAt(offset + 7) == '-'
+                && digits(text, offset + 8, 2) >= 0;
+    }
+
+    /** Returns whether {@code text} has the form {@code dd:dd} at {@code offset}. */
+    private static boolean isTimeShape(String text, int offset) {
+        return digits(text, offset, 2) >= 0 && text.charAt(offset + 2) == ':'
+                && digits(text, offset + 3, 2) >= 0;
+    }
+
+    /** Returns the ASCII digits at {@code [offset, offset + count)} as a number, or -1 if any is not a digit. */
+    private static int digits(String text, int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static void putDigits(char[] out, int offset, int value, int count) {
+        for (int i = offset + count - 1; i >= offset; i--) {
+            out[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private static void appendDigits(StringBuilder out, int value, int count) {
+        for (int divisor = count == 4 ? 1000 : 10; divisor > 0; divisor /= 10) {
+            out.append((char) ('0' + value / divisor % 10));
+        }
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+        case 2:
+            boolean isLeap = (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+            return isLeap ? 29 : 28;
+        case 4:
+        case 6:
+        case 9:
+        case 11:
+            return 30;
+        default:
+            return 31;
+        }
+    }
+}
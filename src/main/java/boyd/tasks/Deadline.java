@@ -2,7 +2,6 @@ package boyd.tasks;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
 /**
  * Represents a deadline task with a due date/time.
@@ -11,9 +10,6 @@ import java.time.format.DateTimeFormatter;
  */
 public class Deadline extends Task {
 
-    private static final DateTimeFormatter DEFAULT_DATETIME_FORMAT =
-            DateTimeFormatter.ofPattern("uuuu-MM-dd HH:mm"); // e.g., 2019-12-02 18:00
-
     private final String due;
     private final LocalDate date;
     private final LocalDateTime dateTime;
@@ -21,17 +17,29 @@ public class Deadline extends Task {
     /** Convenience: user gives one string "2019-12-02" (defaults time to 00:00). */
     public Deadline(String description, String date) {
         super(description);
-        this.date = LocalDate.parse(date);
+        this.date = DateTimes.parseDate(date);
         this.dateTime = this.date.atTime(0, 0);
-        this.due = this.dateTime.format(DEFAULT_DATETIME_FORMAT);
+        this.due = DateTimes.format(this.dateTime);
     }
 
     /** Convenience: user inputs date + time, e.g., "2019-12-02", "18:00". */
     public Deadline(String description, String date, String time) {
         super(description);
-        this.date = LocalDate.parse(date);
-        this.dateTime = LocalDateTime.parse(date + " " + time, DEFAULT_DATETIME_FORMAT);
-        this.due = this.dateTime.format(DEFAULT_DATETIME_FORMAT);
+        this.dateTime = DateTimes.parseDateTime(date, time);
+        this.date = this.dateTime.toLocalDate();
+        this.due = DateTimes.format(this.dateTime);
+    }
+
+    private Deadline(Deadline other) {
+        super(other);
+        this.due = other.due;
+        this.date = other.date;
+        this.dateTime = other.dateTime;
+    }
+
+    /** @return when this task is due */
+    public LocalDateTime getDateTime() {
+        return dateTime;
     }
 
     @Override
@@ -40,12 +48,13 @@ public class Deadline extends Task {
     }
 
     @Override
-    public String toDataString() {
-        return String.format(
-                "D | %d | %s | %s", (
-                        this.isDone ? 1 : 0),
-                getDescription(),
-                due
-        );
+    public void appendDataTo(StringBuilder out) {
+        out.append("D | ").append(this.isDone ? 1 : 0).append(" | ").append(getDescription())
+                .append(" | ").append(due);
+    }
+
+    @Override
+    public Deadline copy() {
+        return new Deadline(this);
     }
 }
@@ -1,8 +1,6 @@
 package boyd.tasks;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
 /**
  * Represents an event task with a start and end time.
@@ -13,9 +11,6 @@ import java.time.format.DateTimeFormatter;
  */
 public class Event extends Task {
 
-    private static final DateTimeFormatter DEFAULT_DATETIME_FORMAT =
-            DateTimeFormatter.ofPattern("uuuu-MM-dd HH:mm");
-
     private final LocalDateTime startDateTime;
     private final LocalDateTime endDateTime;
     private final String start; // normalized "uuuu-MM-dd HH:mm"
@@ -33,18 +28,35 @@ public class Event extends Task {
         super(description);
         this.startDateTime = parseDateOrDateTime(from);
         this.endDateTime = parseDateOrDateTime(to);
-        this.start = this.startDateTime.format(DEFAULT_DATETIME_FORMAT);
-        this.end = this.endDateTime.format(DEFAULT_DATETIME_FORMAT);
+        this.start = DateTimes.format(this.startDateTime);
+        this.end = DateTimes.format(this.endDateTime);
+    }
+
+    private Event(Event other) {
+        super(other);
+        this.startDateTime = other.startDateTime;
+        this.endDateTime = other.endDateTime;
+        this.start = other.start;
+        this.end = other.end;
     }
 
     private static LocalDateTime parseDateOrDateTime(String input) {
         // Accept either yyyy-MM-dd HH:mm or yyyy-MM-dd (default to 00:00)
         String trimmed = input.trim();
         if (trimmed.indexOf(' ') > 0) {
-            return LocalDateTime.parse(trimmed, DEFAULT_DATETIME_FORMAT);
+            return DateTimes.parseDateTime(trimmed);
         }
-        LocalDate date = LocalDate.parse(trimmed);
-        return date.atTime(0, 0);
+        return DateTimes.parseDate(trimmed).atTime(0, 0);
+    }
+
+    /** @return when this event starts */
+    public LocalDateTime getStartDateTime() {
+        return startDateTime;
+    }
+
+    /** @return when this event ends */
+    public LocalDateTime getEndDateTime() {
+        return endDateTime;
     }
 
     @Override
@@ -53,13 +65,13 @@ public class Event extends Task {
     }
 
     @Override
-    public String toDataString() {
-        return String.format(
-                "E | %d | %s | %s - %s", (
-                        this.isDone ? 1 : 0),
-                getDescription(),
-                start,
-                end
-        );
+    public void appendDataTo(StringBuilder out) {
+        out.append("E | ").append(this.isDone ? 1 : 0).append(" | ").append(getDescription())
+                .append(" | ").append(start).append(" - ").append(end);
+    }
+
+    @Override
+    public Event copy() {
+        return new Event(this);
     }
 }
@@ -14,6 +14,12 @@ public abstract class Task {
 
     protected boolean isDone;
 
+    /** List version at which this task was added or last changed; see {@code TaskList}. */
+    private long version;
+
+    /** {@link #toString()} as last computed by {@link #toDisplayString()}; cleared whenever the task changes. */
+    private String displayString;
+
     /**
      * Creates a new task with the given description, initially not done.
      *
@@ -26,6 +32,19 @@ public abstract class Task {
         }
         this.description = description;
         this.isDone = false;
+        this.displayString = null;
+    }
+
+    /**
+     * Creates a copy of {@code other} with the same description and completion state.
+     *
+     * @param other task to copy (non-null)
+     */
+    protected Task(Task other) {
+        this.description = other.description;
+        this.isDone = other.isDone;
+        this.version = other.version;
+        this.displayString = other.displayString;
     }
 
     /**
@@ -46,6 +65,7 @@ public abstract class Task {
      */
     public void markAsDone() {
         this.isDone = true;
+        this.displayString = null;
     }
 
     /**
@@ -54,6 +74,12 @@ public abstract class Task {
      */
     public void unmarkAsDone() {
         this.isDone = false;
+        this.displayString = null;
+    }
+
+    /** @return whether this task is marked as done */
+    public boolean isDone() {
+        return this.isDone;
     }
 
     /** @return the task description */
@@ -61,6 +87,26 @@ public abstract class Task {
         return this.description;
     }
 
+    /**
+     * Returns the list version at which this task was added or last changed.
+     * Tasks that were loaded from disk and never changed since have version {@code 0}.
+     *
+     * @return version stamp
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Stamps this task with the list version of the change that produced it.
+     * <p>Called by {@code TaskList} before the task is published; not for general use.</p>
+     *
+     * @param version version stamp
+     */
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     /**
      * Returns the user-facing representation, e.g. {@code "[X] read book <tags>"}.
      *
@@ -71,10 +117,25 @@ public abstract class Task {
         return "[" + getStatusIcon() + "] " + this.description;
     }
 
+    /**
+     * Returns the same text as {@link #toString()}, computed once and then reused until
+     * the task is marked or unmarked, so listing a long list does not rebuild every line.
+     *
+     * @return display string of this task
+     */
+    public final String toDisplayString() {
+        String rendered = displayString;
+        if (rendered == null) {
+            rendered = toString();
+            displayString = rendered;
+        }
+        return rendered;
+    }
+
     /**
      * Serializes this task to the on-disk format used by {@code Storage}.
      * <p>
-     * Each subclass defines its own layout, e.g.:
+     * Each subclass defines its own layout in {@link #appendDataTo(StringBuilder)}, e.g.:
      * <ul>
      *   <li>{@link ToDo}: {@code T | <0|1> | <description>}</li>
      *   <li>{@link Deadline}: {@code D | <0|1> | <description> | <yyyy-MM-dd HH:mm>}</li>
@@ -83,6 +144,30 @@ public abstract class Task {
      * </p>
      *
      * @return persistence string for this task
+     * @see #appendDataTo(StringBuilder)
+     */
+    public String toDataString() {
+        StringBuilder out = new StringBuilder();
+        appendDataTo(out);
+        return out.toString();
+    }
+
+    /**
+     * Appends the {@link #toDataString()} form of this task to {@code out}, so a caller
+     * serializing many tasks can reuse one buffer instead of building a string per task.
+     *
+     * @param out buffer to append to
+     */
+    public abstract void appendDataTo(StringBuilder out);
+
+    /**
+     * Returns an independent copy of this task, including its completion state.
+     * <p>
+     * {@code TaskList} keeps older versions of the list for undo, so it marks a copy
+     * instead of mutating a task that an earlier snapshot may still reference.
+     * </p>
+     *
+     * @return a new task equal in content to this one
      */
-    public abstract String toDataString();
+    public abstract Task copy();
 }
@@ -14,17 +14,22 @@ public class ToDo extends Task {
         super(description);
     }
 
+    private ToDo(ToDo other) {
+        super(other);
+    }
+
     @Override
     public String toString() {
         return "[T]" + super.toString();
     }
 
     @Override
-    public String toDataString() {
-        return String.format(
-                "T | %d | %s", (
-                        this.isDone ? 1 : 0),
-                super.description
-        );
+    public void appendDataTo(StringBuilder out) {
+        out.append("T | ").append(this.isDone ? 1 : 0).append(" | ").append(super.description);
+    }
+
+    @Override
+    public ToDo copy() {
+        return new ToDo(this);
     }
 }
@@ -1,27 +1,64 @@
 package boyd.utils;
 
+import java.util.List;
+
 /**
  * Immutable result object representing the outcome of a parsed command.
  *
- * <p>Encodes a response message and two status flags: whether the program
- * should exit and whether the response represents an error.</p>
+ * <p>Encodes a response message and status flags: whether the program should
+ * exit, whether the response represents an error, and whether that error is a
+ * version conflict. It may also carry the task list version the response reflects,
+ * which clients can send back as the expected version of their next write, and note
+ * that the change it reports was applied but could not be saved.</p>
+ *
+ * <p>A response to a command over many tasks may be <em>streamed</em>: its message is
+ * then produced chunk by chunk, each chunk a few whole lines, only as {@link #chunks()}
+ * is iterated. Consumers that go through the chunks can show or send the first lines
+ * at once and never hold more than one chunk of text; {@link #message()} still works
+ * but builds the whole message.</p>
  */
 public final class BoydResponse {
 
-    /** User-facing message text. */
+    /** Version of a response that does not reflect any particular list version. */
+    public static final long NO_VERSION = -1;
+
+    /** User-facing message text; {@code null} if the response is streamed. */
     private final String message;
 
+    /** Chunks of a streamed message, or {@code null}; see {@link #chunks()}. */
+    private final Iterable<String> chunks;
+
     /** True if this response signals program termination. */
     private final boolean isExitFlag;
 
     /** True if this response represents an error. */
     private final boolean isErrorFlag;
 
-    private BoydResponse(String message, boolean isExitFlag, boolean isErrorFlag) {
-        assert message != null : "Message must not be null";
+    /** True if this response is an error caused by a stale expected version. */
+    private final boolean isConflictFlag;
+
+    /** Task list version this response reflects, or {@link #NO_VERSION}. */
+    private final long version;
+
+    /** True if the list this response reflects could not be saved. */
+    private final boolean isSaveFailedFlag;
+
+    private BoydResponse(String message, Iterable<String> chunks, boolean isExitFlag, boolean isErrorFlag,
+            boolean isConflictFlag, long version) {
+        this(message, chunks, isExitFlag, isErrorFlag, isConflictFlag, version, false);
+    }
+
+    private BoydResponse(String message, Iterable<String> chunks, boolean isExitFlag, boolean isErrorFlag,
+            boolean isConflictFlag, long version, boolean isSaveFailedFlag) {
+        assert (message == null) != (chunks == null) : "Exactly one of message and chunks must be set";
+        assert !isConflictFlag || isErrorFlag : "A conflict is an error";
         this.message = message;
+        this.chunks = chunks;
         this.isExitFlag = isExitFlag;
         this.isErrorFlag = isErrorFlag;
+        this.isConflictFlag = isConflictFlag;
+        this.version = version;
+        this.isSaveFailedFlag = isSaveFailedFlag;
     }
 
     /**
@@ -31,7 +68,7 @@ public final class BoydResponse {
      * @return a success {@code BoydResponse}
      */
     public static BoydResponse ok(String message) {
-        return new BoydResponse(message, false, false);
+        return new BoydResponse(message, null, false, false, false, NO_VERSION);
     }
 
     /**
@@ -41,7 +78,38 @@ public final class BoydResponse {
      * @return an error {@code BoydResponse}
      */
     public static BoydResponse error(String message) {
-        return new BoydResponse(message, false, true);
+        return new BoydResponse(message, null, false, true, false, NO_VERSION);
+    }
+
+    /**
+     * Creates a conflict response: an error telling the client that the list changed
+     * after the version its command was based on.
+     *
+     * @param message conflict message
+     * @return a conflict {@code BoydResponse}
+     */
+    public static BoydResponse conflict(String message) {
+        return new BoydResponse(message, null, false, true, true, NO_VERSION);
+    }
+
+    /**
+     * Creates a normal response whose message is produced chunk by chunk.
+     * <p>
+     * Each chunk is one or more whole lines; the message is the chunks joined with
+     * the platform line separator. {@code chunks} is iterated once per consumer, so
+     * it must yield the same chunks every time, and should build each chunk only
+     * when asked for it.
+     * </p>
+     *
+     * @param chunks message chunks (non-null; must yield at least one chunk)
+     * @return a streamed success {@code BoydResponse}
+     * @throws IllegalArgumentException if {@code chunks} is {@code null}
+     */
+    public static BoydResponse stream(Iterable<String> chunks) {
+        if (chunks == null) {
+            throw new IllegalArgumentException("chunks must be non-null");
+        }
+        return new BoydResponse(null, chunks, false, false, false, NO_VERSION);
     }
 
     /**
@@ -51,7 +119,7 @@ public final class BoydResponse {
      * @return an exit {@code BoydResponse}
      */
     public static BoydResponse exit(String message) {
-        return new BoydResponse(message, true, false);
+        return new BoydResponse(message, null, true, false, false, NO_VERSION);
     }
 
     /**
@@ -60,7 +128,26 @@ public final class BoydResponse {
      * @return message string
      */
     public String message() {
-        return this.message;
+        return this.chunks == null ? this.message : String.join(System.lineSeparator(), this.chunks);
+    }
+
+    /**
+     * Returns the message in chunks of whole lines, each built only when the iteration
+     * reaches it. A response that is not streamed has its whole message as one chunk.
+     *
+     * @return message chunks, to be joined with the platform line separator
+     */
+    public Iterable<String> chunks() {
+        return this.chunks == null ? List.of(this.message) : this.chunks;
+    }
+
+    /**
+     * Returns true if this response's message is produced chunk by chunk.
+     *
+     * @return true if streamed, false otherwise
+     */
+    public boolean isStreamed() {
+        return this.chunks != null;
     }
 
     /**
@@ -80,4 +167,51 @@ public final class BoydResponse {
     public boolean isError() {
         return this.isErrorFlag;
     }
+
+    /**
+     * Returns true if this response is an error caused by a version conflict.
+     *
+     * @return true if conflict, false otherwise
+     */
+    public boolean isConflict() {
+        return this.isConflictFlag;
+    }
+
+    /**
+     * Returns the task list version this response reflects.
+     *
+     * @return version, or {@link #NO_VERSION} if none
+     */
+    public long version() {
+        return this.version;
+    }
+
+    /**
+     * Returns a copy of this response that reflects the given task list version.
+     *
+     * @param version task list version
+     * @return a new {@code BoydResponse} with the same message (or chunks) and flags
+     */
+    public BoydResponse withVersion(long version) {
+        return new BoydResponse(message, chunks, isExitFlag, isErrorFlag, isConflictFlag, version, isSaveFailedFlag);
+    }
+
+    /**
+     * Returns true if the change this response reports was applied but the list could
+     * not be saved afterwards, so the save file lags behind until a later save succeeds.
+     *
+     * @return true if the save failed, false otherwise
+     */
+    public boolean isSaveFailed() {
+        return this.isSaveFailedFlag;
+    }
+
+    /**
+     * Returns a copy of this response marked as reporting a change that could not be saved.
+     *
+     * @return a new {@code BoydResponse} with the same message (or chunks), flags and version
+     */
+    public BoydResponse withSaveFailed() {
+        return new BoydResponse(message, chunks, isExitFlag, isErrorFlag, isConflictFlag, version, true);
+    }
 }
@@ -0,0 +1,214 @@
+package boyd.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Every message of a chat session, of which only the newest are kept in memory.
+ *
+ * <p>Once more than {@code maxInMemory} messages are held, the older half of them is
+ * appended to a spill file and dropped from memory. Spilled messages stay reachable
+ * through {@link #get(int)}, which reads them back from disk (keeping the last
+ * {@value #READ_CACHE_SIZE} it read), so a view can scroll through the whole session
+ * while memory use stays bounded. Only an 8-byte file offset per spilled message is
+ * kept. If the spill file cannot be written, messages simply stay in memory.</p>
+ *
+ * <p>Not thread-safe; the GUI uses it from the JavaFX Application Thread only.</p>
+ */
+public class ChatHistory implements AutoCloseable {
+
+    /** Messages kept in memory by {@link #ChatHistory()}. */
+    public static final int DEFAULT_MAX_IN_MEMORY = 500;
+
+    /** Spilled messages remembered after being read back. */
+    static final int READ_CACHE_SIZE = 256;
+
+    private static final ChatMessage UNREADABLE =
+            new ChatMessage(ChatMessage.Sender.ERROR, "(This message could not be read back from disk.)");
+
+    private final int maxInMemory;
+    /** Where to spill; {@code null} until a temporary file is needed. */
+    private Path spillFile;
+    private FileChannel channel;
+    private boolean isSpillBroken = false;
+
+    /** Messages {@code spilled} and up, oldest first. */
+    private final List<ChatMessage> recent = new ArrayList<>();
+    private int spilled = 0;
+    /** Start of each spilled message in the spill file. */
+    private long[] offsets = new long[64];
+    private long spillEnd = 0;
+
+    private final Map<Integer, ChatMessage> readCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, ChatMessage> eldest) {
+            return size() > READ_CACHE_SIZE;
+        }
+    };
+
+    /**
+     * Creates a history that keeps {@value #DEFAULT_MAX_IN_MEMORY} messages in memory and
+     * spills the rest to a temporary file, deleted by {@link #close()}.
+     */
+    public ChatHistory() {
+        this(DEFAULT_MAX_IN_MEMORY, null);
+    }
+
+    /**
+     * Creates a history that keeps at most {@code maxInMemory} messages in memory.
+     *
+     * @param maxInMemory messages to keep in memory (at least 2)
+     * @param spillFile file to spill older messages to, replaced if it exists and deleted by
+     *         {@link #close()}; {@code null} for a temporary file
+     * @throws IllegalArgumentException if {@code maxInMemory} is less than 2
+     */
+    public ChatHistory(int maxInMemory, Path spillFile) {
+        if (maxInMemory < 2) {
+            throw new IllegalArgumentException("maxInMemory must be at least 2");
+        }
+        this.maxInMemory = maxInMemory;
+        this.spillFile = spillFile;
+    }
+
+    /**
+     * Adds a message after all others, spilling older ones to disk if too many are in memory.
+     *
+     * @param message message to add
+     * @return index of the message
+     * @throws IllegalArgumentException if {@code message} is {@code null}
+     */
+    public int add(ChatMessage message) {
+        if (message == null) {
+            throw new IllegalArgumentException("message must be non-null");
+        }
+        recent.add(message);
+        if (recent.size() > maxInMemory && !isSpillBroken) {
+            spill(recent.size() / 2);
+        }
+        return size() - 1;
+    }
+
+    /**
+     * Returns the number of messages, in memory or spilled.
+     *
+     * @return message count
+     */
+    public int size() {
+        return spilled + recent.size();
+    }
+
+    /**
+     * Returns a message, reading it back from disk if it was spilled.
+     *
+     * @param index 0-based position, oldest first
+     * @return the message; a placeholder error message if a spilled one cannot be read
+     * @throws IndexOutOfBoundsException if {@code index} is out of range
+     */
+    public ChatMessage get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of range for " + size() + " messages");
+        }
+        if (index >= spilled) {
+            return recent.get(index - spilled);
+        }
+        ChatMessage message = readCache.get(index);
+        if (message == null) {
+            message = readSpilled(index);
+            readCache.put(index, message);
+        }
+        return message;
+    }
+
+    /**
+     * Returns how many messages are currently held in memory (not counting read-back ones).
+     *
+     * @return in-memory message count
+     */
+    public int sizeInMemory() {
+        return recent.size();
+    }
+
+    /**
+     * Closes and deletes the spill file. The history must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+            if (spillFile != null) {
+                Files.deleteIfExists(spillFile);
+            }
+        } catch (IOException e) {
+            // Nothing left to do with a file we could not remove.
+        }
+        channel = null;
+    }
+
+    /** Writes the oldest {@code count} in-memory messages to the spill file and drops them. */
+    private void spill(int count) {
+        List<ChatMessage> out = recent.subList(0, count);
+        long[] starts = new long[count];
+        try {
+            if (channel == null) {
+                if (spillFile == null) {
+                    spillFile = Files.createTempFile("boyd-chat-", ".bin");
+                    spillFile.toFile().deleteOnExit();
+                }
+                channel = FileChannel.open(spillFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            }
+            long position = spillEnd;
+            for (int i = 0; i < count; i++) {
+                starts[i] = position;
+                byte[] text = out.get(i).getText().getBytes(StandardCharsets.UTF_8);
+                ByteBuffer record = ByteBuffer.allocate(1 + text.length);
+                record.put((byte) out.get(i).getSender().ordinal()).put(text).flip();
+                while (record.hasRemaining()) {
+                    position += channel.write(record, position);
+                }
+            }
+            spillEnd = position;
+        } catch (IOException e) {
+            // Keep everything in memory rather than lose messages; stop trying to spill.
+            isSpillBroken = true;
+            return;
+        }
+        if (spilled + count > offsets.length) {
+            offsets = Arrays.copyOf(offsets, Math.max(offsets.length * 2, spilled + count));
+        }
+        System.arraycopy(starts, 0, offsets, spilled, count);
+        spilled += count;
+        out.clear();
+    }
+
+    private ChatMessage readSpilled(int index) {
+        long start = offsets[index];
+        long end = index + 1 < spilled ? offsets[index + 1] : spillEnd;
+        ByteBuffer record = ByteBuffer.allocate((int) (end - start));
+        try {
+            while (record.hasRemaining()) {
+                int read = channel.read(record, start + record.position());
+                if (read < 0) {
+                    return UNREADABLE;
+                }
+            }
+        } catch (IOException e) {
+            return UNREADABLE;
+        }
+        record.flip();
+        ChatMessage.Sender sender = ChatMessage.Sender.values()[record.get()];
+        return new ChatMessage(sender, StandardCharsets.UTF_8.decode(record).toString());
+    }
+}
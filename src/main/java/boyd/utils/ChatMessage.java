@@ -0,0 +1,57 @@
+package boyd.utils;
+
+/**
+ * One bubble of the chat shown by the GUI: who said it, and what.
+ */
+public final class ChatMessage {
+
+    /** Who a message comes from; decides how its bubble is drawn. */
+    public enum Sender {
+        USER, BOYD, ERROR
+    }
+
+    private final Sender sender;
+    private final String text;
+
+    /**
+     * Creates a message.
+     *
+     * @param sender who the message comes from
+     * @param text message content
+     * @throws IllegalArgumentException if either argument is {@code null}
+     */
+    public ChatMessage(Sender sender, String text) {
+        if (sender == null || text == null) {
+            throw new IllegalArgumentException("sender and text must be non-null");
+        }
+        this.sender = sender;
+        this.text = text;
+    }
+
+    public Sender getSender() {
+        return sender;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof ChatMessage)) {
+            return false;
+        }
+        ChatMessage other = (ChatMessage) o;
+        return sender == other.sender && text.equals(other.text);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * sender.hashCode() + text.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return sender + ": " + text;
+    }
+}
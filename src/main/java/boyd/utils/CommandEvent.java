@@ -0,0 +1,63 @@
+package boyd.utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one command handled by {@link Parser}, so a recording shows
+ * which command was running during a GC or I/O pause.
+ *
+ * <p>Like every JFR event, it costs next to nothing unless a recording with it enabled
+ * is running.</p>
+ */
+@Name("boyd.Command")
+@Label("Command")
+@Category("Boyd")
+@Description("A command handled by Boyd, from parsing to response")
+@StackTrace(false)
+final class CommandEvent extends jdk.jfr.Event {
+    @Label("Command")
+    @Description("Command keyword in lower case, or unknown")
+    String command;
+
+    @Label("Input Length")
+    @Description("Length of the command in characters, without surrounding whitespace")
+    int inputLength;
+
+    @Label("Outcome")
+    @Description("ok, streamed, error, conflict or exit")
+    String outcome;
+
+    @Label("Parsed Ahead")
+    @Description("Whether the command was parsed ahead of handling, e.g. by CommandPipeline")
+    boolean isParsedAhead;
+
+    /** Fills in the fields of a finished command and commits the event, if it is being recorded. */
+    void finish(PreparedCommand prepared, BoydResponse response, boolean isParsedAhead) {
+        end();
+        if (!shouldCommit()) {
+            return;
+        }
+        this.command = CommandMetrics.commandOf(prepared);
+        this.inputLength = prepared.getInput().length();
+        this.outcome = outcomeOf(response);
+        this.isParsedAhead = isParsedAhead;
+        commit();
+    }
+
+    private static String outcomeOf(BoydResponse response) {
+        if (response.isConflict()) {
+            return "conflict";
+        }
+        if (response.isError()) {
+            return "error";
+        }
+        if (response.isExit()) {
+            return "exit";
+        }
+        return response.isStreamed() ? "streamed" : "ok";
+    }
+}
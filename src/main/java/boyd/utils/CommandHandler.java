@@ -0,0 +1,106 @@
+package boyd.utils;
+
+import boyd.tasks.Task;
+
+/**
+ * Executes one kind of command, selected by its keyword through a {@link CommandTable}.
+ *
+ * <p>Handlers signal user-recoverable problems by throwing
+ * {@link boyd.exceptions.BoydException}; {@link Parser} turns those into error
+ * responses.</p>
+ */
+@FunctionalInterface
+public interface CommandHandler {
+
+    /**
+     * Applies the command to the task list.
+     *
+     * @param command the tokenized command
+     * @param tasks task list to operate on
+     * @return the response to show the user, with {@link BoydResponse#withVersion(long)}
+     *     set to the list version it reflects, if any
+     */
+    BoydResponse handle(PreparedCommand command, TaskList tasks);
+
+    /**
+     * Does any parsing work that does not need the task list, such as building the task
+     * an add command will insert. {@link Parser#prepare(String)} calls this ahead of
+     * {@link #handle(PreparedCommand, TaskList)}, possibly on another thread; the result
+     * is available from {@link PreparedCommand#getTask()}. If this throws, the exception
+     * is rethrown when the command is handled instead.
+     *
+     * @param command the tokenized command
+     * @return the prepared task, or {@code null} if this command does not build one
+     */
+    default Task parseTask(PreparedCommand command) {
+        return null;
+    }
+
+    /**
+     * Returns whether {@link #handle(PreparedCommand, TaskList)} only reads the list,
+     * through {@link TaskList#snapshot()}, and changes nothing. Such commands can run on
+     * any thread, alongside writers: a {@link CommandPipeline} answers them on the
+     * submitting thread rather than queueing them behind other commands and their save.
+     *
+     * @return {@code true} if the command never changes the list
+     */
+    default boolean isReadOnly() {
+        return false;
+    }
+
+    /**
+     * Returns whether this command has slow work to do before it changes the list, such
+     * as reading a file, in {@link #readAhead(PreparedCommand, TaskList)}.
+     *
+     * @return {@code true} if {@link #readAhead(PreparedCommand, TaskList)} does anything
+     */
+    default boolean hasReadAhead() {
+        return false;
+    }
+
+    /**
+     * Does the part of the command that reads, but does not change, the list or its files,
+     * so it can run before the command waits its turn behind other writers; a
+     * {@link CommandPipeline} calls this on the submitting thread. Called only if
+     * {@link #hasReadAhead()}, at most once per command, and before
+     * {@link #handle(PreparedCommand, TaskList)}; the result is available from
+     * {@link PreparedCommand#getReadAhead()}. If this throws, the exception is rethrown
+     * when the command is handled instead.
+     *
+     * @param command the tokenized command
+     * @param tasks task list the command will be applied to; must not be changed here
+     * @return whatever {@link #handle(PreparedCommand, TaskList)} needs from the work done
+     */
+    default Object readAhead(PreparedCommand command, TaskList tasks) {
+        return null;
+    }
+
+    /**
+     * Marks a handler as {@linkplain #isReadOnly() read-only}.
+     *
+     * @param handler handler that never changes the list
+     * @return a handler that runs {@code handler} and reports itself read-only
+     * @throws IllegalArgumentException if {@code handler} is {@code null}
+     */
+    static CommandHandler readOnly(CommandHandler handler) {
+        if (handler == null) {
+            throw new IllegalArgumentException("handler must be non-null");
+        }
+        return new CommandHandler() {
+            @Override
+            public BoydResponse handle(PreparedCommand command, TaskList tasks) {
+                return handler.handle(command, tasks);
+            }
+
+            @Override
+            public Task parseTask(PreparedCommand command) {
+                return handler.parseTask(command);
+            }
+
+            @Override
+            public boolean isReadOnly() {
+                return true;
+            }
+        };
+    }
+}
@@ -0,0 +1,106 @@
+package boyd.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.MBeanParameterInfo;
+import javax.management.ReflectionException;
+
+/**
+ * MBean exposing {@link CommandMetrics} over JMX, e.g. to JConsole or VisualVM.
+ *
+ * <p>Every histogram appears as six read-only attributes named after its key with dots
+ * for spaces: {@code handle.todo.count}, {@code .errorRate} (a fraction),
+ * {@code .p50Micros}, {@code .p99Micros}, {@code .p999Micros} and {@code .maxMicros}.
+ * The attribute list grows as new commands are seen. The {@code reset} operation
+ * forgets everything recorded.</p>
+ */
+class CommandMetricsJmx implements DynamicMBean {
+
+    /** Attribute suffixes and their descriptions, in display order. */
+    private static final String[][] FIELDS = {
+        {"count", "long", "Number of commands measured"},
+        {"errorRate", "double", "Fraction of commands that failed"},
+        {"p50Micros", "double", "Median latency in microseconds"},
+        {"p99Micros", "double", "99th percentile latency in microseconds"},
+        {"p999Micros", "double", "99.9th percentile latency in microseconds"},
+        {"maxMicros", "double", "Highest latency in microseconds"},
+    };
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        int split = attribute.lastIndexOf('.');
+        LatencyHistogram histogram = split < 0
+                ? null
+                : CommandMetrics.histograms().get(attribute.substring(0, split).replace('.', ' '));
+        if (histogram == null) {
+            throw new AttributeNotFoundException(attribute);
+        }
+        String field = attribute.substring(split + 1);
+        return switch (field) {
+        case "count" -> histogram.getCount();
+        case "errorRate" -> CommandMetrics.errorPercent(histogram, histogram.getCount()) / 100;
+        case "p50Micros" -> CommandMetrics.micros(histogram.getValueAtPercentile(50));
+        case "p99Micros" -> CommandMetrics.micros(histogram.getValueAtPercentile(99));
+        case "p999Micros" -> CommandMetrics.micros(histogram.getValueAtPercentile(99.9));
+        case "maxMicros" -> CommandMetrics.micros(histogram.getMaxNanos());
+        default -> throw new AttributeNotFoundException(attribute);
+        };
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Attributes are read-only: " + attribute.getName());
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        AttributeList list = new AttributeList();
+        for (String name : attributes) {
+            try {
+                list.add(new Attribute(name, getAttribute(name)));
+            } catch (AttributeNotFoundException e) {
+                // Left out, as the DynamicMBean contract asks.
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+        if (!"reset".equals(actionName)) {
+            throw new ReflectionException(new NoSuchMethodException(actionName));
+        }
+        CommandMetrics.reset();
+        return null;
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        List<MBeanAttributeInfo> attributes = new ArrayList<>();
+        for (Map.Entry<String, LatencyHistogram> entry : CommandMetrics.histograms().entrySet()) {
+            String prefix = entry.getKey().replace(' ', '.') + ".";
+            for (String[] field : FIELDS) {
+                attributes.add(new MBeanAttributeInfo(prefix + field[0], field[1],
+                        field[2] + " (" + entry.getKey() + ")", true, false, false));
+            }
+        }
+        MBeanOperationInfo reset = new MBeanOperationInfo("reset", "Forgets all recorded latencies",
+                new MBeanParameterInfo[0], "void", MBeanOperationInfo.ACTION);
+        return new MBeanInfo(getClass().getName(), "Boyd command latencies",
+                attributes.toArray(new MBeanAttributeInfo[0]), null, new MBeanOperationInfo[] {reset}, null);
+    }
+}
@@ -0,0 +1,320 @@
+package boyd.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * High-throughput, multi-producer command pipeline in front of a {@link TaskList}.
+ *
+ * <p>Modelled on the LMAX Disruptor. Producers claim a sequence number and publish
+ * their raw command line into a preallocated ring buffer slot. A fixed set of parser
+ * threads prepares the published slots in parallel ({@link Parser#prepare(String)}:
+ * tokenizing, task construction, date parsing); parser {@code k} owns every sequence
+ * {@code s} with {@code s % parsers == k}. A single writer thread then applies the
+ * prepared commands in sequence order, grouping everything that is ready into one
+ * {@link TaskList#batch(Runnable)} so the list is saved once per batch rather than
+ * once per command. Each caller gets its response through a {@link CompletableFuture},
+ * completed after the batch containing its command has been saved.</p>
+ *
+ * <p>Only commands that change the list go through the ring. A
+ * {@linkplain CommandHandler#isReadOnly() read-only} command, such as {@code list},
+ * {@code find} or {@code export}, is answered on the submitting thread from the list's
+ * latest state, without taking the write lock or waiting for a save; it sees every
+ * change already applied, but not those still queued. A command with
+ * {@linkplain CommandHandler#readAhead(PreparedCommand, TaskList) slow work to do first},
+ * such as {@code import} reading its file, is prepared and does that work on the
+ * submitting thread too, and only then enters the ring, so the writer only has to make
+ * the change itself.</p>
+ *
+ * <p>Commands from a single producer that enter the ring are applied in the order they
+ * were submitted.
+ * Futures are completed on the writer thread, so dependent actions attached to them
+ * should be short or run asynchronously. If a batch's save fails, its commands keep
+ * their own responses, marked with {@link BoydResponse#isSaveFailed()}: the changes
+ * were applied and stay applied, only the file lags behind.</p>
+ *
+ * <p>Idle pipeline threads spin briefly, then park until a producer (or, for the
+ * writer, a parser) publishes more work, so an idle pipeline costs no CPU.</p>
+ */
+public class CommandPipeline implements AutoCloseable {
+
+    /** Upper bound on commands applied (and saved) together. */
+    private static final int MAX_BATCH = 1024;
+
+    /** Idle rounds spent spinning, then yielding, before a pipeline thread parks. */
+    private static final int SPIN_ROUNDS = 100;
+
+    private final TaskList tasks;
+    private final int mask;
+    private final Slot[] slots;
+    /** {@code published[i] == s} once the producer of sequence {@code s} has filled slot {@code i}. */
+    private final AtomicLongArray published;
+    /** {@code prepared[i] == s} once a parser has prepared sequence {@code s} in slot {@code i}. */
+    private final AtomicLongArray prepared;
+    /** Next sequence to hand out to a producer. */
+    private final AtomicLong claimed = new AtomicLong();
+    /** Every sequence below this has been applied and its slot is free; written by the writer only. */
+    private volatile long released = 0;
+    private volatile boolean isRunning = true;
+    /** Number of pipeline threads parked, or about to park, waiting for work. */
+    private final AtomicInteger sleepers = new AtomicInteger();
+
+    private final Thread[] parserThreads;
+    private final Thread writerThread;
+
+    /** One preallocated ring entry; fields are handed between threads via the sequence arrays. */
+    private static final class Slot {
+        private String input;
+        private CompletableFuture<BoydResponse> future;
+        private PreparedCommand command;
+        private BoydResponse response;
+    }
+
+    /**
+     * Creates and starts a pipeline.
+     *
+     * @param tasks task list that the writer thread applies commands to
+     * @param capacity ring buffer size; must be a power of two
+     * @param parsers number of parallel parser threads (at least 1)
+     * @throws IllegalArgumentException if {@code tasks} is {@code null} or a size is invalid
+     */
+    public CommandPipeline(TaskList tasks, int capacity, int parsers) {
+        if (tasks == null) {
+            throw new IllegalArgumentException("tasks must be non-null");
+        }
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two >= 2");
+        }
+        if (parsers < 1) {
+            throw new IllegalArgumentException("parsers must be at least 1");
+        }
+        this.tasks = tasks;
+        this.mask = capacity - 1;
+        this.slots = new Slot[capacity];
+        this.published = new AtomicLongArray(capacity);
+        this.prepared = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot();
+            published.set(i, -1);
+            prepared.set(i, -1);
+        }
+
+        this.parserThreads = new Thread[parsers];
+        for (int k = 0; k < parsers; k++) {
+            final int first = k;
+            parserThreads[k] = daemon(() -> parseLoop(first, parsers), "boyd-pipeline-parser-" + k);
+        }
+        this.writerThread = daemon(this::writeLoop, "boyd-pipeline-writer");
+        for (Thread t : parserThreads) {
+            t.start();
+        }
+        writerThread.start();
+    }
+
+    /**
+     * Publishes a command line, or answers it right away if it only reads the list. Blocks
+     * while the ring buffer is full, and while a read-only command runs or a command reads ahead.
+     *
+     * @param input raw user input (non-null)
+     * @return a future completed with the command's response once it has been applied and
+     *     saved, or already completed for a read-only command
+     * @throws IllegalArgumentException if {@code input} is {@code null}
+     * @throws IllegalStateException if the pipeline has been closed
+     */
+    public CompletableFuture<BoydResponse> submit(String input) {
+        if (input == null) {
+            throw new IllegalArgumentException("input must be non-null");
+        }
+        if (!isRunning) {
+            throw new IllegalStateException("pipeline is closed");
+        }
+        CommandHandler handler = Parser.handlerOf(input);
+        if (handler != null && handler.isReadOnly()) {
+            return CompletableFuture.completedFuture(Parser.handle(input, tasks));
+        }
+        PreparedCommand command = null;
+        if (handler != null && handler.hasReadAhead()) {
+            command = Parser.prepare(input);
+            Parser.readAhead(command, tasks);
+        }
+        long seq = claimed.getAndIncrement();
+        int spins = 0;
+        while (seq - released > mask) {
+            if (!isRunning) {
+                return CompletableFuture.failedFuture(new IllegalStateException("pipeline is closed"));
+            }
+            // The ring only fills while the writer is busy, so polling is enough here.
+            if (spins++ < SPIN_ROUNDS) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(50_000);
+            }
+        }
+        Slot slot = slots[index(seq)];
+        CompletableFuture<BoydResponse> future = new CompletableFuture<>();
+        slot.input = input;
+        slot.command = command;
+        slot.future = future;
+        published.set(index(seq), seq);
+        if (sleepers.get() > 0) {
+            wakeAll();
+        }
+        if (!isRunning) {
+            // close() may have swept the slots before this one was filled in.
+            future.completeExceptionally(new IllegalStateException("pipeline is closed"));
+        }
+        return future;
+    }
+
+    /**
+     * Stops all pipeline threads. Commands not yet applied fail with {@link IllegalStateException}.
+     */
+    @Override
+    public void close() {
+        isRunning = false;
+        wakeAll();
+        try {
+            writerThread.join();
+            for (Thread t : parserThreads) {
+                t.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (int i = 0; i < slots.length; i++) {
+            // Reading published first makes a future stored before publishing visible here.
+            if (published.get(i) >= 0 && slots[i].future != null) {
+                slots[i].future.completeExceptionally(new IllegalStateException("pipeline is closed"));
+            }
+        }
+    }
+
+    private void parseLoop(long first, int stride) {
+        long seq = first;
+        int spins = 0;
+        while (isRunning) {
+            int idx = index(seq);
+            if (published.get(idx) != seq) {
+                spins = idle(spins, published, idx, seq);
+                continue;
+            }
+            spins = 0;
+            Slot slot = slots[idx];
+            if (slot.command == null) {
+                slot.command = Parser.prepare(slot.input);
+            }
+            prepared.set(idx, seq);
+            if (sleepers.get() > 0) {
+                LockSupport.unpark(writerThread);
+            }
+            seq += stride;
+        }
+    }
+
+    private void writeLoop() {
+        List<CompletableFuture<BoydResponse>> futures = new ArrayList<>(MAX_BATCH);
+        List<BoydResponse> responses = new ArrayList<>(MAX_BATCH);
+        long next = 0;
+        int spins = 0;
+        while (isRunning) {
+            if (prepared.get(index(next)) != next) {
+                spins = idle(spins, prepared, index(next), next);
+                continue;
+            }
+            spins = 0;
+            long end = applyBatch(next);
+            for (long seq = next; seq < end; seq++) {
+                Slot slot = slots[index(seq)];
+                futures.add(slot.future);
+                responses.add(slot.response);
+                slot.input = null;
+                slot.future = null;
+                slot.command = null;
+                slot.response = null;
+            }
+            next = end;
+            released = end;
+            for (int i = 0; i < futures.size(); i++) {
+                futures.get(i).complete(responses.get(i));
+            }
+            futures.clear();
+            responses.clear();
+        }
+    }
+
+    /**
+     * Applies every prepared command from {@code from} onwards (up to {@link #MAX_BATCH})
+     * under one save, storing each response in its slot. If the save fails, the
+     * responses are kept but marked as not saved.
+     *
+     * @return the first sequence not applied
+     */
+    private long applyBatch(long from) {
+        long[] end = {from};
+        try {
+            tasks.batch(() -> {
+                while (end[0] - from < MAX_BATCH && prepared.get(index(end[0])) == end[0]) {
+                    Slot slot = slots[index(end[0])];
+                    slot.response = Parser.handle(slot.command, tasks);
+                    end[0]++;
+                }
+            });
+        } catch (RuntimeException e) {
+            // The batch's save failed after its commands were applied; they cannot be taken back.
+            for (long seq = from; seq < end[0]; seq++) {
+                Slot slot = slots[index(seq)];
+                slot.response = slot.response.withSaveFailed();
+            }
+        }
+        return end[0];
+    }
+
+    private int index(long seq) {
+        return (int) seq & mask;
+    }
+
+    /**
+     * Waits a little for {@code sequences[idx]} to reach {@code seq}: spins, then yields,
+     * then parks until {@link #wakeAll()} or an unpark from a parser.
+     *
+     * @return the number of idle rounds so far
+     */
+    private int idle(int spins, AtomicLongArray sequences, int idx, long seq) {
+        if (spins < SPIN_ROUNDS) {
+            Thread.onSpinWait();
+        } else if (spins < 2 * SPIN_ROUNDS) {
+            Thread.yield();
+        } else {
+            // Count as a sleeper before the last check, so a publisher that misses the
+            // sequence update sees the sleeper and unparks us.
+            sleepers.incrementAndGet();
+            try {
+                if (isRunning && sequences.get(idx) != seq) {
+                    LockSupport.park(this);
+                }
+            } finally {
+                sleepers.decrementAndGet();
+            }
+            return spins;
+        }
+        return spins + 1;
+    }
+
+    private void wakeAll() {
+        for (Thread t : parserThreads) {
+            LockSupport.unpark(t);
+        }
+        LockSupport.unpark(writerThread);
+    }
+
+    private static Thread daemon(Runnable body, String name) {
+        Thread thread = new Thread(body, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -0,0 +1,100 @@
+package boyd.utils;
+
+/**
+ * Immutable, case-insensitive map from command keywords to {@link CommandHandler}s.
+ *
+ * <p>Keywords are stored in a trie over ASCII characters, so a lookup touches each
+ * character of the typed keyword once and never allocates. {@link #with(String, CommandHandler)}
+ * copies only the nodes on the new keyword's path and shares the rest, which makes the
+ * table safe to read from any thread while a new table is being built.</p>
+ */
+public final class CommandTable {
+
+    /** Keywords are limited to ASCII; one child slot per character. */
+    private static final int ALPHABET = 128;
+
+    private static final CommandTable EMPTY = new CommandTable(new Node(null, null));
+
+    private final Node root;
+
+    private static final class Node {
+        private final Node[] children;
+        private final CommandHandler handler;
+
+        Node(Node[] children, CommandHandler handler) {
+            this.children = children;
+            this.handler = handler;
+        }
+
+        Node child(char c) {
+            return children == null ? null : children[c];
+        }
+    }
+
+    private CommandTable(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Returns a table without any commands.
+     *
+     * @return empty table
+     */
+    public static CommandTable empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Returns a copy of this table in which {@code keyword} maps to {@code handler}.
+     *
+     * @param keyword non-empty ASCII keyword without whitespace; matched case-insensitively
+     * @param handler handler for the keyword
+     * @return the new table
+     * @throws IllegalArgumentException if {@code keyword} is invalid or {@code handler} is {@code null}
+     */
+    public CommandTable with(String keyword, CommandHandler handler) {
+        if (keyword == null || keyword.isEmpty() || handler == null) {
+            throw new IllegalArgumentException("keyword must be non-empty and handler non-null");
+        }
+        for (int i = 0; i < keyword.length(); i++) {
+            char c = keyword.charAt(i);
+            if (c <= ' ' || c >= ALPHABET) {
+                throw new IllegalArgumentException("keyword must be printable ASCII without spaces: " + keyword);
+            }
+        }
+        return new CommandTable(insert(root, keyword, 0, handler));
+    }
+
+    private static Node insert(Node node, String keyword, int depth, CommandHandler handler) {
+        if (depth == keyword.length()) {
+            return new Node(node.children, handler);
+        }
+        char c = fold(keyword.charAt(depth));
+        Node[] children = node.children == null ? new Node[ALPHABET] : node.children.clone();
+        Node child = children[c] == null ? new Node(null, null) : children[c];
+        children[c] = insert(child, keyword, depth + 1, handler);
+        return new Node(children, node.handler);
+    }
+
+    /**
+     * Looks up the handler for a keyword, ignoring case.
+     *
+     * @param keyword typed keyword
+     * @return the handler, or {@code null} if no command has this keyword
+     */
+    public CommandHandler lookup(CharSequence keyword) {
+        Node node = root;
+        for (int i = 0; i < keyword.length() && node != null; i++) {
+            char c = keyword.charAt(i);
+            if (c >= ALPHABET) {
+                return null;
+            }
+            node = node.child(fold(c));
+        }
+        return node == null ? null : node.handler;
+    }
+
+    private static char fold(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+}
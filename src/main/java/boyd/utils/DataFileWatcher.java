@@ -0,0 +1,214 @@
+package boyd.utils;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.List;
+
+import boyd.tasks.Task;
+
+/**
+ * Picks up changes that other programs make to a {@link Storage}'s save file while
+ * the app is running, so the app's next save does not silently overwrite them.
+ *
+ * <p>The file's directory is watched with a {@link WatchService}. When the file changes,
+ * its lines are compared by hash against the content the storage last loaded or saved,
+ * and only the lines that differ are applied to the live {@link TaskList}: unchanged
+ * leading and trailing lines are skipped, lines in the changed region are replaced in
+ * place where both versions have one, and the rest are inserted or removed. Each
+ * applied change is a regular list change, so {@link TaskListListener}s see it too.
+ * The app's own saves also trigger the watcher, but then nothing differs and nothing
+ * is applied.</p>
+ *
+ * <p>Applying external changes clears the undo history, since undoing past them would
+ * overwrite the other program's edits. If the file cannot be read or contains a line
+ * that does not parse (for instance because the other program is halfway through
+ * writing it), the change is ignored until the next one arrives.</p>
+ */
+public class DataFileWatcher implements AutoCloseable {
+
+    /** How long to wait for a burst of writes to settle before reading the file. */
+    private static final long SETTLE_MILLIS = 50;
+
+    private final TaskList tasks;
+    private final Storage storage;
+    private final Path file;
+    private WatchService watchService;
+    private Thread thread;
+
+    /**
+     * Creates a watcher that applies external edits of {@code storage}'s file to {@code tasks}.
+     * Call {@link #start()} to begin watching.
+     *
+     * @param tasks live list that is saved through {@code storage}
+     * @param storage storage whose file is watched
+     * @throws IllegalArgumentException if an argument is {@code null}
+     */
+    public DataFileWatcher(TaskList tasks, Storage storage) {
+        if (tasks == null || storage == null) {
+            throw new IllegalArgumentException("tasks and storage must be non-null");
+        }
+        this.tasks = tasks;
+        this.storage = storage;
+        this.file = Path.of(storage.getFilePath()).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Starts watching on a background daemon thread, creating the file's directory if needed.
+     *
+     * @return this watcher, for chaining
+     * @throws IOException if the directory cannot be created or watched
+     */
+    public synchronized DataFileWatcher start() throws IOException {
+        if (thread != null) {
+            throw new IllegalStateException("already started");
+        }
+        Path dir = file.getParent();
+        Files.createDirectories(dir);
+        watchService = dir.getFileSystem().newWatchService();
+        dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        thread = new Thread(this::watchLoop, "boyd-data-file-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        return this;
+    }
+
+    /**
+     * Stops watching.
+     */
+    @Override
+    public synchronized void close() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                // Nothing left to release.
+            }
+        }
+    }
+
+    /**
+     * Compares the file with the last known content and applies any differences to the list.
+     * Called automatically when the file changes; may also be called directly.
+     *
+     * @return number of tasks inserted, removed or replaced; {@code 0} if nothing changed
+     *     or the file could not be read or parsed
+     */
+    public int reload() {
+        int[] changes = {0};
+        // Holding the list's write lock keeps the app from saving over the file while we diff.
+        tasks.batch(() -> changes[0] = applyFileChanges());
+        return changes[0];
+    }
+
+    private int applyFileChanges() {
+        List<String> lines;
+        try {
+            lines = readNonBlankLines();
+        } catch (IOException e) {
+            return 0;
+        }
+        long[] known = storage.getKnownLineHashes();
+        long[] current = new long[lines.size()];
+        for (int i = 0; i < current.length; i++) {
+            current[i] = Storage.lineHash(lines.get(i));
+        }
+
+        int start = 0;
+        while (start < known.length && start < current.length && known[start] == current[start]) {
+            start++;
+        }
+        int knownEnd = known.length;
+        int currentEnd = current.length;
+        while (knownEnd > start && currentEnd > start && known[knownEnd - 1] == current[currentEnd - 1]) {
+            knownEnd--;
+            currentEnd--;
+        }
+        if (start == knownEnd && start == currentEnd) {
+            return 0;
+        }
+        if (known.length != tasks.size()) {
+            // The list and the file were not in step (e.g. the last save failed): leave both alone.
+            return 0;
+        }
+
+        // Parse every changed line before touching the list, so a half-written file changes nothing.
+        List<Task> replacements = new ArrayList<>(currentEnd - start);
+        try {
+            for (int i = start; i < currentEnd; i++) {
+                replacements.add(Storage.fromDataString(lines.get(i)));
+            }
+        } catch (RuntimeException e) {
+            return 0;
+        }
+
+        int changes = 0;
+        int overlap = Math.min(knownEnd, currentEnd) - start;
+        for (int i = 0; i < overlap; i++) {
+            if (known[start + i] != current[start + i]) {
+                tasks.applyReplace(start + i, replacements.get(i), tasks.getVersion() + 1);
+                changes++;
+            }
+        }
+        for (int i = knownEnd - 1; i >= start + overlap; i--) {
+            tasks.applyRemove(i, tasks.getVersion() + 1);
+            changes++;
+        }
+        for (int i = overlap; i < replacements.size(); i++) {
+            tasks.applyInsert(start + i, replacements.get(i), tasks.getVersion() + 1);
+            changes++;
+        }
+        storage.setKnownLines(lines);
+        return changes;
+    }
+
+    private List<String> readNonBlankLines() throws IOException {
+        List<String> lines = new ArrayList<>();
+        if (!Files.exists(file)) {
+            return lines;
+        }
+        for (String line : Files.readAllLines(file, Storage.CHARSET)) {
+            if (!line.isBlank()) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    private void watchLoop() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean isOurFile = drain(key);
+                // Let a burst of writes (truncate, write, write...) settle, then swallow its events.
+                Thread.sleep(SETTLE_MILLIS);
+                WatchKey more;
+                while ((more = watchService.poll()) != null) {
+                    isOurFile |= drain(more);
+                }
+                if (isOurFile) {
+                    reload();
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // close() was called; stop watching.
+        }
+    }
+
+    /** Returns whether the key reported events for the watched file, or lost events; resets the key. */
+    private boolean drain(WatchKey key) {
+        boolean isOurFile = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            isOurFile |= event.kind() == StandardWatchEventKinds.OVERFLOW
+                    || file.getFileName().equals(event.context());
+        }
+        key.reset();
+        return isOurFile;
+    }
+}
@@ -1,66 +1,96 @@
 package boyd.utils;
 
-import java.io.IOException;
-import java.util.Collections;
-
-import boyd.MainWindow;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
+import javafx.geometry.Insets;
 import javafx.geometry.Pos;
-import javafx.scene.Node;
 import javafx.scene.control.Label;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.Region;
 
 /**
  * A dialog box consisting of an {@link ImageView} to represent the speaker's face
  * and a {@link Label} containing the speaker's text.
+ *
+ * <p>Built in code rather than from FXML, so creating one costs a few small nodes and
+ * no parsing. A box can also be reused for another message with
+ * {@link #show(ChatMessage, Image)}, which is how list cells recycle theirs while
+ * scrolling. The label carries the {@code bubble} style class plus {@code user},
+ * {@code boyd} or {@code error}; user bubbles sit on the right with the avatar after
+ * the text, the others on the left with the avatar first.</p>
  */
 public class DialogBox extends HBox {
 
-    @FXML
-    private Label dialog;
+    private static final double AVATAR_SIZE = 36.0;
+
+    private final Label dialog = new Label();
+    private final ImageView displayPicture = new ImageView();
 
-    @FXML
-    private ImageView displayPicture;
+    /** Sender whose style is applied; {@code null} before the first message. */
+    private ChatMessage.Sender sender;
 
     /**
-     * Creates a dialog box with text and avatar image.
-     *
-     * @param text  message content (non-null)
-     * @param image avatar image (non-null)
+     * Creates an empty dialog box; give it a message with {@link #show(ChatMessage, Image)}.
      */
-    private DialogBox(String text, Image image) {
-        try {
-            FXMLLoader fxmlLoader = new FXMLLoader(
-                    MainWindow.class.getResource("/view/DialogBox.fxml"));
-            fxmlLoader.setController(this);
-            fxmlLoader.setRoot(this);
-            fxmlLoader.load();
-        } catch (IOException e) {
-            // For a small app, printing stack trace is acceptable.
-            // In production, prefer a logger.
-            e.printStackTrace();
-        }
+    public DialogBox() {
+        dialog.setWrapText(true);
+        dialog.setMinHeight(Region.USE_PREF_SIZE);
+        dialog.getStyleClass().add("bubble");
+        displayPicture.setFitHeight(AVATAR_SIZE);
+        displayPicture.setFitWidth(AVATAR_SIZE);
+        displayPicture.setPickOnBounds(true);
+        displayPicture.setPreserveRatio(true);
+        displayPicture.getStyleClass().add("avatar");
+        setPrefWidth(400.0);
+        setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
+        setPadding(new Insets(6.0));
+    }
 
-        assert text != null : "Dialog text must not be null";
+    /**
+     * Shows a message in this box, replacing whatever it showed before. Layout and style
+     * classes are only touched when the sender differs from the previous message's.
+     *
+     * @param message message to show (non-null)
+     * @param image avatar of the message's sender (non-null)
+     */
+    public void show(ChatMessage message, Image image) {
+        assert message != null : "Dialog message must not be null";
         assert image != null : "Dialog image must not be null";
 
-        this.dialog.setText(text);
-        this.displayPicture.setImage(image);
+        ChatMessage.Sender next = message.getSender();
+        dialog.setText(next == ChatMessage.Sender.ERROR
+                ? "Error: " + message.getText() + System.lineSeparator() + "Please try again."
+                : message.getText());
+        displayPicture.setImage(image);
+        if (next == sender) {
+            return;
+        }
+        if (sender != null) {
+            dialog.getStyleClass().remove(styleClassOf(sender));
+        }
+        dialog.getStyleClass().add(styleClassOf(next));
+        if (next == ChatMessage.Sender.USER) {
+            getChildren().setAll(dialog, displayPicture);
+            setAlignment(Pos.TOP_RIGHT);
+        } else if (sender == null || sender == ChatMessage.Sender.USER) {
+            getChildren().setAll(displayPicture, dialog);
+            setAlignment(Pos.TOP_LEFT);
+        }
+        sender = next;
     }
 
-    /**
-     * Flips the dialog box such that the image is on the left and the text on the right.
-     */
-    private void flip() {
-        ObservableList<Node> children = FXCollections.observableArrayList(getChildren());
-        Collections.reverse(children);
-        getChildren().setAll(children);
-        setAlignment(Pos.TOP_LEFT);
+    private static String styleClassOf(ChatMessage.Sender sender) {
+        return switch (sender) {
+        case USER -> "user";
+        case BOYD -> "boyd";
+        case ERROR -> "error";
+        };
+    }
+
+    private static DialogBox of(ChatMessage.Sender sender, String text, Image image) {
+        DialogBox dialogBox = new DialogBox();
+        dialogBox.show(new ChatMessage(sender, text), image);
+        return dialogBox;
     }
 
     /**
@@ -71,9 +101,7 @@ public class DialogBox extends HBox {
      * @return a {@code DialogBox} for the user
      */
     public static DialogBox getUserDialog(String text, Image image) {
-        DialogBox dialogBox = new DialogBox(text, image);
-        // Style: user bubble (default assigned in FXML: bubble user)
-        return dialogBox;
+        return of(ChatMessage.Sender.USER, text, image);
     }
 
     /**
@@ -84,12 +112,7 @@ public class DialogBox extends HBox {
      * @return a {@code DialogBox} for Boyd
      */
     public static DialogBox getBoydDialog(String text, Image image) {
-        DialogBox dialogBox = new DialogBox(text, image);
-        // Style: boyd bubble (programmatically swap class)
-        dialogBox.dialog.getStyleClass().remove("user");
-        dialogBox.dialog.getStyleClass().add("boyd");
-        dialogBox.flip();
-        return dialogBox;
+        return of(ChatMessage.Sender.BOYD, text, image);
     }
 
     /**
@@ -100,13 +123,6 @@ public class DialogBox extends HBox {
      * @return a {@code DialogBox} for an error response
      */
     public static DialogBox getErrorDialog(String text, Image image) {
-        String errorMessage = "Error: " + text + System.lineSeparator()
-                + "Please try again.";
-        DialogBox dialogBox = new DialogBox(errorMessage, image);
-        // Style: error bubble (programmatically swap class)
-        dialogBox.dialog.getStyleClass().remove("user");
-        dialogBox.dialog.getStyleClass().add("error");
-        dialogBox.flip();
-        return dialogBox;
+        return of(ChatMessage.Sender.ERROR, text, image);
     }
 }
@@ -0,0 +1,133 @@
+package boyd.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of durations in nanoseconds, with about 1.6% precision from one
+ * nanosecond to about a minute.
+ *
+ * <p>Buckets are laid out as in HdrHistogram: the first {@value #SUB_BUCKETS} * 2 values
+ * get one bucket each, and every doubling of the value after that is split into
+ * {@value #SUB_BUCKETS} equal buckets. Recording is an index computation and an atomic
+ * increment, with no locks or allocation, so it can sit on every command's path. Reads
+ * are not atomic: a percentile read while others record may miss the latest few
+ * values.</p>
+ */
+public final class LatencyHistogram {
+    /** Buckets per doubling of the value; also the precision, as 1 / {@value}. */
+    static final int SUB_BUCKETS = 64;
+
+    private static final int SUB_BUCKET_BITS = Integer.numberOfTrailingZeros(SUB_BUCKETS);
+
+    /** Longest duration told apart from longer ones: 2^36 ns, about 69 seconds. */
+    static final long MAX_TRACKABLE_NANOS = (1L << 36) - 1;
+
+    private static final int BUCKET_COUNT = indexOf(MAX_TRACKABLE_NANOS) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder errors = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records one duration.
+     *
+     * @param nanos duration in nanoseconds; negative values count as 0, and values over
+     *         {@link #MAX_TRACKABLE_NANOS} as that
+     * @param isError whether the operation measured failed
+     */
+    public void record(long nanos, boolean isError) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(indexOf(Math.min(value, MAX_TRACKABLE_NANOS)));
+        if (isError) {
+            errors.increment();
+        }
+        long currentMax = max.get();
+        while (value > currentMax && !max.compareAndSet(currentMax, value)) {
+            currentMax = max.get();
+        }
+    }
+
+    /**
+     * Returns the number of durations recorded.
+     *
+     * @return count of {@link #record(long, boolean)} calls
+     */
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    public long getMaxNanos() {
+        return max.get();
+    }
+
+    /**
+     * Returns the duration that {@code percentile} percent of the recorded durations do
+     * not exceed, rounded up to the end of its bucket.
+     *
+     * @param percentile between 0 and 100, e.g. {@code 99.9}
+     * @return duration in nanoseconds, or 0 if nothing has been recorded
+     * @throws IllegalArgumentException if {@code percentile} is outside {@code [0, 100]}
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100");
+        }
+        long[] snapshot = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = counts.get(i);
+            count += snapshot[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(highestValueIn(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Returns the bucket a value falls in.
+     *
+     * @param value between 0 and {@link #MAX_TRACKABLE_NANOS}
+     * @return bucket index
+     */
+    static int indexOf(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    /**
+     * Returns the largest value in a bucket.
+     *
+     * @param index bucket index
+     * @return largest value {@link #indexOf(long)} maps to {@code index}
+     */
+    static long highestValueIn(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long subBucket = index % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,81 @@
+package boyd.utils;
+
+import java.util.List;
+
+import javafx.collections.ObservableListBase;
+
+/**
+ * Read-only {@link javafx.collections.ObservableList} view of a {@link ChatHistory}, for a
+ * {@link javafx.scene.control.ListView} to display.
+ *
+ * <p>The list view only asks for the messages it is about to show, so messages spilled
+ * to disk are read back only when scrolled into view. Messages are added through
+ * {@link #append(ChatMessage)} or, a batch at a time, {@link #appendAll(List)}, which
+ * report each call as a single insertion at the end.
+ * Must be used on the JavaFX Application Thread.</p>
+ */
+public class ObservableChatHistory extends ObservableListBase<ChatMessage> {
+
+    private final ChatHistory history;
+
+    /**
+     * Creates a view of the given history.
+     *
+     * @param history messages to expose
+     * @throws IllegalArgumentException if {@code history} is {@code null}
+     */
+    public ObservableChatHistory(ChatHistory history) {
+        if (history == null) {
+            throw new IllegalArgumentException("history must be non-null");
+        }
+        this.history = history;
+    }
+
+    /**
+     * Adds a message to the end of the history and notifies listeners.
+     *
+     * @param message message to add
+     * @return index of the message
+     */
+    public int append(ChatMessage message) {
+        int index = history.add(message);
+        beginChange();
+        nextAdd(index, index + 1);
+        endChange();
+        return index;
+    }
+
+    /**
+     * Adds messages to the end of the history and notifies listeners once for all of them.
+     *
+     * @param messages messages to add, oldest first
+     * @return index of the last message added, or {@code -1} if {@code messages} is empty
+     * @throws IllegalArgumentException if {@code messages} is {@code null}
+     */
+    public int appendAll(List<ChatMessage> messages) {
+        if (messages == null) {
+            throw new IllegalArgumentException("messages must be non-null");
+        }
+        if (messages.isEmpty()) {
+            return -1;
+        }
+        int from = history.size();
+        for (ChatMessage message : messages) {
+            history.add(message);
+        }
+        beginChange();
+        nextAdd(from, history.size());
+        endChange();
+        return history.size() - 1;
+    }
+
+    @Override
+    public ChatMessage get(int index) {
+        return history.get(index);
+    }
+
+    @Override
+    public int size() {
+        return history.size();
+    }
+}
@@ -0,0 +1,195 @@
+package boyd.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+import boyd.tasks.Task;
+import javafx.collections.ObservableListBase;
+
+/**
+ * Read-only {@link javafx.collections.ObservableList} that follows a {@link TaskList},
+ * for tables and other JavaFX views.
+ *
+ * <p>Changes arrive as {@link TaskListListener} callbacks on whichever thread wrote the
+ * list and are handed to the UI thread through an {@link Executor} (typically
+ * {@code Platform::runLater}). They are reported as the same fine-grained additions,
+ * removals and replacements, never as a reload of the whole list, except after undo or
+ * redo, which replace the whole list themselves. Changes that arrive faster than the UI
+ * thread runs are queued and reported together as one change event, so a bulk import
+ * costs the view one update rather than one per task.</p>
+ *
+ * <p>Create, read and close it on the UI thread.</p>
+ */
+public class ObservableTaskList extends ObservableListBase<Task> implements TaskListListener, AutoCloseable {
+
+    /** One listener callback waiting to be applied on the UI thread. */
+    private static final class Change {
+        private final int index;
+        private final Task oldTask;
+        private final Task newTask;
+        /** Tasks inserted from {@link #index} on, for a bulk insertion; else {@code null}. */
+        private final List<Task> added;
+        private final List<Task> reset;
+        private final long version;
+
+        private Change(int index, Task oldTask, Task newTask, List<Task> reset, long version) {
+            this(index, oldTask, newTask, null, reset, version);
+        }
+
+        private Change(int index, Task oldTask, Task newTask, List<Task> added, List<Task> reset, long version) {
+            this.index = index;
+            this.oldTask = oldTask;
+            this.newTask = newTask;
+            this.added = added;
+            this.reset = reset;
+            this.version = version;
+        }
+    }
+
+    private final TaskList source;
+    private final Executor uiExecutor;
+    private final Queue<Change> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean isDrainScheduled = new AtomicBoolean();
+
+    /** Current rows; only touched on the UI thread. */
+    private List<Task> rows;
+    /** Version {@link #rows} reflects; callbacks for this version or older are already included. */
+    private long version;
+    private boolean isClosed = false;
+
+    /**
+     * Creates a list showing the current tasks of {@code source}, kept up to date from now on.
+     *
+     * @param source task list to follow
+     * @param uiExecutor runs tasks on the UI thread, in submission order
+     * @throws IllegalArgumentException if either argument is {@code null}
+     */
+    public ObservableTaskList(TaskList source, Executor uiExecutor) {
+        if (source == null || uiExecutor == null) {
+            throw new IllegalArgumentException("source and uiExecutor must be non-null");
+        }
+        this.source = source;
+        this.uiExecutor = uiExecutor;
+        // Listen first, then snapshot: callbacks the snapshot already includes are skipped by version.
+        source.addListener(this);
+        TaskList.Snapshot snapshot = source.snapshot();
+        this.rows = new ArrayList<>(snapshot.getTasks());
+        this.version = snapshot.getVersion();
+    }
+
+    /**
+     * Returns a filter that keeps the tasks {@code find keyword} would list.
+     *
+     * @param keyword text to look for, ignoring case; {@code null} or blank keeps every task
+     * @return predicate over tasks
+     */
+    public static Predicate<Task> findFilter(String keyword) {
+        if (keyword == null || keyword.isBlank()) {
+            return task -> true;
+        }
+        String needle = keyword.trim().toLowerCase();
+        return task -> TaskList.Snapshot.matches(task, needle);
+    }
+
+    @Override
+    public Task get(int index) {
+        return rows.get(index);
+    }
+
+    @Override
+    public int size() {
+        return rows.size();
+    }
+
+    /**
+     * Stops following the task list. Changes not yet applied are dropped.
+     */
+    @Override
+    public void close() {
+        isClosed = true;
+        source.removeListener(this);
+        pending.clear();
+    }
+
+    @Override
+    public void onAdded(int index, Task task, long version) {
+        enqueue(new Change(index, null, task, null, version));
+    }
+
+    @Override
+    public void onAddedAll(int index, List<Task> tasks, long version) {
+        enqueue(new Change(index, null, null, tasks, null, version));
+    }
+
+    @Override
+    public void onRemoved(int index, Task task, long version) {
+        enqueue(new Change(index, task, null, null, version));
+    }
+
+    @Override
+    public void onReplaced(int index, Task oldTask, Task newTask, long version) {
+        enqueue(new Change(index, oldTask, newTask, null, version));
+    }
+
+    @Override
+    public void onReset(List<Task> tasks, long version) {
+        enqueue(new Change(-1, null, null, tasks, version));
+    }
+
+    private void enqueue(Change change) {
+        pending.add(change);
+        if (isDrainScheduled.compareAndSet(false, true)) {
+            uiExecutor.execute(this::drain);
+        }
+    }
+
+    /** Applies every queued change as one change event. */
+    private void drain() {
+        isDrainScheduled.set(false);
+        if (isClosed || pending.isEmpty()) {
+            return;
+        }
+        beginChange();
+        try {
+            Change change;
+            while ((change = pending.poll()) != null) {
+                if (change.version > version) {
+                    apply(change);
+                    version = change.version;
+                }
+            }
+        } finally {
+            endChange();
+        }
+    }
+
+    private void apply(Change change) {
+        if (change.reset != null) {
+            List<Task> removed = rows;
+            rows = new ArrayList<>(change.reset);
+            if (!removed.isEmpty()) {
+                nextRemove(0, removed);
+            }
+            if (!rows.isEmpty()) {
+                nextAdd(0, rows.size());
+            }
+        } else if (change.added != null) {
+            rows.addAll(change.index, change.added);
+            nextAdd(change.index, change.index + change.added.size());
+        } else if (change.oldTask == null) {
+            rows.add(change.index, change.newTask);
+            nextAdd(change.index, change.index + 1);
+        } else if (change.newTask == null) {
+            rows.remove(change.index);
+            nextRemove(change.index, change.oldTask);
+        } else {
+            rows.set(change.index, change.newTask);
+            nextSet(change.index, change.oldTask);
+        }
+    }
+}
@@ -1,10 +1,21 @@
 package boyd.utils;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.WeakHashMap;
 
 import boyd.exceptions.BoydException;
+import boyd.exceptions.VersionConflictException;
 import boyd.tasks.Deadline;
 import boyd.tasks.Event;
 import boyd.tasks.Task;
@@ -15,13 +26,88 @@ import boyd.tasks.ToDo;
  *
  * <p>This parser is UI-agnostic: it returns {@link BoydResponse} values that
  * encode the message and status (OK/ERROR/EXIT) instead of printing.</p>
+ *
+ * <p>Each line is tokenized once ({@link PreparedCommand}) and its keyword is looked
+ * up, ignoring case, in a {@link CommandTable}; the matching {@link CommandHandler}
+ * does the rest. Further commands can be plugged in with
+ * {@link #register(String, CommandHandler)}.</p>
+ *
+ * <p>Every response about the list carries the version it reflects: the one a change
+ * committed, or the one a read saw; responses such as {@code bye} and {@code stats}
+ * carry none. {@code mark},
+ * {@code delete}, {@code undo} and {@code redo} accept that version as a trailing
+ * {@code @v<version>} (e.g. {@code delete 3 @v42}) and then fail with a conflict
+ * response, rather than act on a list that changed in the meantime.</p>
+ *
+ * <p>{@code list [page] [size]} shows one page of the list. Each task caches its own
+ * display line ({@link Task#toDisplayString()}), so a page costs time in proportion to
+ * its size, and the last page rendered for each list is kept until the list changes,
+ * so repeating {@code list} costs next to nothing.</p>
+ *
+ * <p>Lists and searches over more than {@value #CHUNK_LINES} tasks are answered with a
+ * streamed {@link BoydResponse}, whose lines are rendered one chunk at a time as the
+ * caller reads them.</p>
+ *
+ * <p>{@code import <file>} adds every task command in a file through {@link TaskImporter},
+ * which parses the lines in parallel, before the command waits for other writers, and
+ * saves the list once; {@code export csv|json <file> [keyword]}
+ * writes a snapshot of the list out through {@link TaskExporter}. File names are resolved
+ * against the {@value TaskImporter#DIRECTORY_NAME} and {@value TaskExporter#DIRECTORY_NAME}
+ * directories next to the save file, and names leading out of them are refused.</p>
+ *
+ * <p>{@code bye}, {@code list}, {@code find}, {@code export} and {@code stats} only read
+ * the list, from a {@link TaskList#snapshot()}, and are marked
+ * {@linkplain CommandHandler#isReadOnly() read-only} so that a {@link CommandPipeline}
+ * need not queue them behind writers.</p>
+ *
+ * <p>Every command handled records its latency in {@link CommandMetrics}, which
+ * {@code stats} shows, in total and, for a sample of commands, stage by stage; it also
+ * emits a {@code boyd.Command} Flight Recorder event.</p>
  */
 public final class Parser {
 
+    /** Tasks per page for {@code list <page>} when no size is given. */
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    /** Lines per chunk of a streamed {@code list} or {@code find} response. */
+    public static final int CHUNK_LINES = 256;
+
+    /** Last page rendered for each task list; entries go away with their list. */
+    private static final Map<TaskList, RenderedPage> RENDERED_PAGES =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    /** Built-in and registered commands; replaced as a whole by {@link #register}. */
+    private static volatile CommandTable commands = CommandTable.empty()
+            .with("bye", CommandHandler.readOnly(Parser::handleBye))
+            .with("list", CommandHandler.readOnly(Parser::handleList))
+            .with("undo", Parser::handleUndo)
+            .with("redo", Parser::handleRedo)
+            .with("mark", Parser::handleMark)
+            .with("delete", Parser::handleDelete)
+            .with("find", CommandHandler.readOnly(Parser::handleFind))
+            .with("import", new ImportHandler())
+            .with("export", CommandHandler.readOnly(Parser::handleExport))
+            .with("stats", CommandHandler.readOnly(Parser::handleStats))
+            .with("todo", new AddTaskHandler(CommandType.TODO))
+            .with("deadline", new AddTaskHandler(CommandType.DEADLINE))
+            .with("event", new AddTaskHandler(CommandType.EVENT));
+
     private Parser() {
         // Utility class; do not instantiate.
     }
 
+    /**
+     * Adds a command, or replaces the handler of an existing one. Commands registered
+     * while others are being handled apply to lines prepared afterwards.
+     *
+     * @param keyword command keyword, matched case-insensitively (printable ASCII, no spaces)
+     * @param handler handler to run for the keyword
+     * @throws IllegalArgumentException if {@code keyword} is invalid or {@code handler} is {@code null}
+     */
+    public static synchronized void register(String keyword, CommandHandler handler) {
+        commands = commands.with(keyword, handler);
+    }
+
     /**
      * Handles a single line of user input by mutating the given {@link TaskList} as needed
      * and returning a {@link BoydResponse} describing the outcome.
@@ -38,23 +124,158 @@ public final class Parser {
         if (tasks == null) {
             throw new IllegalArgumentException("tasks must be non-null");
         }
+        CommandEvent event = new CommandEvent();
+        event.begin();
+        PreparedCommand command;
+        BoydResponse response;
+        if (CommandMetrics.isEnabled()) {
+            CommandMetrics.Stages stages = CommandMetrics.beginLine(System.nanoTime());
+            command = prepareLine(input);
+            CommandMetrics.endParse(stages, command);
+            response = timedApply(command, tasks, stages);
+        } else {
+            command = prepareLine(input);
+            response = apply(command, tasks);
+        }
+        event.finish(command, response, false);
+        return response;
+    }
 
-        final String trimmed = input.trim();
-        if (trimmed.isEmpty()) {
-            return BoydResponse.error("Command cannot be empty.");
+    /**
+     * Does the parsing work for a line of input without touching any {@link TaskList}.
+     * <p>
+     * This tokenizes the line, finds its handler and, for add commands, builds the
+     * {@link Task} (including date parsing); a parse failure is captured and reported
+     * when the command is handled. Safe to call from any thread.
+     * </p>
+     *
+     * @param input raw user input (non-null)
+     * @return the prepared command
+     * @throws IllegalArgumentException if {@code input} is {@code null}
+     */
+    public static PreparedCommand prepare(String input) {
+        if (input == null) {
+            throw new IllegalArgumentException("input must be non-null");
         }
-        if (trimmed.equalsIgnoreCase("bye")) {
-            return BoydResponse.exit("Bye. Hope to see you again soon!");
+        if (!CommandMetrics.isSampled()) {
+            return prepareLine(input);
         }
+        long start = System.nanoTime();
+        PreparedCommand command = prepareLine(input);
+        CommandMetrics.recordParse(CommandMetrics.commandOf(command), System.nanoTime() - start,
+                command.handler == null || command.error != null);
+        return command;
+    }
 
-        try {
-            BoydResponse quick = handleSimpleCommands(trimmed, tasks);
-            if (quick != null) {
-                return quick;
+    private static PreparedCommand prepareLine(String input) {
+        PreparedCommand command = PreparedCommand.tokenize(input);
+        command.handler = commands.lookup(command.keyword);
+        if (command.handler != null) {
+            try {
+                command.task = command.handler.parseTask(command);
+            } catch (RuntimeException e) {
+                command.error = e;
             }
+        }
+        return command;
+    }
+
+    /**
+     * Returns the handler of a line's keyword, without preparing the rest of the line.
+     *
+     * @param input raw user input (non-null)
+     * @return the handler, or {@code null} if the keyword is unknown
+     */
+    static CommandHandler handlerOf(String input) {
+        int start = 0;
+        while (start < input.length() && PreparedCommand.isSpace(input.charAt(start))) {
+            start++;
+        }
+        int end = start;
+        while (end < input.length() && !PreparedCommand.isSpace(input.charAt(end))) {
+            end++;
+        }
+        return commands.lookup(input.subSequence(start, end));
+    }
+
+    /**
+     * Runs a prepared command's {@link CommandHandler#readAhead(PreparedCommand, TaskList)},
+     * if it has one that has not run yet; a failure is kept for when the command is handled.
+     *
+     * @param command command from {@link #prepare(String)}
+     * @param tasks task list the command will be applied to
+     */
+    static void readAhead(PreparedCommand command, TaskList tasks) {
+        if (command.isReadAhead || command.handler == null || command.error != null
+                || !command.handler.hasReadAhead()) {
+            return;
+        }
+        command.isReadAhead = true;
+        try {
+            command.readAhead = command.handler.readAhead(command, tasks);
+        } catch (RuntimeException e) {
+            command.error = e;
+        }
+    }
+
+    /**
+     * Applies a prepared command to the given {@link TaskList}.
+     *
+     * @param command command from {@link #prepare(String)} (non-null)
+     * @param tasks task list to operate on (non-null)
+     * @return a {@link BoydResponse} with the formatted message and status flags
+     * @throws IllegalArgumentException if {@code command} or {@code tasks} is {@code null}
+     */
+    public static BoydResponse handle(PreparedCommand command, TaskList tasks) {
+        if (command == null) {
+            throw new IllegalArgumentException("command must be non-null");
+        }
+        if (tasks == null) {
+            throw new IllegalArgumentException("tasks must be non-null");
+        }
+        CommandEvent event = new CommandEvent();
+        event.begin();
+        BoydResponse response;
+        if (CommandMetrics.isEnabled()) {
+            response = timedApply(command, tasks,
+                    CommandMetrics.beginHandle(CommandMetrics.commandOf(command), System.nanoTime()));
+        } else {
+            response = apply(command, tasks);
+        }
+        event.finish(command, response, true);
+        return response;
+    }
 
-            return handleAddCommand(trimmed, tasks);
+    /** Applies a command, recording its stages in {@link CommandMetrics}. */
+    private static BoydResponse timedApply(PreparedCommand command, TaskList tasks, CommandMetrics.Stages stages) {
+        BoydResponse response = null;
+        try {
+            response = apply(command, tasks);
+            return response;
+        } finally {
+            CommandMetrics.endStages(stages, System.nanoTime(), response == null || response.isError());
+        }
+    }
+
+    private static BoydResponse apply(PreparedCommand command, TaskList tasks) {
+        if (command.trimmed.isEmpty()) {
+            return BoydResponse.error("Command cannot be empty.");
+        }
 
+        try {
+            if (command.handler == null) {
+                throw unknownCommand(command);
+            }
+            readAhead(command, tasks);
+            if (command.error != null) {
+                throw command.error;
+            }
+            BoydResponse response = command.handler.handle(command, tasks);
+            assert response != null : "handlers must not return null";
+            return response;
+
+        } catch (VersionConflictException e) {
+            return BoydResponse.conflict(e.getMessage()).withVersion(e.getCurrentVersion());
         } catch (BoydException e) {
             // Expected, user-recoverable errors
             return BoydResponse.error(e.getMessage());
@@ -64,101 +285,388 @@ public final class Parser {
         }
     }
 
-    private static BoydResponse handleSimpleCommands(String trimmed, TaskList tasks) {
-        if (trimmed.equalsIgnoreCase("list")) {
-            List<Task> taskList = tasks.getTasks();
-            assert taskList != null : "TaskList.getTasks() must not return null";
-            if (taskList.isEmpty()) {
-                return BoydResponse.error("You haven't added any items!");
+    private static BoydResponse handleBye(PreparedCommand command, TaskList tasks) {
+        requireNoArguments(command);
+        return BoydResponse.exit("Bye. Hope to see you again soon!");
+    }
+
+    private static BoydResponse handleList(PreparedCommand command, TaskList tasks) {
+        int page = 0;
+        int size = 0;
+        if (!command.arguments.isEmpty()) {
+            String[] words = command.arguments.split("\\s+");
+            if (words.length > 2) {
+                throw unknownCommand(command);
             }
-            String message = formatNumbered(taskList);
-            return BoydResponse.ok(message);
+            page = parsePageNumber(command, words[0]);
+            size = words.length == 2 ? parsePageNumber(command, words[1]) : DEFAULT_PAGE_SIZE;
         }
+        TaskList.Snapshot snapshot = tasks.snapshot();
+        List<Task> taskList = snapshot.getTasks();
+        assert taskList != null : "TaskList.getTasks() must not return null";
+        if (taskList.isEmpty()) {
+            return BoydResponse.error("You haven't added any items!").withVersion(snapshot.getVersion());
+        }
+        if (page == 0 && taskList.size() > CHUNK_LINES) {
+            return BoydResponse.stream(new NumberedChunks(taskList, null)).withVersion(snapshot.getVersion());
+        }
+        String message = renderPage(tasks, snapshot, page, size);
+        return BoydResponse.ok(message).withVersion(snapshot.getVersion());
+    }
 
-        if (trimmed.startsWith("mark")) {
-            int idx = parseIndex(trimmed, "mark");
-            Task task = tasks.mark(idx);
-            String message = String.format(
-                    "Nice! I've marked this task as done:%n  %s", task);
-            return BoydResponse.ok(message);
+    /** A rendered {@code list} reply, valid for as long as its list still returns {@link #snapshot}. */
+    private static final class RenderedPage {
+        private final TaskList.Snapshot snapshot;
+        private final int page;
+        private final int size;
+        private final String text;
+
+        RenderedPage(TaskList.Snapshot snapshot, int page, int size, String text) {
+            this.snapshot = snapshot;
+            this.page = page;
+            this.size = size;
+            this.text = text;
         }
+    }
 
-        if (trimmed.startsWith("delete")) {
-            int idx = parseIndex(trimmed, "delete");
-            Task removedTask = tasks.remove(idx);
-            String message = String.format(
-                    "Noted! I've removed this task:%n  %s%nNow you have %d tasks in this list.",
-                    removedTask, tasks.size());
-            return BoydResponse.ok(message);
+    /** Renders one page of a non-empty snapshot, or all of it if {@code page} is 0; reuses the last render. */
+    private static String renderPage(TaskList tasks, TaskList.Snapshot snapshot, int page, int size) {
+        RenderedPage cached = RENDERED_PAGES.get(tasks);
+        if (cached != null && cached.snapshot == snapshot && cached.page == page && cached.size == size) {
+            return cached.text;
         }
+        List<Task> items = snapshot.getTasks();
+        String text;
+        if (page == 0) {
+            text = formatNumbered(items, 0, items.size());
+        } else {
+            int pageCount = (int) ((items.size() + (long) size - 1) / size);
+            if (page > pageCount) {
+                throw new BoydException(String.format(
+                        "There is no page %d: the list has %d page(s) of %d tasks.", page, pageCount, size));
+            }
+            int from = (page - 1) * size;
+            int to = (int) Math.min(items.size(), (long) from + size);
+            text = formatNumbered(items, from, to) + String.format(
+                    "%nPage %d of %d (tasks %d-%d of %d).", page, pageCount, from + 1, to, items.size());
+        }
+        RENDERED_PAGES.put(tasks, new RenderedPage(snapshot, page, size, text));
+        return text;
+    }
 
-        if (trimmed.startsWith("find")) {
-            String[] parts = trimmed.split("\\s+", 2);
-            if (parts.length < 2 || parts[1].isBlank()) {
-                throw new BoydException("Command should be: \"find <keyword>\"");
+    /** Parses a page number or page size of {@code list}. */
+    private static int parsePageNumber(PreparedCommand command, String word) {
+        int number;
+        try {
+            number = Integer.parseInt(word);
+        } catch (NumberFormatException e) {
+            throw unknownCommand(command);
+        }
+        if (number < 1) {
+            throw new BoydException("Page and page size must be at least 1.");
+        }
+        return number;
+    }
+
+    private static BoydResponse handleUndo(PreparedCommand command, TaskList tasks) {
+        requireNoArgumentsBeforeVersion(command);
+        TaskList.Snapshot after = tasks.undo(command.expectedVersion);
+        String message = String.format(
+                "Undone! Now you have %d tasks in this list.", after.getTasks().size());
+        return BoydResponse.ok(message).withVersion(after.getVersion());
+    }
+
+    private static BoydResponse handleRedo(PreparedCommand command, TaskList tasks) {
+        requireNoArgumentsBeforeVersion(command);
+        TaskList.Snapshot after = tasks.redo(command.expectedVersion);
+        String message = String.format(
+                "Redone! Now you have %d tasks in this list.", after.getTasks().size());
+        return BoydResponse.ok(message).withVersion(after.getVersion());
+    }
+
+    private static BoydResponse handleMark(PreparedCommand command, TaskList tasks) {
+        int idx = parseIndex(command, "mark");
+        Task task = tasks.mark(idx, command.expectedVersion);
+        String message = String.format(
+                "Nice! I've marked this task as done:%n  %s", task);
+        return BoydResponse.ok(message).withVersion(task.getVersion());
+    }
+
+    private static BoydResponse handleDelete(PreparedCommand command, TaskList tasks) {
+        int idx = parseIndex(command, "delete");
+        TaskList.Change removal = tasks.remove(idx, command.expectedVersion);
+        TaskList.Snapshot after = removal.getSnapshot();
+        String message = String.format(
+                "Noted! I've removed this task:%n  %s%nNow you have %d tasks in this list.",
+                removal.getTask(), after.getTasks().size());
+        return BoydResponse.ok(message).withVersion(after.getVersion());
+    }
+
+    private static BoydResponse handleFind(PreparedCommand command, TaskList tasks) {
+        if (command.arguments.isEmpty()) {
+            throw new BoydException("Command should be: \"find <keyword>\"");
+        }
+        TaskList.Snapshot snapshot = tasks.snapshot();
+        if (snapshot.getTasks().size() > CHUNK_LINES) {
+            NumberedChunks chunks = new NumberedChunks(snapshot.getTasks(), command.arguments.toLowerCase());
+            if (!chunks.iterator().hasNext()) {
+                return BoydResponse.ok("No matching tasks found.").withVersion(snapshot.getVersion());
             }
-            List<Task> matches = tasks.find(parts[1].trim());
-            if (matches.isEmpty()) {
-                return BoydResponse.ok("No matching tasks found.");
+            return BoydResponse.stream(chunks).withVersion(snapshot.getVersion());
+        }
+        List<Task> matches = snapshot.find(command.arguments);
+        if (matches.isEmpty()) {
+            return BoydResponse.ok("No matching tasks found.").withVersion(snapshot.getVersion());
+        }
+        String message = formatNumbered(matches, 0, matches.size());
+        return BoydResponse.ok(message).withVersion(snapshot.getVersion());
+    }
+
+    private static BoydResponse handleStats(PreparedCommand command, TaskList tasks) {
+        requireNoArguments(command);
+        return BoydResponse.ok(CommandMetrics.report());
+    }
+
+    /** Reads and parses the file ahead, so that only appending its tasks waits for other writers. */
+    private static final class ImportHandler implements CommandHandler {
+        @Override
+        public boolean hasReadAhead() {
+            return true;
+        }
+
+        @Override
+        public TaskImporter.Parsed readAhead(PreparedCommand command, TaskList tasks) {
+            return readImport(command, tasks);
+        }
+
+        @Override
+        public BoydResponse handle(PreparedCommand command, TaskList tasks) {
+            TaskImporter.Parsed parsed = command.isReadAhead
+                    ? (TaskImporter.Parsed) command.readAhead
+                    : readImport(command, tasks);
+            TaskImporter.Result result = parsed.addTo(tasks);
+            return BoydResponse.ok(result.summary()).withVersion(result.getVersion());
+        }
+    }
+
+    private static TaskImporter.Parsed readImport(PreparedCommand command, TaskList tasks) {
+        if (command.arguments.isEmpty()) {
+            throw new BoydException("Command should be: \"import <file>\"");
+        }
+        Path directory = tasks.getDataDirectory().resolve(TaskImporter.DIRECTORY_NAME);
+        Path file = fileIn(directory, command.arguments, "imported from");
+        try {
+            // A symbolic link inside the directory must not lead out of it either.
+            if (!file.toRealPath().startsWith(directory.toRealPath())) {
+                throw outside(directory, "imported from");
             }
-            String message = formatNumbered(matches);
-            return BoydResponse.ok(message);
+            return TaskImporter.read(file);
+        } catch (NoSuchFileException e) {
+            throw new BoydException("File not found: " + command.arguments);
+        } catch (IOException e) {
+            throw new BoydException("Could not read " + command.arguments + ": " + e.getMessage());
         }
+    }
 
-        return null; // not a simple command
+    private static BoydResponse handleExport(PreparedCommand command, TaskList tasks) {
+        String[] words = command.arguments.split("\\s+", 3);
+        if (words.length < 2) {
+            throw new BoydException("Command should be: \"export csv|json <file> [keyword]\"");
+        }
+        TaskExporter.Format format;
+        try {
+            format = TaskExporter.Format.valueOf(words[0].toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BoydException("Export format must be csv or json.");
+        }
+        Path directory = tasks.getDataDirectory().resolve(TaskExporter.DIRECTORY_NAME);
+        Path file = fileIn(directory, words[1], "exported to");
+        TaskList.Snapshot snapshot = tasks.snapshot();
+        try {
+            Path realDirectory = Files.createDirectories(directory).toRealPath();
+            // A symbolic link inside the directory must not lead out of it either, so check
+            // where the folders that already exist really are before creating any others.
+            Path existing = file.getParent();
+            while (!Files.exists(existing)) {
+                existing = existing.getParent();
+            }
+            if (!existing.toRealPath().startsWith(realDirectory)) {
+                throw outside(directory, "exported to");
+            }
+            Files.createDirectories(file.getParent());
+            if (!file.getParent().toRealPath().startsWith(realDirectory)) {
+                throw outside(directory, "exported to");
+            }
+            int count = TaskExporter.export(snapshot, format, file, words.length > 2 ? words[2] : null);
+            return BoydResponse.ok(String.format("Exported %d tasks to %s.", count, file))
+                    .withVersion(snapshot.getVersion());
+        } catch (IOException e) {
+            throw new BoydException("Could not write " + words[1] + ": " + e.getMessage());
+        }
     }
 
-    private static BoydResponse handleAddCommand(String trimmed, TaskList tasks) {
-        Task t = parseTask(trimmed);
-        Task added = tasks.add(t);
-        String message = String.format(
-                "Got it! Added:%n  %s%nNow you have %d tasks in this list.",
-                added, tasks.size());
-        return BoydResponse.ok(message);
+    /**
+     * The tasks of a snapshot (or those matching a {@code find} keyword) as a numbered
+     * list, {@value #CHUNK_LINES} lines per chunk; each chunk is rendered when it is reached.
+     */
+    private static final class NumberedChunks implements Iterable<String> {
+        private final List<Task> items;
+        /** Lower-cased {@code find} keyword, or {@code null} to number every task. */
+        private final String keyword;
+
+        NumberedChunks(List<Task> items, String keyword) {
+            this.items = items;
+            this.keyword = keyword;
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return new Iterator<>() {
+                private int index = nextShown(0);
+                private int number = 1;
+
+                @Override
+                public boolean hasNext() {
+                    return index < items.size();
+                }
+
+                @Override
+                public String next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    StringBuilder sb = new StringBuilder();
+                    for (int lines = 0; lines < CHUNK_LINES && index < items.size(); lines++) {
+                        if (lines > 0) {
+                            sb.append(System.lineSeparator());
+                        }
+                        sb.append(number++).append(". ").append(items.get(index).toDisplayString());
+                        index = nextShown(index + 1);
+                    }
+                    return sb.toString();
+                }
+            };
+        }
+
+        /** Returns the index of the first task at or after {@code from} that is shown. */
+        private int nextShown(int from) {
+            int i = from;
+            while (keyword != null && i < items.size() && !TaskList.Snapshot.matches(items.get(i), keyword)) {
+                i++;
+            }
+            return i;
+        }
+    }
+
+    /** Adds the task built by one of the {@link CommandType} commands. */
+    private static final class AddTaskHandler implements CommandHandler {
+        private final CommandType type;
+
+        AddTaskHandler(CommandType type) {
+            this.type = type;
+        }
+
+        @Override
+        public Task parseTask(PreparedCommand command) {
+            return switch (type) {
+            case TODO -> parseTodo(command);
+            case DEADLINE -> parseDeadline(command);
+            case EVENT -> parseEvent(command);
+            };
+        }
+
+        @Override
+        public BoydResponse handle(PreparedCommand command, TaskList tasks) {
+            Task t = command.task != null ? command.task : parseTask(command);
+            TaskList.Snapshot after = tasks.add(t).getSnapshot();
+            String message = String.format(
+                    "Got it! Added:%n  %s%nNow you have %d tasks in this list.",
+                    t, after.getTasks().size());
+            return BoydResponse.ok(message).withVersion(after.getVersion());
+        }
+    }
+
+    /**
+     * Resolves a file name typed by the user against {@code directory}, rejecting
+     * absolute paths and names that lead out of it, e.g. {@code ../boyd.txt}, so that
+     * commands cannot reach other files, such as other users' save files.
+     */
+    private static Path fileIn(Path directory, String name, String verb) {
+        Path file;
+        try {
+            file = Path.of(name);
+        } catch (InvalidPathException e) {
+            throw new BoydException("Invalid file name: " + name);
+        }
+        Path base = directory.normalize();
+        Path resolved = base.resolve(file).normalize();
+        if (file.getRoot() != null || !resolved.startsWith(base) || resolved.equals(base)) {
+            throw outside(directory, verb);
+        }
+        return resolved;
+    }
+
+    private static BoydException outside(Path directory, String verb) {
+        return new BoydException(String.format("Files can only be %s %s.", verb, directory));
+    }
+
+    private static BoydException unknownCommand(PreparedCommand command) {
+        return new BoydException("Unknown command: " + command.keyword);
+    }
+
+    /** Commands such as {@code bye} take no arguments; anything else is not that command. */
+    private static void requireNoArguments(PreparedCommand command) {
+        if (!command.arguments.isEmpty()) {
+            throw unknownCommand(command);
+        }
+    }
+
+    private static void requireNoArgumentsBeforeVersion(PreparedCommand command) {
+        if (!command.argumentsBeforeVersion.isEmpty()) {
+            throw unknownCommand(command);
+        }
     }
 
     /**
-     * Formats tasks as a numbered list (1-based), one per line.
+     * Formats tasks {@code from} (inclusive) to {@code to} (exclusive) as a numbered
+     * list, one per line, numbered by their 1-based position in {@code items}.
      *
      * @param items tasks to format (non-null; must not contain null)
+     * @param from index of the first task to format
+     * @param to index after the last task to format
      * @return numbered list string
      */
-    private static String formatNumbered(List<Task> items) {
+    private static String formatNumbered(List<Task> items, int from, int to) {
         assert items != null : "items must be non-null";
         StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < items.size(); i++) {
+        for (int i = from; i < to; i++) {
             Task task = items.get(i);
             assert task != null : "items must not contain null elements";
-            if (i > 0) {
+            if (i > from) {
                 sb.append(System.lineSeparator());
             }
-            sb.append(i + 1).append(". ").append(task);
+            sb.append(i + 1).append(". ").append(task.toDisplayString());
         }
         return sb.toString();
     }
 
     /**
-     * Parses a 1-based index from commands of the form {@code "<cmd> <number>"}.
+     * Parses the 1-based index of commands of the form {@code "<cmd> <number> [@v<version>]"}.
      *
-     * @param line full command line
-     * @param cmd  command keyword used for error messages
+     * @param command tokenized command
+     * @param cmd command keyword used for error messages
      * @return parsed integer index (1-based)
      * @throws BoydException if the number is missing or invalid
      */
-    private static int parseIndex(String line, String cmd) {
-        assert line != null : "line must be non-null";
+    private static int parseIndex(PreparedCommand command, String cmd) {
         assert cmd != null && !cmd.isBlank() : "cmd must be non-blank";
 
-        String[] parts = line.split("\\s+", 2);
-        if (parts.length < 2 || parts[1].isBlank()) {
+        String number = command.argumentsBeforeVersion;
+        if (number.isEmpty()) {
             throw new BoydException("Command should be: \"" + cmd + " <number>\"");
         }
-        // Ensure the first token is exactly the command (avoid "market 1" being treated as "mark 1")
-        if (!parts[0].equalsIgnoreCase(cmd)) {
-            throw new BoydException("Unknown command: " + parts[0]);
-        }
         try {
-            return Integer.parseInt(parts[1].trim());
+            return Integer.parseInt(number);
         } catch (NumberFormatException e) {
             throw new BoydException("You must enter a valid number after '" + cmd + "'.");
         }
@@ -212,49 +720,45 @@ public final class Parser {
             throw new IllegalArgumentException("Input must be non-null");
         }
 
-        String[] parts = input.trim().split("\\s+", 2);
-        if (parts.length == 0 || parts[0].isBlank()) {
+        PreparedCommand command = PreparedCommand.tokenize(input);
+        if (command.keyword.isEmpty()) {
             throw new BoydException("Unknown command: (empty)");
         }
-
-        final CommandType commandType;
-        try {
-            commandType = CommandType.fromString(parts[0]);
-        } catch (IllegalArgumentException e) {
-            throw new BoydException("Unknown command: " + parts[0]);
+        CommandHandler handler = commands.lookup(command.keyword);
+        if (!(handler instanceof AddTaskHandler)) {
+            throw unknownCommand(command);
         }
-
-        assert commandType != null;
-
-        return switch (commandType) {
-        case TODO -> parseTodo(parts);
-        case DEADLINE -> parseDeadline(parts);
-        case EVENT -> parseEvent(parts);
-        };
+        return handler.parseTask(command);
     }
 
-    private static Task parseTodo(String[] parts) {
-        if (parts.length < 2 || parts[1].trim().isEmpty()) {
+    private static Task parseTodo(PreparedCommand command) {
+        if (command.arguments.isEmpty()) {
             throw new BoydException("The description of a todo cannot be empty!");
         }
-        String desc = parts[1].trim();
-        return new ToDo(desc);
+        return new ToDo(command.arguments);
     }
 
-    private static Task parseDeadline(String[] parts) {
-        if (parts.length < 2 || parts[1].trim().isEmpty()) {
+    private static Task parseDeadline(PreparedCommand command) {
+        String args = command.arguments;
+        if (args.isEmpty()) {
             throw new BoydException("The description of a deadline cannot be empty!");
         }
-        String[] splitDeadline = parts[1].split("\\s+/by\\s+", 2);
-        if (splitDeadline.length < 2 || splitDeadline[0].isBlank() || splitDeadline[1].isBlank()) {
+        if (command.byIndex < 0) {
             throw new BoydException("Deadline must have a description and a '/by' date.");
         }
-        String desc = splitDeadline[0].trim();
-        String by = splitDeadline[1].trim();
-        String[] dateTimeChunks = by.split("\\s+", 2);
+        String desc = args.substring(0, command.byIndex).trim();
+        String by = args.substring(command.byIndex + "/by".length()).trim();
+        int dateEnd = 0;
+        while (dateEnd < by.length() && !PreparedCommand.isSpace(by.charAt(dateEnd))) {
+            dateEnd++;
+        }
+        int timeStart = dateEnd;
+        while (timeStart < by.length() && PreparedCommand.isSpace(by.charAt(timeStart))) {
+            timeStart++;
+        }
         try {
-            if (dateTimeChunks.length == 2) {
-                return new Deadline(desc, dateTimeChunks[0], dateTimeChunks[1]);
+            if (timeStart < by.length()) {
+                return new Deadline(desc, by.substring(0, dateEnd), by.substring(timeStart));
             } else {
                 return new Deadline(desc, by);
             }
@@ -263,21 +767,20 @@ public final class Parser {
         }
     }
 
-    private static Task parseEvent(String[] parts) {
-        if (parts.length < 2 || parts[1].trim().isEmpty()) {
+    private static Task parseEvent(PreparedCommand command) {
+        String args = command.arguments;
+        if (args.isEmpty()) {
             throw new BoydException("The description of an event cannot be empty!");
         }
-        String[] fromSplit = parts[1].split("\\s+/from\\s+", 2);
-        if (fromSplit.length < 2 || fromSplit[0].isBlank()) {
+        if (command.fromIndex < 0) {
             throw new BoydException("Event must have a description and a '/from' time.");
         }
-        String eventDesc = fromSplit[0].trim();
-        String[] toSplit = fromSplit[1].split("\\s+/to\\s+", 2);
-        if (toSplit.length < 2 || toSplit[0].isBlank() || toSplit[1].isBlank()) {
+        if (command.toIndex < 0) {
             throw new BoydException("Event must have both a '/from' and a '/to' time.");
         }
-        String from = toSplit[0].trim();
-        String to = toSplit[1].trim();
+        String eventDesc = args.substring(0, command.fromIndex).trim();
+        String from = args.substring(command.fromIndex + "/from".length(), command.toIndex).trim();
+        String to = args.substring(command.toIndex + "/to".length()).trim();
         try {
             return new Event(eventDesc, from, to);
         } catch (DateTimeParseException e) {
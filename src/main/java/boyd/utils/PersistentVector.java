@@ -0,0 +1,327 @@
+package boyd.utils;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable, indexable sequence that shares structure between versions.
+ * <p>
+ * Backed by a size-annotated AVL tree. Every update ({@link #set}, {@link #insert},
+ * {@link #remove}) copies only the O(log n) nodes on the path from the root to the
+ * affected position and returns a new vector; the receiver is never modified. Old
+ * versions therefore stay valid forever and can be handed out as read snapshots.
+ * </p>
+ *
+ * @param <E> element type
+ */
+public final class PersistentVector<E> implements Iterable<E> {
+
+    private static final PersistentVector<?> EMPTY = new PersistentVector<>(null);
+
+    private final Node<E> root;
+
+    private PersistentVector(Node<E> root) {
+        this.root = root;
+    }
+
+    /**
+     * Returns the empty vector.
+     *
+     * @param <E> element type
+     * @return an empty vector
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentVector<E> empty() {
+        return (PersistentVector<E>) EMPTY;
+    }
+
+    /**
+     * Builds a perfectly balanced vector holding the given items in order, in O(n).
+     *
+     * @param items items to copy (non-null)
+     * @param <E>   element type
+     * @return a vector with the same elements as {@code items}
+     */
+    public static <E> PersistentVector<E> of(List<? extends E> items) {
+        if (items == null) {
+            throw new IllegalArgumentException("items must be non-null");
+        }
+        if (items.isEmpty()) {
+            return empty();
+        }
+        Object[] array = items.toArray();
+        return new PersistentVector<>(build(array, 0, array.length));
+    }
+
+    /**
+     * Returns the number of elements.
+     *
+     * @return element count
+     */
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * Returns whether this vector has no elements.
+     *
+     * @return {@code true} if empty
+     */
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * Returns the element at the given zero-based index in O(log n).
+     *
+     * @param index zero-based index
+     * @return the element at {@code index}
+     * @throws IndexOutOfBoundsException if {@code index} is outside {@code [0, size())}
+     */
+    public E get(int index) {
+        checkIndex(index, size());
+        Node<E> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node.value;
+            }
+        }
+    }
+
+    /**
+     * Returns a new vector with the element at {@code index} replaced.
+     *
+     * @param index zero-based index
+     * @param value replacement element
+     * @return the updated vector
+     * @throws IndexOutOfBoundsException if {@code index} is outside {@code [0, size())}
+     */
+    public PersistentVector<E> set(int index, E value) {
+        checkIndex(index, size());
+        return new PersistentVector<>(set(root, index, value));
+    }
+
+    /**
+     * Returns a new vector with {@code value} inserted before position {@code index}.
+     *
+     * @param index zero-based position in {@code [0, size()]}
+     * @param value element to insert
+     * @return the updated vector
+     * @throws IndexOutOfBoundsException if {@code index} is outside {@code [0, size()]}
+     */
+    public PersistentVector<E> insert(int index, E value) {
+        checkIndex(index, size() + 1);
+        return new PersistentVector<>(insert(root, index, value));
+    }
+
+    /**
+     * Returns a new vector with {@code value} appended at the end.
+     *
+     * @param value element to append
+     * @return the updated vector
+     */
+    public PersistentVector<E> append(E value) {
+        return insert(size(), value);
+    }
+
+    /**
+     * Returns a new vector with the element at {@code index} removed.
+     *
+     * @param index zero-based index
+     * @return the updated vector
+     * @throws IndexOutOfBoundsException if {@code index} is outside {@code [0, size())}
+     */
+    public PersistentVector<E> remove(int index) {
+        checkIndex(index, size());
+        return new PersistentVector<>(remove(root, index));
+    }
+
+    /**
+     * Returns an in-order iterator that uses O(log n) extra space.
+     *
+     * @return iterator over the elements
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new InOrderIterator<>(root);
+    }
+
+    /**
+     * Returns an unmodifiable {@link List} view of this version.
+     * <p>The view is O(1) to create and never changes, since the vector is immutable.</p>
+     *
+     * @return read-only list view
+     */
+    public List<E> asList() {
+        return new ListView<>(this);
+    }
+
+    private static void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + bound);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> Node<E> build(Object[] array, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int mid = (from + to) >>> 1;
+        return new Node<>((E) array[mid], build(array, from, mid), build(array, mid + 1, to));
+    }
+
+    private static <E> Node<E> set(Node<E> node, int index, E value) {
+        int leftSize = size(node.left);
+        if (index < leftSize) {
+            return new Node<>(node.value, set(node.left, index, value), node.right);
+        }
+        if (index > leftSize) {
+            return new Node<>(node.value, node.left, set(node.right, index - leftSize - 1, value));
+        }
+        return new Node<>(value, node.left, node.right);
+    }
+
+    private static <E> Node<E> insert(Node<E> node, int index, E value) {
+        if (node == null) {
+            return new Node<>(value, null, null);
+        }
+        int leftSize = size(node.left);
+        if (index <= leftSize) {
+            return balance(node.value, insert(node.left, index, value), node.right);
+        }
+        return balance(node.value, node.left, insert(node.right, index - leftSize - 1, value));
+    }
+
+    private static <E> Node<E> remove(Node<E> node, int index) {
+        int leftSize = size(node.left);
+        if (index < leftSize) {
+            return balance(node.value, remove(node.left, index), node.right);
+        }
+        if (index > leftSize) {
+            return balance(node.value, node.left, remove(node.right, index - leftSize - 1));
+        }
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+        Node<E> successor = node.right;
+        while (successor.left != null) {
+            successor = successor.left;
+        }
+        return balance(successor.value, node.left, remove(node.right, 0));
+    }
+
+    /** Restores the AVL invariant for a node whose subtrees differ in height by at most 2. */
+    private static <E> Node<E> balance(E value, Node<E> left, Node<E> right) {
+        int diff = height(left) - height(right);
+        if (diff > 1) {
+            if (height(left.left) >= height(left.right)) {
+                return new Node<>(left.value, left.left, new Node<>(value, left.right, right));
+            }
+            Node<E> pivot = left.right;
+            return new Node<>(pivot.value,
+                    new Node<>(left.value, left.left, pivot.left),
+                    new Node<>(value, pivot.right, right));
+        }
+        if (diff < -1) {
+            if (height(right.right) >= height(right.left)) {
+                return new Node<>(right.value, new Node<>(value, left, right.left), right.right);
+            }
+            Node<E> pivot = right.left;
+            return new Node<>(pivot.value,
+                    new Node<>(value, left, pivot.left),
+                    new Node<>(right.value, pivot.right, right.right));
+        }
+        return new Node<>(value, left, right);
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static int height(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static final class Node<E> {
+        private final E value;
+        private final Node<E> left;
+        private final Node<E> right;
+        private final int size;
+        private final int height;
+
+        Node(E value, Node<E> left, Node<E> right) {
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.size = size(left) + size(right) + 1;
+            this.height = Math.max(height(left), height(right)) + 1;
+        }
+    }
+
+    private static final class InOrderIterator<E> implements Iterator<E> {
+        private final Deque<Node<E>> stack = new ArrayDeque<>();
+
+        InOrderIterator(Node<E> root) {
+            pushLeft(root);
+        }
+
+        private void pushLeft(Node<E> node) {
+            while (node != null) {
+                stack.push(node);
+                node = node.left;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        @Override
+        public E next() {
+            if (stack.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            Node<E> node = stack.pop();
+            pushLeft(node.right);
+            return node.value;
+        }
+    }
+
+    private static final class ListView<E> extends AbstractList<E> {
+        private final PersistentVector<E> vector;
+
+        ListView(PersistentVector<E> vector) {
+            this.vector = vector;
+        }
+
+        @Override
+        public E get(int index) {
+            return vector.get(index);
+        }
+
+        @Override
+        public int size() {
+            return vector.size();
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return vector.iterator();
+        }
+    }
+}
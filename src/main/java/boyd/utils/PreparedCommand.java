@@ -0,0 +1,234 @@
+package boyd.utils;
+
+import boyd.tasks.Task;
+
+/**
+ * A command line whose parsing work has been done ahead of execution.
+ *
+ * <p>Produced by {@link Parser#prepare(String)} without reading or mutating any
+ * {@link TaskList}, so preparation can run on any thread, in parallel with other
+ * commands. Executed later by {@link Parser#handle(PreparedCommand, TaskList)}.</p>
+ *
+ * <p>The line is tokenized in a single pass over its characters: the keyword, the
+ * arguments, a trailing {@code @v<version>}, and the positions of the {@code /by},
+ * {@code /from} and {@code /to} markers are all found at once, so handlers never
+ * re-split the line. A marker only counts as one when it is a whole word that is
+ * neither the first nor the last word of the arguments, and {@code /to} only counts
+ * after {@code /from}.</p>
+ */
+public final class PreparedCommand {
+
+    /** Input with surrounding whitespace removed. */
+    final String trimmed;
+
+    /** First word of the input, as typed. */
+    final String keyword;
+
+    /** Everything after the keyword and the whitespace following it; empty if none. */
+    final String arguments;
+
+    /** {@link #arguments} without a trailing {@code @v<version>}; equal to it if there is none. */
+    final String argumentsBeforeVersion;
+
+    /** Version from a trailing {@code @v<version>}, else {@link TaskList#ANY_VERSION}. */
+    final long expectedVersion;
+
+    /** Start of the {@code /by}, {@code /from} and {@code /to} markers in {@link #arguments}, or -1. */
+    final int byIndex;
+    final int fromIndex;
+    final int toIndex;
+
+    /** Handler registered for {@link #keyword}, or {@code null} if the keyword is unknown. */
+    CommandHandler handler;
+
+    /** Task built ahead of time by {@link CommandHandler#parseTask(PreparedCommand)}, else {@code null}. */
+    Task task;
+
+    /** Why the command could not be parsed or read ahead of time, else {@code null}. */
+    RuntimeException error;
+
+    /** Whether {@link CommandHandler#readAhead(PreparedCommand, TaskList)} has run. */
+    boolean isReadAhead;
+
+    /** Result of {@link CommandHandler#readAhead(PreparedCommand, TaskList)}, else {@code null}. */
+    Object readAhead;
+
+    private PreparedCommand(String trimmed, String keyword, String arguments, String argumentsBeforeVersion,
+            long expectedVersion, int byIndex, int fromIndex, int toIndex) {
+        this.trimmed = trimmed;
+        this.keyword = keyword;
+        this.arguments = arguments;
+        this.argumentsBeforeVersion = argumentsBeforeVersion;
+        this.expectedVersion = expectedVersion;
+        this.byIndex = byIndex;
+        this.fromIndex = fromIndex;
+        this.toIndex = toIndex;
+    }
+
+    /**
+     * Tokenizes a line of input.
+     *
+     * @param input raw user input (non-null)
+     * @return the tokenized command, without handler or task
+     */
+    static PreparedCommand tokenize(String input) {
+        assert input != null : "input must be non-null";
+        // Same bounds as String.trim().
+        int start = 0;
+        int end = input.length();
+        while (start < end && input.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && input.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        String trimmed = input.substring(start, end);
+        int n = trimmed.length();
+
+        int keywordEnd = 0;
+        while (keywordEnd < n && !isSpace(trimmed.charAt(keywordEnd))) {
+            keywordEnd++;
+        }
+        int argsStart = keywordEnd;
+        while (argsStart < n && isSpace(trimmed.charAt(argsStart))) {
+            argsStart++;
+        }
+
+        int byIndex = -1;
+        int fromIndex = -1;
+        int fromWord = -1;
+        int toIndex = -1;
+        int lastWordStart = argsStart;
+        int lastWordEnd = argsStart;
+        int word = 0;
+        int i = argsStart;
+        while (i < n) {
+            int wordStart = i;
+            while (i < n && !isSpace(trimmed.charAt(i))) {
+                i++;
+            }
+            int wordEnd = i;
+            while (i < n && isSpace(trimmed.charAt(i))) {
+                i++;
+            }
+            boolean isInner = word > 0 && wordEnd < n;
+            if (isInner && trimmed.charAt(wordStart) == '/') {
+                if (byIndex < 0 && isWord(trimmed, wordStart, wordEnd, "/by")) {
+                    byIndex = wordStart - argsStart;
+                } else if (fromIndex < 0 && isWord(trimmed, wordStart, wordEnd, "/from")) {
+                    fromIndex = wordStart - argsStart;
+                    fromWord = word;
+                } else if (toIndex < 0 && fromWord >= 0 && word >= fromWord + 2
+                        && isWord(trimmed, wordStart, wordEnd, "/to")) {
+                    toIndex = wordStart - argsStart;
+                }
+            }
+            lastWordStart = wordStart;
+            lastWordEnd = wordEnd;
+            word++;
+        }
+
+        String arguments = trimmed.substring(argsStart);
+        String argumentsBeforeVersion = arguments;
+        long expectedVersion = parseVersionWord(trimmed, lastWordStart, lastWordEnd);
+        if (expectedVersion != TaskList.ANY_VERSION) {
+            int beforeEnd = lastWordStart;
+            while (beforeEnd > argsStart && isSpace(trimmed.charAt(beforeEnd - 1))) {
+                beforeEnd--;
+            }
+            argumentsBeforeVersion = trimmed.substring(argsStart, beforeEnd);
+        }
+        return new PreparedCommand(trimmed, trimmed.substring(0, keywordEnd), arguments, argumentsBeforeVersion,
+                expectedVersion, byIndex, fromIndex, toIndex);
+    }
+
+    /** Returns the version in a word of the form {@code @v<1-18 digits>}, else {@link TaskList#ANY_VERSION}. */
+    private static long parseVersionWord(String s, int start, int end) {
+        int digits = end - start - 2;
+        if (digits < 1 || digits > 18 || s.charAt(start) != '@' || s.charAt(start + 1) != 'v') {
+            return TaskList.ANY_VERSION;
+        }
+        long version = 0;
+        for (int i = start + 2; i < end; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return TaskList.ANY_VERSION;
+            }
+            version = version * 10 + (c - '0');
+        }
+        return version;
+    }
+
+    private static boolean isWord(String s, int start, int end, String word) {
+        return end - start == word.length() && s.startsWith(word, start);
+    }
+
+    /** Matches the regex class {@code \s}, which the command syntax has always split on. */
+    static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    }
+
+    /**
+     * Returns the command text with surrounding whitespace removed.
+     *
+     * @return trimmed input
+     */
+    public String getInput() {
+        return trimmed;
+    }
+
+    /**
+     * Returns the first word of the command, as typed (e.g. {@code "Delete"}).
+     *
+     * @return command keyword; empty for empty input
+     */
+    public String getKeyword() {
+        return keyword;
+    }
+
+    /**
+     * Returns the text after the keyword, e.g. {@code "3 @v42"} for {@code "delete 3 @v42"}.
+     *
+     * @return arguments; empty if there are none
+     */
+    public String getArguments() {
+        return arguments;
+    }
+
+    /**
+     * Returns the arguments without a trailing expected version,
+     * e.g. {@code "3"} for {@code "delete 3 @v42"}.
+     *
+     * @return arguments before the version; equal to {@link #getArguments()} if there is none
+     */
+    public String getArgumentsBeforeVersion() {
+        return argumentsBeforeVersion;
+    }
+
+    /**
+     * Returns the version given as a trailing {@code @v<version>}.
+     *
+     * @return expected version, or {@link TaskList#ANY_VERSION} if none was given
+     */
+    public long getExpectedVersion() {
+        return expectedVersion;
+    }
+
+    /**
+     * Returns the task the command's handler built ahead of time, if any.
+     *
+     * @return prepared task, or {@code null}
+     */
+    public Task getTask() {
+        return task;
+    }
+
+    /**
+     * Returns what the command's handler read ahead of time, if anything.
+     *
+     * @return result of {@link CommandHandler#readAhead(PreparedCommand, TaskList)}, or {@code null}
+     */
+    public Object getReadAhead() {
+        return readAhead;
+    }
+}
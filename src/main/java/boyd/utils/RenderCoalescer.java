@@ -0,0 +1,88 @@
+package boyd.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Collects items to show from any thread and hands them to the UI thread in batches.
+ *
+ * <p>The first item submitted after a batch schedules one render on the UI executor
+ * (typically {@code Platform::runLater}); every item submitted before that render runs
+ * joins its batch. A burst of responses therefore costs the view one update and one
+ * layout pass rather than one per item, however fast the items arrive, while a lone
+ * item is still shown on the next turn of the UI thread. Items are rendered in
+ * submission order.</p>
+ *
+ * @param <T> type of the items rendered
+ */
+public class RenderCoalescer<T> implements AutoCloseable {
+
+    private final Executor uiExecutor;
+    private final Consumer<List<T>> render;
+    private final Queue<T> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean isRenderScheduled = new AtomicBoolean();
+
+    private volatile boolean isClosed = false;
+
+    /**
+     * Creates a coalescer rendering through the given executor.
+     *
+     * @param uiExecutor runs tasks on the UI thread, in submission order
+     * @param render shows one batch of items, oldest first; runs on the UI executor
+     * @throws IllegalArgumentException if either argument is {@code null}
+     */
+    public RenderCoalescer(Executor uiExecutor, Consumer<List<T>> render) {
+        if (uiExecutor == null || render == null) {
+            throw new IllegalArgumentException("uiExecutor and render must be non-null");
+        }
+        this.uiExecutor = uiExecutor;
+        this.render = render;
+    }
+
+    /**
+     * Queues an item to be rendered with the next batch. May be called from any thread.
+     *
+     * @param item item to render
+     * @throws IllegalArgumentException if {@code item} is {@code null}
+     */
+    public void submit(T item) {
+        if (item == null) {
+            throw new IllegalArgumentException("item must be non-null");
+        }
+        if (isClosed) {
+            return;
+        }
+        pending.add(item);
+        if (isRenderScheduled.compareAndSet(false, true)) {
+            uiExecutor.execute(this::renderPending);
+        }
+    }
+
+    /**
+     * Stops rendering. Items not yet rendered are dropped.
+     */
+    @Override
+    public void close() {
+        isClosed = true;
+        pending.clear();
+    }
+
+    /** Renders everything queued so far as one batch. */
+    private void renderPending() {
+        // Clear the flag first: an item arriving while this batch renders schedules the next one.
+        isRenderScheduled.set(false);
+        List<T> batch = new ArrayList<>();
+        T item;
+        while ((item = pending.poll()) != null) {
+            batch.add(item);
+        }
+        if (!isClosed && !batch.isEmpty()) {
+            render.accept(batch);
+        }
+    }
+}
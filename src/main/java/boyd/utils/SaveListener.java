@@ -0,0 +1,29 @@
+package boyd.utils;
+
+/**
+ * Receives the timing of a {@link TaskList}'s changes and saves, e.g. to record them in
+ * {@link CommandMetrics}. Set with {@link TaskList#setSaveListener(SaveListener)}.
+ *
+ * <p>Both methods are called synchronously by the writing thread while it holds the
+ * list's write lock, so they must be quick and must not touch the list.</p>
+ */
+public interface SaveListener {
+
+    /**
+     * Called once a change has been applied, right before it is saved or its save is
+     * deferred to the end of a {@link TaskList#batch(Runnable)}; also called before the
+     * save of {@link TaskList#flush()} and {@link TaskList#seal()}. The list does not read
+     * the clock for this, so a listener that only times some changes pays only for those.
+     */
+    void onChanged();
+
+    /**
+     * Called after each attempt to write the list to its {@link Storage}.
+     *
+     * @param start {@link System#nanoTime()} when the save started
+     * @param end {@link System#nanoTime()} when it ended
+     * @param isError whether the save failed
+     * @param isEndOfBatch whether the save was deferred to the end of a {@link TaskList#batch(Runnable)}
+     */
+    void onSaved(long start, long end, boolean isError, boolean isEndOfBatch);
+}
@@ -2,11 +2,20 @@ package boyd.utils;
 
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
+import java.util.function.DoubleConsumer;
 
 import boyd.tasks.Deadline;
 import boyd.tasks.Event;
@@ -16,7 +25,8 @@ import boyd.tasks.ToDo;
 /**
  * Persists and restores {@link Task} data from a simple line-based text file.
  *
- * <p><strong>File location:</strong> {@code ./data/boyd.txt}</p>
+ * <p><strong>File location:</strong> given at construction; defaults to
+ * {@value #DEFAULT_FILE_PATH}. {@link #save(List)} always writes to that path.</p>
  *
  * <p><strong>File format (one task per line):</strong></p>
  * <pre>
@@ -27,10 +37,101 @@ import boyd.tasks.ToDo;
  * where {@code <done>} is {@code 0} (not done) or {@code 1} (done).
  *
  * <p><strong>Notes:</strong> whitespace around {@code |} is ignored; the save
- * operation overwrites the file.</p>
+ * operation overwrites the file. The file is read and written as UTF-8.</p>
+ *
+ * <p>The storage remembers a hash of each non-blank line it last read from or wrote
+ * to its file, so a {@link DataFileWatcher} can tell which lines another program
+ * changed.</p>
+ *
+ * <p>Each load and save emits a {@code boyd.StorageLoad} or {@code boyd.StorageSave}
+ * Flight Recorder event with its size and duration.</p>
  */
 public class Storage {
 
+    /** Save file used when no path is given. */
+    public static final String DEFAULT_FILE_PATH = "./data/boyd.txt";
+
+    /** Encoding of the save file. */
+    static final Charset CHARSET = StandardCharsets.UTF_8;
+
+    /** Characters gathered before {@link #save(List)} encodes them and writes them out. */
+    private static final int SAVE_BLOCK_CHARS = 32 * 1024;
+
+    /** Size of the buffer {@link #save(List)} writes through; fits a full block of any text. */
+    private static final int SAVE_BLOCK_BYTES = 128 * 1024;
+
+    /** Lines read between two progress reports of {@link #load(DoubleConsumer)}. */
+    private static final int PROGRESS_LINES = 4096;
+
+    private final String filePath;
+
+    /** Hashes of the non-blank lines last loaded from or saved to {@link #filePath}. */
+    private volatile long[] knownLineHashes = new long[0];
+
+    /** Buffers reused by every {@link #save(List)}; guarded by {@code this}. */
+    private final StringBuilder saveChars = new StringBuilder(SAVE_BLOCK_CHARS);
+    private char[] saveCharArray;
+    private ByteBuffer saveBytes;
+    private final CharsetEncoder saveEncoder = CHARSET.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    /**
+     * Creates a storage backed by {@value #DEFAULT_FILE_PATH}.
+     */
+    public Storage() {
+        this(DEFAULT_FILE_PATH);
+    }
+
+    /**
+     * Creates a storage backed by the given file.
+     *
+     * @param filePath path to the save file (e.g., {@code ./data/boyd.txt})
+     * @throws IllegalArgumentException if {@code filePath} is {@code null} or blank
+     */
+    public Storage(String filePath) {
+        if (filePath == null || filePath.isBlank()) {
+            throw new IllegalArgumentException("filePath must be non-null and non-blank");
+        }
+        this.filePath = filePath;
+    }
+
+    /**
+     * Returns the path this storage saves to.
+     *
+     * @return save file path
+     */
+    public String getFilePath() {
+        return filePath;
+    }
+
+    /**
+     * Reads tasks from this storage's own file.
+     *
+     * @return list of tasks reconstructed from the file; never {@code null}
+     * @see #load(String)
+     */
+    public List<Task> load() {
+        return load(filePath, progress -> { });
+    }
+
+    /**
+     * Reads tasks from this storage's own file, reporting progress along the way.
+     *
+     * @param onProgress receives the fraction of the file read so far, from {@code 0} to
+     *         {@code 1}, every few thousand lines and once more at the end; called on the
+     *         loading thread
+     * @return list of tasks reconstructed from the file; never {@code null}
+     * @throws IllegalArgumentException if {@code onProgress} is {@code null}
+     * @see #load(String)
+     */
+    public List<Task> load(DoubleConsumer onProgress) {
+        if (onProgress == null) {
+            throw new IllegalArgumentException("onProgress must be non-null");
+        }
+        return load(filePath, onProgress);
+    }
+
     /**
      * Reads tasks from the given file path.
      *
@@ -45,24 +146,45 @@ public class Storage {
         if (filePath == null || filePath.isBlank()) {
             throw new IllegalArgumentException("filePath must be non-null and non-blank");
         }
+        return load(filePath, progress -> { });
+    }
 
+    private List<Task> load(String filePath, DoubleConsumer onProgress) {
         List<Task> taskList = new ArrayList<>();
+        List<String> lines = new ArrayList<>();
         File file = new File(filePath);
 
+        StorageLoadEvent event = new StorageLoadEvent();
+        event.begin();
         if (!file.exists()) {
+            rememberIfOwn(filePath, lines);
+            onProgress.accept(1.0);
+            commitLoadEvent(event, filePath, 0, 0, 0);
             return taskList;
         }
 
-        try (Scanner scanner = new Scanner(file)) {
+        // Characters stand in for bytes: exact for ASCII, and close enough to show progress.
+        double length = Math.max(1, file.length());
+        long charsRead = 0;
+        int linesRead = 0;
+        try (Scanner scanner = new Scanner(file, CHARSET.name())) {
             while (scanner.hasNextLine()) {
                 String line = scanner.nextLine();
+                charsRead += line.length() + 1;
+                if (++linesRead % PROGRESS_LINES == 0) {
+                    onProgress.accept(Math.min(1.0, charsRead / length));
+                }
                 if (line.isBlank()) {
                     continue;
                 }
-                Task task = dataStringToTask(line);
+                Task task = fromDataString(line);
                 assert task != null : "Parser must not return null";
                 taskList.add(task);
+                lines.add(line);
             }
+            rememberIfOwn(filePath, lines);
+            onProgress.accept(1.0);
+            commitLoadEvent(event, filePath, file.length(), linesRead, taskList.size());
         } catch (FileNotFoundException e) {
             // Unlikely given exists() check, but environment could race
             throw new RuntimeException("File disappeared during load: " + filePath, e);
@@ -76,14 +198,19 @@ public class Storage {
     }
 
     /**
-     * Saves all tasks to {@code ./data/boyd.txt}, creating the {@code ./data} folder
+     * Saves all tasks to this storage's file, creating its parent folder
      * if needed. Each task is written via {@link Task#toDataString()} followed by
      * the platform line separator. The file is <em>overwritten</em> on each call.
      *
+     * <p>Tasks append their records straight into one reusable character buffer
+     * ({@link Task#appendDataTo(StringBuilder)}), which is encoded into a reusable byte
+     * buffer and written through a {@link FileChannel} a block at a time, so saving
+     * builds no string per task and makes few system calls.</p>
+     *
      * @param tasks tasks to persist (order preserved)
      * @throws IllegalArgumentException if {@code tasks} is {@code null} or contains {@code null}
      */
-    public void save(List<? extends Task> tasks) {
+    public synchronized void save(List<? extends Task> tasks) {
         if (tasks == null) {
             throw new IllegalArgumentException("tasks must not be null");
         }
@@ -93,7 +220,7 @@ public class Storage {
             }
         }
 
-        File saveFile = new File("./data/boyd.txt");
+        File saveFile = new File(filePath);
         File dir = saveFile.getParentFile();
 
         try {
@@ -101,16 +228,44 @@ public class Storage {
                 throw new IOException("Could not create data directory: " + dir);
             }
 
-            try (FileWriter writer = new FileWriter(saveFile, false)) {
+            long[] hashes = new long[tasks.size()];
+            if (saveBytes == null) {
+                saveCharArray = new char[SAVE_BLOCK_CHARS];
+                saveBytes = ByteBuffer.allocate(SAVE_BLOCK_BYTES);
+            }
+            StringBuilder chars = saveChars;
+            chars.setLength(0);
+            saveEncoder.reset();
+            StorageSaveEvent event = new StorageSaveEvent();
+            event.begin();
+            long bytes = 0;
+            long closeStart;
+            try (FileChannel channel = FileChannel.open(saveFile.toPath(), StandardOpenOption.WRITE,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                int i = 0;
                 for (Task t : tasks) {
-                    String line = t.toDataString();
+                    int start = chars.length();
+                    t.appendDataTo(chars);
                     // Internal invariant: serialization must be non-blank
-                    assert line != null && !line.isBlank()
-                            : "Task.toDataString() must return non-blank content";
-                    writer.write(line);
-                    writer.write(System.lineSeparator());
+                    assert !chars.substring(start).isBlank() : "Task.toDataString() must return non-blank content";
+                    hashes[i++] = lineHash(chars, start, chars.length());
+                    chars.append(System.lineSeparator());
+                    if (chars.length() >= SAVE_BLOCK_CHARS) {
+                        bytes += writeBlock(channel, chars, false);
+                    }
                 }
+                bytes += writeBlock(channel, chars, true);
+                closeStart = System.nanoTime();
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.path = filePath;
+                event.tasks = tasks.size();
+                event.bytes = bytes;
+                event.closeTime = System.nanoTime() - closeStart;
+                event.commit();
             }
+            knownLineHashes = hashes;
             assert saveFile.exists() : "Save file should exist after save()";
         } catch (IOException e) {
             // Caller can decide how to surface this (UI/log); keep message specific
@@ -119,7 +274,103 @@ public class Storage {
     }
 
     /**
-     * Parses one stored line into a {@link Task}.
+     * Encodes {@code chars} (whole lines) into {@link #saveBytes}, writes them out and clears {@code chars}.
+     * Returns the number of bytes written.
+     */
+    private long writeBlock(FileChannel channel, StringBuilder chars, boolean isLast) throws IOException {
+        // The encoder's fast path needs array-backed buffers on both sides.
+        if (saveCharArray.length < chars.length()) {
+            saveCharArray = new char[chars.length()];
+        }
+        chars.getChars(0, chars.length(), saveCharArray, 0);
+        CharBuffer in = CharBuffer.wrap(saveCharArray, 0, chars.length());
+        CoderResult result;
+        long written = 0;
+        do {
+            result = saveEncoder.encode(in, saveBytes, isLast);
+            assert !result.isError() : "malformed input is replaced, never reported";
+            written += drain(channel, saveBytes);
+        } while (result.isOverflow());
+        if (isLast) {
+            while (saveEncoder.flush(saveBytes).isOverflow()) {
+                written += drain(channel, saveBytes);
+            }
+            written += drain(channel, saveBytes);
+        }
+        chars.setLength(0);
+        return written;
+    }
+
+    private static int drain(FileChannel channel, ByteBuffer bytes) throws IOException {
+        bytes.flip();
+        int written = bytes.remaining();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+        return written;
+    }
+
+    private static void commitLoadEvent(StorageLoadEvent event, String filePath, long bytes, int lines, int tasks) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.path = filePath;
+            event.bytes = bytes;
+            event.lines = lines;
+            event.tasks = tasks;
+            event.commit();
+        }
+    }
+
+    /**
+     * Returns hashes of the non-blank lines this storage last loaded from or saved to
+     * its file, in file order. The array must not be modified.
+     */
+    long[] getKnownLineHashes() {
+        return knownLineHashes;
+    }
+
+    /**
+     * Records the given non-blank file lines as the last known file content, e.g. after
+     * changes made by another program have been applied to the task list.
+     */
+    void setKnownLines(List<String> lines) {
+        long[] hashes = new long[lines.size()];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = lineHash(lines.get(i));
+        }
+        knownLineHashes = hashes;
+    }
+
+    private void rememberIfOwn(String loadedPath, List<String> lines) {
+        if (loadedPath.equals(filePath)) {
+            setKnownLines(lines);
+        }
+    }
+
+    /**
+     * Returns a 64-bit FNV-1a hash of a line, wide enough that two different lines
+     * are practically never mistaken for one another.
+     *
+     * @param line file line
+     * @return hash of {@code line}
+     */
+    static long lineHash(String line) {
+        return lineHash(line, 0, line.length());
+    }
+
+    /** Returns {@link #lineHash(String)} of {@code chars.subSequence(start, end)}, without copying it. */
+    static long lineHash(CharSequence chars, int start, int end) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = start; i < end; i++) {
+            hash ^= chars.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Parses one stored line into a {@link Task}; the inverse of {@link Task#toDataString()}.
      *
      * <p>Throws {@link RuntimeException} for malformed external data. Uses assertions
      * for parser invariants.</p>
@@ -128,7 +379,7 @@ public class Storage {
      * @return a reconstructed {@link Task}
      * @throws RuntimeException if the line is malformed
      */
-    private Task dataStringToTask(String line) {
+    public static Task fromDataString(String line) {
         if (line == null || line.isBlank()) {
             throw new RuntimeException("Empty line in save file");
         }
@@ -162,7 +413,7 @@ public class Storage {
         return task;
     }
 
-    private Task createTaskFromParts(String type, String desc, String[] parts, String rawLine) {
+    private static Task createTaskFromParts(String type, String desc, String[] parts, String rawLine) {
         switch (type) {
         case "T":
             return new ToDo(desc);
@@ -175,31 +426,71 @@ public class Storage {
         }
     }
 
-    private Task createDeadline(String desc, String[] parts, String rawLine) {
+    private static Task createDeadline(String desc, String[] parts, String rawLine) {
         if (parts.length < 4) {
             throw new RuntimeException("Deadline missing due date: " + rawLine);
         }
-        String[] dateTime = parts[3].trim().split("\\s+", 2);
-        String date = dateTime[0];
-        String time = (dateTime.length == 2) ? dateTime[1] : "00:00";
+        // Same split as "\\s+" with a limit of 2, without the regex: date, then optional time.
+        String due = parts[3].trim();
+        int dateEnd = 0;
+        while (dateEnd < due.length() && !PreparedCommand.isSpace(due.charAt(dateEnd))) {
+            dateEnd++;
+        }
+        int timeStart = dateEnd;
+        while (timeStart < due.length() && PreparedCommand.isSpace(due.charAt(timeStart))) {
+            timeStart++;
+        }
+        String date = due.substring(0, dateEnd);
+        String time = timeStart < due.length() ? due.substring(timeStart) : "00:00";
         assert !date.isBlank() && !time.isBlank() : "Deadline date/time tokens must be non-blank";
         return new Deadline(desc, date, time);
     }
 
-    private Task createEvent(String desc, String[] parts, String rawLine) {
+    private static Task createEvent(String desc, String[] parts, String rawLine) {
         if (parts.length < 4) {
             throw new RuntimeException("Event missing start/end: " + rawLine);
         }
-        String[] range = parts[3].trim().split("\\s+-\\s+", 2);
-        if (range.length < 2) {
+        String range = parts[3].trim();
+        int separator = findRangeSeparator(range);
+        if (separator < 0) {
             throw new RuntimeException("Event start/end should be 'from - to': " + rawLine);
         }
-        String from = range[0].trim();
-        String to = range[1].trim();
+        int toStart = separator;
+        while (PreparedCommand.isSpace(range.charAt(toStart))) {
+            toStart++;
+        }
+        toStart++;
+        while (toStart < range.length() && PreparedCommand.isSpace(range.charAt(toStart))) {
+            toStart++;
+        }
+        String from = range.substring(0, separator).trim();
+        String to = range.substring(toStart).trim();
         assert !from.isBlank() && !to.isBlank() : "Event 'from' and 'to' tokens must be non-blank";
         return new Event(desc, from, to);
     }
 
+    /**
+     * Returns where the first match of {@code \s+-\s+} starts in {@code range}, or -1;
+     * the regex split this replaces.
+     */
+    private static int findRangeSeparator(String range) {
+        int i = 0;
+        while (i < range.length()) {
+            if (!PreparedCommand.isSpace(range.charAt(i))) {
+                i++;
+                continue;
+            }
+            int runStart = i;
+            while (i < range.length() && PreparedCommand.isSpace(range.charAt(i))) {
+                i++;
+            }
+            if (i + 1 < range.length() && range.charAt(i) == '-' && PreparedCommand.isSpace(range.charAt(i + 1))) {
+                return runStart;
+            }
+        }
+        return -1;
+    }
+
     /**
      * Parses the done flag from the file format.
      *
@@ -207,7 +498,7 @@ public class Storage {
      * @return {@code true} if is done, {@code false} if not done
      * @throws RuntimeException if the flag is not {@code "0"} or {@code "1"}
      */
-    private boolean parseDone(String s) {
+    private static boolean parseDone(String s) {
         assert s != null : "parseDone must be called with a non-null token";
         String v = s.trim();
         if (v.equals("1")) {
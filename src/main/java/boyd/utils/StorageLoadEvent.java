@@ -0,0 +1,32 @@
+package boyd.utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one {@link Storage#load()}, from opening the save file to
+ * the last task parsed.
+ */
+@Name("boyd.StorageLoad")
+@Label("Storage Load")
+@Category("Boyd")
+@Description("The save file read and parsed into tasks")
+@StackTrace(false)
+final class StorageLoadEvent extends jdk.jfr.Event {
+    @Label("Path")
+    String path;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Lines")
+    int lines;
+
+    @Label("Tasks")
+    int tasks;
+}
@@ -0,0 +1,35 @@
+package boyd.utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event for one {@link Storage#save(java.util.List)}, from opening the
+ * save file to closing it.
+ */
+@Name("boyd.StorageSave")
+@Label("Storage Save")
+@Category("Boyd")
+@Description("The task list written to the save file")
+@StackTrace(false)
+final class StorageSaveEvent extends jdk.jfr.Event {
+    @Label("Path")
+    String path;
+
+    @Label("Tasks Written")
+    int tasks;
+
+    @Label("Bytes Written")
+    @DataAmount
+    long bytes;
+
+    @Label("Close Time")
+    @Description("Time spent closing the file, where the OS may block on writing back; saves do not fsync")
+    @Timespan(Timespan.NANOSECONDS)
+    long closeTime;
+}
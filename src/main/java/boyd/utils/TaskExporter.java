@@ -0,0 +1,248 @@
+package boyd.utils;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import boyd.tasks.DateTimes;
+import boyd.tasks.Deadline;
+import boyd.tasks.Event;
+import boyd.tasks.Task;
+
+/**
+ * Writes the tasks of a {@link TaskList.Snapshot} to a file as CSV or JSON, for other
+ * programs to read.
+ *
+ * <p>Every task becomes one record with typed fields: {@code type} ({@code todo},
+ * {@code deadline} or {@code event}), {@code done} ({@code true}/{@code false}),
+ * {@code description}, and the ISO-8601 datetimes {@code by} (deadlines) or
+ * {@code from} and {@code to} (events), e.g. {@code 2019-12-02T18:00}.</p>
+ * <ul>
+ *   <li>CSV follows RFC 4180: a header row, CRLF line endings, and fields quoted only
+ *       when they contain a comma, quote or line break. Fields a task does not have
+ *       are empty.</li>
+ *   <li>JSON is an array with one object per line; fields a task does not have are
+ *       left out.</li>
+ * </ul>
+ *
+ * <p>Records are rendered into one reusable buffer and written out whenever it holds
+ * {@value #BLOCK_CHARS} characters, so memory use does not grow with the list. Since a
+ * snapshot never changes, the list can be edited while a long export runs, and the
+ * file still shows a single version. Files are UTF-8.</p>
+ *
+ * <p>The records are written to a temporary file next to the destination, which is
+ * moved into place only once complete, so a failed export leaves any earlier file
+ * untouched rather than truncated.</p>
+ */
+public final class TaskExporter {
+
+    /** Output format of an export. */
+    public enum Format {
+        CSV, JSON
+    }
+
+    /**
+     * Directory, next to the save file, that the {@code export} command writes to; see
+     * {@link TaskList#getDataDirectory()}.
+     */
+    public static final String DIRECTORY_NAME = "exports";
+
+    /** Characters rendered before they are written out. */
+    static final int BLOCK_CHARS = 32 * 1024;
+
+    private static final String CSV_HEADER = "type,done,description,by,from,to";
+    private static final String CSV_LINE_END = "\r\n";
+
+    private TaskExporter() {
+        // Utility class; do not instantiate.
+    }
+
+    /**
+     * Writes the tasks of {@code snapshot} that match {@code keyword} to {@code file},
+     * replacing anything already there once every task has been written.
+     *
+     * @param snapshot tasks to export
+     * @param format output format
+     * @param file destination file; missing parent directories are not created
+     * @param keyword case-insensitive filter, as for {@code find}; {@code null} or blank exports every task
+     * @return number of tasks written
+     * @throws IllegalArgumentException if {@code snapshot}, {@code format} or {@code file} is {@code null}
+     * @throws IOException if the file cannot be written
+     */
+    public static int export(TaskList.Snapshot snapshot, Format format, Path file, String keyword)
+            throws IOException {
+        if (snapshot == null || format == null || file == null) {
+            throw new IllegalArgumentException("snapshot, format and file must be non-null");
+        }
+        String needle = keyword == null || keyword.isBlank() ? null : keyword.trim().toLowerCase();
+        Path absolute = file.toAbsolutePath();
+        Path temp = Files.createTempFile(absolute.getParent(), "." + absolute.getFileName(), ".tmp");
+        try {
+            int count;
+            try (Writer out = new OutputStreamWriter(Files.newOutputStream(temp), Storage.CHARSET)) {
+                count = writeTasks(snapshot.getTasks(), format, needle, out);
+            }
+            moveIntoPlace(temp, absolute);
+            return count;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /** Renders the tasks matching {@code needle} (all if {@code null}) to {@code out}; returns how many. */
+    private static int writeTasks(List<Task> tasks, Format format, String needle, Writer out) throws IOException {
+        StringBuilder block = new StringBuilder(BLOCK_CHARS + 256);
+        char[] chars = new char[BLOCK_CHARS + 256];
+        int count = 0;
+        block.append(format == Format.CSV ? CSV_HEADER + CSV_LINE_END : "[");
+        for (Task task : tasks) {
+            if (needle != null && !TaskList.Snapshot.matches(task, needle)) {
+                continue;
+            }
+            if (format == Format.CSV) {
+                appendCsv(task, block);
+            } else {
+                block.append(count == 0 ? "\n" : ",\n");
+                appendJson(task, block);
+            }
+            count++;
+            if (block.length() >= BLOCK_CHARS) {
+                chars = write(block, chars, out);
+            }
+        }
+        if (format == Format.JSON) {
+            block.append(count == 0 ? "]\n" : "\n]\n");
+        }
+        write(block, chars, out);
+        return count;
+    }
+
+    private static void moveIntoPlace(Path temp, Path file) throws IOException {
+        try {
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /** Writes out and clears {@code block}; returns the copy buffer, grown if it was too small. */
+    private static char[] write(StringBuilder block, char[] chars, Writer out) throws IOException {
+        int length = block.length();
+        if (length > chars.length) {
+            chars = new char[length];
+        }
+        block.getChars(0, length, chars, 0);
+        out.write(chars, 0, length);
+        block.setLength(0);
+        return chars;
+    }
+
+    private static void appendCsv(Task task, StringBuilder out) {
+        out.append(typeOf(task)).append(',').append(task.isDone()).append(',');
+        appendCsvField(task.getDescription(), out);
+        out.append(',');
+        if (task instanceof Deadline) {
+            DateTimes.appendIso(((Deadline) task).getDateTime(), out);
+        }
+        out.append(',');
+        if (task instanceof Event) {
+            DateTimes.appendIso(((Event) task).getStartDateTime(), out);
+            out.append(',');
+            DateTimes.appendIso(((Event) task).getEndDateTime(), out);
+        } else {
+            out.append(',');
+        }
+        out.append(CSV_LINE_END);
+    }
+
+    private static void appendCsvField(String value, StringBuilder out) {
+        boolean isQuoted = false;
+        for (int i = 0; i < value.length() && !isQuoted; i++) {
+            char c = value.charAt(i);
+            isQuoted = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!isQuoted) {
+            out.append(value);
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        out.append('"');
+    }
+
+    private static void appendJson(Task task, StringBuilder out) {
+        out.append("{\"type\":\"").append(typeOf(task)).append("\",\"done\":").append(task.isDone())
+                .append(",\"description\":");
+        appendJsonString(task.getDescription(), out);
+        if (task instanceof Deadline) {
+            appendJsonDateTime("by", ((Deadline) task).getDateTime(), out);
+        } else if (task instanceof Event) {
+            appendJsonDateTime("from", ((Event) task).getStartDateTime(), out);
+            appendJsonDateTime("to", ((Event) task).getEndDateTime(), out);
+        }
+        out.append('}');
+    }
+
+    private static void appendJsonDateTime(String name, LocalDateTime dateTime, StringBuilder out) {
+        out.append(",\"").append(name).append("\":\"");
+        DateTimes.appendIso(dateTime, out);
+        out.append('"');
+    }
+
+    /**
+     * Appends {@code value} as a JSON string. Control characters and unpaired surrogates
+     * are written as Unicode escapes, so the output is valid UTF-8 JSON whatever the
+     * description holds.
+     */
+    private static void appendJsonString(String value, StringBuilder out) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c == '\n') {
+                out.append("\\n");
+            } else if (c == '\r') {
+                out.append("\\r");
+            } else if (c == '\t') {
+                out.append("\\t");
+            } else if (c < 0x20 || Character.isSurrogate(c) && !isPaired(value, i)) {
+                out.append("\\u");
+                for (int shift = 12; shift >= 0; shift -= 4) {
+                    out.append(Character.forDigit((c >> shift) & 0xF, 16));
+                }
+            } else {
+                out.append(c);
+            }
+        }
+        out.append('"');
+    }
+
+    /** Returns whether the surrogate at {@code i} is half of a valid pair. */
+    private static boolean isPaired(String s, int i) {
+        char c = s.charAt(i);
+        if (Character.isHighSurrogate(c)) {
+            return i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1));
+        }
+        return i > 0 && Character.isHighSurrogate(s.charAt(i - 1));
+    }
+
+    private static String typeOf(Task task) {
+        if (task instanceof Deadline) {
+            return "deadline";
+        }
+        return task instanceof Event ? "event" : "todo";
+    }
+}
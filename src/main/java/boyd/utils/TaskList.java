@@ -1,23 +1,182 @@
 package boyd.utils;
 
+import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import boyd.exceptions.BoydException;
+import boyd.exceptions.VersionConflictException;
 import boyd.tasks.Task;
 
 /**
- * Mutable, in-memory list of {@link Task} items with optional persistence.
+ * Versioned, in-memory list of {@link Task} items with optional persistence.
  * <p>
  * This class is UI-agnostic: it does not print or format messages. Mutating
  * operations (add, remove, mark) persist via {@link Storage} when available.
  * Indices for user-facing operations are <strong>1-based</strong>.
  * </p>
+ * <p>
+ * The tasks are held in a {@link PersistentVector}, so each mutation produces a
+ * new version in O(log n) while sharing structure with the previous one. A bounded
+ * number of past versions is kept to support {@link #undo()} and {@link #redo()}.
+ * Every change, including undo and redo, also bumps a list-wide version number
+ * ({@link #getVersion()}) and is reported to registered {@link TaskListListener}s.
+ * </p>
+ * <p>
+ * <strong>Optimistic writes:</strong> each task is stamped with the version at which
+ * it was added or last changed ({@link Task#getVersion()}), and the list remembers
+ * the version of its last change that moved tasks (a removal, an insertion before
+ * existing tasks, or a wholesale change such as undo). Positional mutations take
+ * an optional expected version: if the list's structure or the targeted task changed
+ * after that version, they fail with a {@link VersionConflictException} instead of
+ * acting on a position that may now hold a different task.
+ * </p>
+ * <p>
+ * <strong>Thread safety:</strong> instances may be shared between threads. Writers
+ * (mutations, undo, redo and the save that follows them) are serialized on an
+ * internal lock. Readers never lock: they read the current version from a
+ * {@code volatile} field and work on that immutable snapshot, so {@code list} and
+ * {@code find} always see a consistent state even while another thread is adding.
+ * </p>
  */
 public class TaskList {
-    private final List<Task> tasks;
+    /** Number of past versions kept for undo when no depth is given. */
+    public static final int DEFAULT_HISTORY_DEPTH = 50;
+
+    /** Expected version that matches any version, i.e. an unconditional write. */
+    public static final long ANY_VERSION = -1;
+
+    /** Current state; replaced (never mutated) by writers while holding {@link #writeLock}. */
+    private volatile State state;
+    private final Object writeLock = new Object();
+    private final Deque<PersistentVector<Task>> undoHistory = new ArrayDeque<>();
+    private final Deque<PersistentVector<Task>> redoHistory = new ArrayDeque<>();
+    private final int historyDepth;
     private final Storage storage; // may be null for in-memory only
 
+    /** Nesting depth of {@link #batch(Runnable)} calls; guarded by {@link #writeLock}. */
+    private int batchDepth = 0;
+    /** Whether a save was skipped inside the current batch; guarded by {@link #writeLock}. */
+    private boolean isSaveDeferred = false;
+    /** Whether {@link #seal()} has run; guarded by {@link #writeLock}. */
+    private boolean isSealed = false;
+
+    private final List<TaskListListener> listeners = new CopyOnWriteArrayList<>();
+    /** Receives the timing of changes and saves, or {@code null}. */
+    private volatile SaveListener saveListener;
+
+    /** Tasks plus the version number they were published under, read and replaced as one unit. */
+    private static final class State {
+        private final PersistentVector<Task> tasks;
+        private final long version;
+        /** Version of the last change that moved tasks to other positions. */
+        private final long structureVersion;
+        /** The one snapshot handed out for this state. */
+        private final Snapshot snapshot;
+
+        State(PersistentVector<Task> tasks, long version, long structureVersion) {
+            this.tasks = tasks;
+            this.version = version;
+            this.structureVersion = structureVersion;
+            this.snapshot = new Snapshot(tasks.asList(), version);
+        }
+    }
+
+    /**
+     * A consistent, immutable view of the list at one version.
+     */
+    public static final class Snapshot {
+        private final List<Task> tasks;
+        private final long version;
+
+        private Snapshot(List<Task> tasks, long version) {
+            this.tasks = tasks;
+            this.version = version;
+        }
+
+        /**
+         * Returns the tasks at this version, in display order.
+         *
+         * @return unmodifiable task list
+         */
+        public List<Task> getTasks() {
+            return tasks;
+        }
+
+        /**
+         * Returns the version these tasks belong to.
+         *
+         * @return list-wide version number
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Finds tasks at this version whose string representation contains the keyword.
+         *
+         * @param keyword non-empty keyword to search for
+         * @return a list of matching tasks (possibly empty)
+         * @throws BoydException if {@code keyword} is {@code null} or blank
+         * @see TaskList#find(String)
+         */
+        public List<Task> find(String keyword) {
+            if (keyword == null || keyword.isBlank()) {
+                throw new BoydException("Find requires a non-empty keyword.");
+            }
+            String needle = keyword.toLowerCase();
+            List<Task> matches = new ArrayList<>();
+            for (Task t : tasks) {
+                if (matches(t, needle)) {
+                    matches.add(t);
+                }
+            }
+            return matches;
+        }
+
+        /** Returns whether {@link #find(String)} matches {@code task}, given the lower-cased keyword. */
+        static boolean matches(Task task, String lowerCaseKeyword) {
+            return task.toDisplayString().toLowerCase().contains(lowerCaseKeyword);
+        }
+    }
+
+    /**
+     * A task added or removed, together with the snapshot the change committed, so that
+     * callers can describe the change without reading the list again after other writers
+     * may have moved on.
+     */
+    public static final class Change {
+        private final Task task;
+        private final Snapshot snapshot;
+
+        private Change(Task task, Snapshot snapshot) {
+            this.task = task;
+            this.snapshot = snapshot;
+        }
+
+        /**
+         * Returns the task that was added or removed.
+         *
+         * @return changed task
+         */
+        public Task getTask() {
+            return task;
+        }
+
+        /**
+         * Returns the list as this change left it; its version is the one the change
+         * committed.
+         *
+         * @return snapshot right after the change
+         */
+        public Snapshot getSnapshot() {
+            return snapshot;
+        }
+    }
+
     /**
      * Creates a {@code TaskList} initialized from an existing list (defensive copy).
      *
@@ -25,17 +184,183 @@ public class TaskList {
      * @param storage persistence provider; may be {@code null} for in-memory only
      */
     public TaskList(List<? extends Task> taskList, Storage storage) {
-        this.tasks = new ArrayList<>(taskList);
+        this(taskList, storage, DEFAULT_HISTORY_DEPTH);
+    }
+
+    /**
+     * Creates a {@code TaskList} that keeps at most {@code historyDepth} versions for undo.
+     *
+     * @param taskList initial tasks
+     * @param storage persistence provider; may be {@code null} for in-memory only
+     * @param historyDepth maximum number of undoable commands (0 disables undo)
+     * @throws IllegalArgumentException if {@code historyDepth} is negative
+     */
+    public TaskList(List<? extends Task> taskList, Storage storage, int historyDepth) {
+        if (historyDepth < 0) {
+            throw new IllegalArgumentException("historyDepth must be non-negative");
+        }
+        this.state = new State(PersistentVector.of(taskList), 0, 0);
         this.storage = storage;
+        this.historyDepth = historyDepth;
     }
 
     /**
      * Persists the current state if {@link Storage} is present.
-     * <p>Does nothing when {@code storage == null}.</p>
+     * <p>Does nothing when {@code storage == null} or after {@link #seal()}, and is
+     * deferred to the end of the batch inside {@link #batch(Runnable)}. Callers must hold
+     * {@link #writeLock} so saves land on disk in the same order as the versions they
+     * capture. Since every change ends here, this is also where the {@link SaveListener},
+     * if any, hears of it.</p>
      */
     private void persist() {
-        if (storage != null) {
-            storage.save(tasks);
+        SaveListener listener = saveListener;
+        if (listener != null) {
+            listener.onChanged();
+        }
+        if (batchDepth > 0) {
+            isSaveDeferred = true;
+            return;
+        }
+        save(listener, false);
+    }
+
+    /**
+     * Writes the current state to {@link Storage}, if present and not sealed, and reports
+     * it to {@code listener} if that is non-null. Callers must hold {@link #writeLock}.
+     */
+    private void save(SaveListener listener, boolean isEndOfBatch) {
+        if (isSealed || storage == null) {
+            return;
+        }
+        if (listener == null) {
+            storage.save(state.tasks.asList());
+            return;
+        }
+        long start = System.nanoTime();
+        boolean isSaved = false;
+        try {
+            storage.save(state.tasks.asList());
+            isSaved = true;
+        } finally {
+            listener.onSaved(start, System.nanoTime(), !isSaved, isEndOfBatch);
+        }
+    }
+
+    /**
+     * Runs {@code action} as one unit of persistence: mutations inside it still create
+     * their own versions (and undo steps), but the list is saved only once, at the end.
+     * <p>
+     * Other writers are held off for the duration; readers are not. Calls may nest, in
+     * which case only the outermost one saves. The save also happens if {@code action}
+     * throws, since the mutations it made before throwing are kept.
+     * </p>
+     *
+     * @param action mutations to apply
+     */
+    public void batch(Runnable action) {
+        synchronized (writeLock) {
+            batchDepth++;
+            try {
+                action.run();
+            } finally {
+                batchDepth--;
+                if (batchDepth == 0 && isSaveDeferred) {
+                    isSaveDeferred = false;
+                    save(saveListener, true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the current version to {@link Storage}, if present, even if nothing changed.
+     * <p>Mutations already persist on their own; this is for callers that want a final,
+     * explicit save, e.g. at shutdown. Does nothing after {@link #seal()}.</p>
+     */
+    public void flush() {
+        synchronized (writeLock) {
+            persist();
+        }
+    }
+
+    /**
+     * Saves the list one last time and makes it refuse every later change with a
+     * {@link BoydException}; reads keep working. This is for lists that are dropped and
+     * may later be loaded again from the same file, e.g. evicted tenants, so that a caller
+     * still holding the old copy cannot overwrite the new one. The list is sealed even if
+     * that last save fails. Calling it again does nothing.
+     */
+    public void seal() {
+        synchronized (writeLock) {
+            try {
+                persist();
+            } finally {
+                isSealed = true;
+            }
+        }
+    }
+
+    /**
+     * Registers a listener for changes. Listeners are called synchronously by the writing
+     * thread while it holds the write lock, in version order, so they must be quick and
+     * must not mutate this list.
+     *
+     * @param listener listener to add
+     */
+    public void addListener(TaskListListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener added with {@link #addListener(TaskListListener)}.
+     *
+     * @param listener listener to remove
+     */
+    public void removeListener(TaskListListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Sets the listener told when changes are applied and saved, replacing any earlier one.
+     *
+     * @param listener listener to use, or {@code null} for none
+     */
+    public void setSaveListener(SaveListener listener) {
+        this.saveListener = listener;
+    }
+
+    /**
+     * Makes {@code next} the current tasks under a new version, remembering the old tasks
+     * for undo. Callers must hold {@link #writeLock}, and then notify listeners and persist.
+     *
+     * @param next the new tasks
+     * @param isStructural whether positions of existing tasks may have changed
+     * @return the new version number
+     */
+    private long commit(PersistentVector<Task> next, boolean isStructural) {
+        State current = state;
+        if (historyDepth > 0) {
+            undoHistory.push(current.tasks);
+            if (undoHistory.size() > historyDepth) {
+                undoHistory.removeLast();
+            }
+        }
+        redoHistory.clear();
+        long version = current.version + 1;
+        state = new State(next, version, isStructural ? version : current.structureVersion);
+        return version;
+    }
+
+    /**
+     * Replaces the tasks wholesale under a new version (undo/redo). Callers must hold
+     * {@link #writeLock}; this notifies listeners but does not persist.
+     */
+    private void reset(PersistentVector<Task> next) {
+        long version = state.version + 1;
+        state = new State(next, version, version);
+        List<Task> view = next.asList();
+        for (TaskListListener l : listeners) {
+            l.onReset(view, version);
         }
     }
 
@@ -43,39 +368,134 @@ public class TaskList {
      * Adds a task to the end of the list and persists.
      *
      * @param task task to add
-     * @return the added task
+     * @return the added task and the list right after adding it
      */
-    public Task add(Task task) {
-        tasks.add(task);
-        persist();
-        return task;
+    public Change add(Task task) {
+        synchronized (writeLock) {
+            checkOpen();
+            int index = state.tasks.size();
+            task.setVersion(state.version + 1);
+            // Appending leaves every existing task where it was: not a structural change.
+            long version = commit(state.tasks.append(task), false);
+            for (TaskListListener l : listeners) {
+                l.onAdded(index, task, version);
+            }
+            persist();
+            return new Change(task, state.snapshot);
+        }
+    }
+
+    /**
+     * Appends tasks to the end of the list, in order, as one change: a single new version
+     * shared by all of them, one undo step that takes them all back, one
+     * {@link TaskListListener#onAddedAll(int, List, long)} call and one save.
+     *
+     * @param added tasks to append; nothing changes if empty
+     * @return the list right after appending
+     * @throws IllegalArgumentException if {@code added} is {@code null} or holds {@code null}
+     */
+    public Snapshot addAll(List<? extends Task> added) {
+        if (added == null) {
+            throw new IllegalArgumentException("added must be non-null");
+        }
+        for (Task task : added) {
+            if (task == null) {
+                throw new IllegalArgumentException("added must not hold null tasks");
+            }
+        }
+        synchronized (writeLock) {
+            checkOpen();
+            if (added.isEmpty()) {
+                return state.snapshot;
+            }
+            int index = state.tasks.size();
+            long newVersion = state.version + 1;
+            PersistentVector<Task> next = state.tasks;
+            for (Task task : added) {
+                task.setVersion(newVersion);
+                next = next.append(task);
+            }
+            long version = commit(next, false);
+            List<Task> view = List.copyOf(added);
+            for (TaskListListener l : listeners) {
+                l.onAddedAll(index, view, version);
+            }
+            persist();
+            return state.snapshot;
+        }
     }
 
     /**
      * Removes the task at the given 1-based position and persists.
      *
      * @param itemNo 1-based index of the task to remove
-     * @return the removed task
+     * @return the removed task and the list right after removing it
      * @throws BoydException if the index is out of range
      */
-    public Task remove(int itemNo) {
-        validate1Based(itemNo);
-        Task removed = tasks.remove(itemNo - 1);
-        persist();
-        return removed;
+    public Change remove(int itemNo) {
+        return remove(itemNo, ANY_VERSION);
+    }
+
+    /**
+     * Removes the task at the given 1-based position, provided neither the list's
+     * structure nor that task changed after {@code expectedVersion}, and persists.
+     *
+     * @param itemNo 1-based index of the task to remove
+     * @param expectedVersion version the caller's view of the list is based on, or {@link #ANY_VERSION}
+     * @return the removed task and the list right after removing it
+     * @throws VersionConflictException if the list changed in a way that affects this task
+     * @throws BoydException if the index is out of range or {@code expectedVersion} is in the future
+     */
+    public Change remove(int itemNo, long expectedVersion) {
+        synchronized (writeLock) {
+            checkOpen();
+            checkUnchanged(itemNo, expectedVersion);
+            PersistentVector<Task> tasks = state.tasks;
+            Task removed = tasks.get(itemNo - 1);
+            long version = commit(tasks.remove(itemNo - 1), true);
+            for (TaskListListener l : listeners) {
+                l.onRemoved(itemNo - 1, removed, version);
+            }
+            persist();
+            return new Change(removed, state.snapshot);
+        }
     }
 
     /**
-     * Returns all tasks in display order.
+     * Returns a read-only snapshot of all tasks in display order.
      * <p>
-     * Callers should not modify the returned list structure. If you need a
-     * strictly unmodifiable view, wrap this in {@code List.copyOf(getTasks())}.
+     * The snapshot is O(1) to take and is not affected by later mutations, undo
+     * or redo, so it can be read at leisure while the list keeps changing.
      * </p>
      *
-     * @return the underlying list of tasks
+     * @return unmodifiable snapshot of the current version
      */
     public List<Task> getTasks() {
-        return tasks;
+        return state.tasks.asList();
+    }
+
+    /**
+     * Returns the current tasks together with their version, read atomically.
+     * <p>
+     * The same instance is returned until the list next changes, so callers may cache
+     * work derived from a snapshot and reuse it while {@code snapshot()} returns the
+     * identical object. Versions alone cannot serve as that key, since
+     * {@link #applyReset(List, long)} may move the version backwards.
+     * </p>
+     *
+     * @return immutable snapshot of the current version
+     */
+    public Snapshot snapshot() {
+        return state.snapshot;
+    }
+
+    /**
+     * Returns the list-wide version number, which increases by one with every change.
+     *
+     * @return current version
+     */
+    public long getVersion() {
+        return state.version;
     }
 
     /**
@@ -86,18 +506,239 @@ public class TaskList {
      * @throws BoydException if the index is out of range
      */
     public Task mark(int itemNo) {
-        validate1Based(itemNo);
-        Task task = tasks.get(itemNo - 1);
-        task.markAsDone();
-        persist();
-        return task;
+        return mark(itemNo, ANY_VERSION);
+    }
+
+    /**
+     * Marks the task at the given 1-based position as done, provided neither the list's
+     * structure nor that task changed after {@code expectedVersion}, and persists.
+     *
+     * @param itemNo 1-based index of the task to mark done
+     * @param expectedVersion version the caller's view of the list is based on, or {@link #ANY_VERSION}
+     * @return the task that was marked
+     * @throws VersionConflictException if the list changed in a way that affects this task
+     * @throws BoydException if the index is out of range or {@code expectedVersion} is in the future
+     */
+    public Task mark(int itemNo, long expectedVersion) {
+        synchronized (writeLock) {
+            checkOpen();
+            checkUnchanged(itemNo, expectedVersion);
+            PersistentVector<Task> tasks = state.tasks;
+            // Mark a copy: older versions in the undo history still reference the original.
+            Task old = tasks.get(itemNo - 1);
+            Task task = old.copy();
+            task.markAsDone();
+            task.setVersion(state.version + 1);
+            long version = commit(tasks.set(itemNo - 1, task), false);
+            for (TaskListListener l : listeners) {
+                l.onReplaced(itemNo - 1, old, task, version);
+            }
+            persist();
+            return task;
+        }
+    }
+
+    /**
+     * Reverts the most recent mutation and persists.
+     *
+     * @return the list as the undo left it
+     * @throws BoydException if there is nothing to undo
+     */
+    public Snapshot undo() {
+        return undo(ANY_VERSION);
+    }
+
+    /**
+     * Reverts the most recent mutation, provided the list is still at {@code expectedVersion},
+     * and persists.
+     *
+     * @param expectedVersion version the caller last saw, or {@link #ANY_VERSION}
+     * @return the list as the undo left it
+     * @throws VersionConflictException if the list changed after {@code expectedVersion}
+     * @throws BoydException if there is nothing to undo or {@code expectedVersion} is in the future
+     */
+    public Snapshot undo(long expectedVersion) {
+        synchronized (writeLock) {
+            checkOpen();
+            checkCurrent(expectedVersion);
+            if (undoHistory.isEmpty()) {
+                throw new BoydException("Nothing to undo!");
+            }
+            redoHistory.push(state.tasks);
+            reset(undoHistory.pop());
+            persist();
+            return state.snapshot;
+        }
+    }
+
+    /**
+     * Re-applies the most recently undone mutation and persists.
+     *
+     * @return the list as the redo left it
+     * @throws BoydException if there is nothing to redo
+     */
+    public Snapshot redo() {
+        return redo(ANY_VERSION);
+    }
+
+    /**
+     * Re-applies the most recently undone mutation, provided the list is still at
+     * {@code expectedVersion}, and persists.
+     *
+     * @param expectedVersion version the caller last saw, or {@link #ANY_VERSION}
+     * @return the list as the redo left it
+     * @throws VersionConflictException if the list changed after {@code expectedVersion}
+     * @throws BoydException if there is nothing to redo or {@code expectedVersion} is in the future
+     */
+    public Snapshot redo(long expectedVersion) {
+        synchronized (writeLock) {
+            checkOpen();
+            checkCurrent(expectedVersion);
+            if (redoHistory.isEmpty()) {
+                throw new BoydException("Nothing to redo!");
+            }
+            undoHistory.push(state.tasks);
+            reset(redoHistory.pop());
+            persist();
+            return state.snapshot;
+        }
+    }
+
+    /**
+     * Inserts a task as part of a change that was made elsewhere, e.g. on a replication
+     * leader. Unlike {@link #add(Task)}, this does not save, does not create an undo
+     * step (it clears the undo and redo history instead), and takes its version from
+     * the caller.
+     *
+     * @param index zero-based position in {@code [0, size()]}
+     * @param task task to insert
+     * @param version version of the change; must be greater than {@link #getVersion()}
+     * @throws IllegalArgumentException if {@code version} does not move forward
+     * @throws IndexOutOfBoundsException if {@code index} is out of range
+     */
+    public void applyInsert(int index, Task task, long version) {
+        synchronized (writeLock) {
+            checkOpen();
+            task.setVersion(version);
+            applyExternal(state.tasks.insert(index, task), version, index < state.tasks.size());
+            for (TaskListListener l : listeners) {
+                l.onAdded(index, task, version);
+            }
+        }
+    }
+
+    /**
+     * Inserts tasks as part of a single change that was made elsewhere, e.g. a bulk
+     * append on a replication leader.
+     *
+     * @param index zero-based position of the first task, in {@code [0, size()]}
+     * @param added tasks to insert, in order
+     * @param version version of the change; must be greater than {@link #getVersion()}
+     * @throws IllegalArgumentException if {@code version} does not move forward
+     * @throws IndexOutOfBoundsException if {@code index} is out of range
+     * @see #applyInsert(int, Task, long)
+     */
+    public void applyInsertAll(int index, List<? extends Task> added, long version) {
+        synchronized (writeLock) {
+            checkOpen();
+            PersistentVector<Task> next = state.tasks;
+            for (int i = 0; i < added.size(); i++) {
+                Task task = added.get(i);
+                task.setVersion(version);
+                next = next.insert(index + i, task);
+            }
+            applyExternal(next, version, index < state.tasks.size());
+            List<Task> view = List.copyOf(added);
+            for (TaskListListener l : listeners) {
+                l.onAddedAll(index, view, version);
+            }
+        }
+    }
+
+    /**
+     * Removes a task as part of a change that was made elsewhere.
+     *
+     * @param index zero-based position in {@code [0, size())}
+     * @param version version of the change; must be greater than {@link #getVersion()}
+     * @throws IllegalArgumentException if {@code version} does not move forward
+     * @throws IndexOutOfBoundsException if {@code index} is out of range
+     * @see #applyInsert(int, Task, long)
+     */
+    public void applyRemove(int index, long version) {
+        synchronized (writeLock) {
+            checkOpen();
+            Task removed = state.tasks.get(index);
+            applyExternal(state.tasks.remove(index), version, true);
+            for (TaskListListener l : listeners) {
+                l.onRemoved(index, removed, version);
+            }
+        }
+    }
+
+    /**
+     * Replaces a task as part of a change that was made elsewhere.
+     *
+     * @param index zero-based position in {@code [0, size())}
+     * @param task replacement task
+     * @param version version of the change; must be greater than {@link #getVersion()}
+     * @throws IllegalArgumentException if {@code version} does not move forward
+     * @throws IndexOutOfBoundsException if {@code index} is out of range
+     * @see #applyInsert(int, Task, long)
+     */
+    public void applyReplace(int index, Task task, long version) {
+        synchronized (writeLock) {
+            checkOpen();
+            Task old = state.tasks.get(index);
+            task.setVersion(version);
+            applyExternal(state.tasks.set(index, task), version, false);
+            for (TaskListListener l : listeners) {
+                l.onReplaced(index, old, task, version);
+            }
+        }
+    }
+
+    /**
+     * Replaces the whole list as part of a change that was made elsewhere, e.g. with a
+     * snapshot received from a replication leader.
+     *
+     * <p>Unlike the other {@code apply} methods, the version may move backwards: a
+     * snapshot from a restarted leader starts a new version history.</p>
+     *
+     * @param tasks new content
+     * @param version version of the content
+     * @see #applyInsert(int, Task, long)
+     */
+    public void applyReset(List<? extends Task> tasks, long version) {
+        synchronized (writeLock) {
+            checkOpen();
+            PersistentVector<Task> next = PersistentVector.of(tasks);
+            undoHistory.clear();
+            redoHistory.clear();
+            state = new State(next, version, version);
+            List<Task> view = next.asList();
+            for (TaskListListener l : listeners) {
+                l.onReset(view, version);
+            }
+        }
+    }
+
+    /** Installs externally produced tasks; callers must hold {@link #writeLock}. */
+    private void applyExternal(PersistentVector<Task> next, long version, boolean isStructural) {
+        State current = state;
+        if (version <= current.version) {
+            throw new IllegalArgumentException("version " + version + " is not after " + current.version);
+        }
+        undoHistory.clear();
+        redoHistory.clear();
+        state = new State(next, version, isStructural ? version : current.structureVersion);
     }
 
     /**
      * Finds tasks whose string representation contains the given keyword (case-insensitive).
      * <p>
-     * This method does not modify or persist state. Returns an empty list if there
-     * are no matches; callers may format user-facing messages as needed.
+     * This method does not modify or persist state, and scans a single snapshot
+     * without locking. Returns an empty list if there are no matches; callers may
+     * format user-facing messages as needed.
      * </p>
      *
      * @param keyword non-empty keyword to search for
@@ -105,17 +746,7 @@ public class TaskList {
      * @throws BoydException if {@code keyword} is {@code null} or blank
      */
     public List<Task> find(String keyword) {
-        if (keyword == null || keyword.isBlank()) {
-            throw new BoydException("Find requires a non-empty keyword.");
-        }
-        String needle = keyword.toLowerCase();
-        List<Task> matches = new ArrayList<>();
-        for (Task t : tasks) {
-            if (t.toString().toLowerCase().contains(needle)) {
-                matches.add(t);
-            }
-        }
-        return matches;
+        return snapshot().find(keyword);
     }
 
     /**
@@ -126,10 +757,23 @@ public class TaskList {
      * @throws BoydException if {@code index} is outside {@code [0, size())}
      */
     public Task get(int index) {
-        if (index < 0 || index >= tasks.size()) {
+        PersistentVector<Task> snapshot = state.tasks;
+        if (index < 0 || index >= snapshot.size()) {
             throw new BoydException("Can't get task at that index!");
         }
-        return tasks.get(index);
+        return snapshot.get(index);
+    }
+
+    /**
+     * Returns the directory holding this list's save file, under which files are
+     * imported and exported. An in-memory list uses the directory of
+     * {@value Storage#DEFAULT_FILE_PATH}.
+     *
+     * @return data directory, relative if the save file path is
+     */
+    public Path getDataDirectory() {
+        Path parent = Path.of(storage == null ? Storage.DEFAULT_FILE_PATH : storage.getFilePath()).getParent();
+        return parent == null ? Path.of("") : parent;
     }
 
     /**
@@ -138,7 +782,7 @@ public class TaskList {
      * @return task count
      */
     public int size() {
-        return tasks.size();
+        return state.tasks.size();
     }
 
     /**
@@ -147,12 +791,60 @@ public class TaskList {
      * @return {@code true} if there are no tasks; {@code false} otherwise
      */
     public boolean isEmpty() {
-        return tasks.isEmpty();
+        return state.tasks.isEmpty();
+    }
+
+    /** Throws if {@link #seal()} has run. Callers must hold {@link #writeLock}. */
+    private void checkOpen() {
+        if (isSealed) {
+            throw new BoydException("This task list has been unloaded. Please try again.");
+        }
+    }
+
+    /**
+     * Checks that the task at {@code itemNo} is where and as the caller saw it at
+     * {@code expectedVersion}, and that {@code itemNo} is valid. Callers must hold
+     * {@link #writeLock}.
+     */
+    private void checkUnchanged(int itemNo, long expectedVersion) {
+        if (expectedVersion == ANY_VERSION) {
+            validate1Based(itemNo);
+            return;
+        }
+        State current = state;
+        checkNotFuture(expectedVersion, current);
+        // A structural change may have moved a different task to this position, or out of range.
+        if (current.structureVersion > expectedVersion) {
+            throw new VersionConflictException(expectedVersion, current.version);
+        }
+        validate1Based(itemNo);
+        if (current.tasks.get(itemNo - 1).getVersion() > expectedVersion) {
+            throw new VersionConflictException(expectedVersion, current.version);
+        }
+    }
+
+    /** Checks that nothing at all changed after {@code expectedVersion}; callers must hold {@link #writeLock}. */
+    private void checkCurrent(long expectedVersion) {
+        if (expectedVersion == ANY_VERSION) {
+            return;
+        }
+        State current = state;
+        checkNotFuture(expectedVersion, current);
+        if (current.version != expectedVersion) {
+            throw new VersionConflictException(expectedVersion, current.version);
+        }
+    }
+
+    private static void checkNotFuture(long expectedVersion, State current) {
+        if (expectedVersion < 0 || expectedVersion > current.version) {
+            throw new BoydException(String.format(
+                    "Unknown version @v%d: the list is at @v%d.", expectedVersion, current.version));
+        }
     }
 
     /** Validates a 1-based index against the current list size. */
     private void validate1Based(int n) {
-        if (n <= 0 || n > tasks.size()) {
+        if (n <= 0 || n > state.tasks.size()) {
             throw new BoydException("Invalid item number!");
         }
     }
@@ -0,0 +1,72 @@
+package boyd.utils;
+
+import java.util.List;
+
+import boyd.tasks.Task;
+
+/**
+ * Receives fine-grained change notifications from a {@link TaskList}.
+ *
+ * <p>Indices are zero-based positions in the list <em>after</em> the previous change
+ * has been applied, so replaying the callbacks in order on a copy of the list keeps
+ * that copy identical to the original. Each callback carries the version number the
+ * change produced. All methods default to doing nothing.</p>
+ */
+public interface TaskListListener {
+
+    /**
+     * Called after {@code task} was inserted at {@code index}.
+     *
+     * @param index zero-based position of the new task
+     * @param task the inserted task
+     * @param version version produced by the change
+     */
+    default void onAdded(int index, Task task, long version) {
+    }
+
+    /**
+     * Called after {@code tasks} were inserted, in order, from {@code index} on as one
+     * change, e.g. by an import. The default reports each task through
+     * {@link #onAdded(int, Task, long)}, all with the same {@code version}; listeners that
+     * expect one version per callback should override it.
+     *
+     * @param index zero-based position of the first new task
+     * @param tasks the inserted tasks
+     * @param version version produced by the change
+     */
+    default void onAddedAll(int index, List<Task> tasks, long version) {
+        for (int i = 0; i < tasks.size(); i++) {
+            onAdded(index + i, tasks.get(i), version);
+        }
+    }
+
+    /**
+     * Called after the task at {@code index} was removed.
+     *
+     * @param index zero-based position the task was removed from
+     * @param task the removed task
+     * @param version version produced by the change
+     */
+    default void onRemoved(int index, Task task, long version) {
+    }
+
+    /**
+     * Called after the task at {@code index} was replaced (e.g. marked as done).
+     *
+     * @param index zero-based position of the task
+     * @param oldTask the task before the change
+     * @param newTask the task after the change
+     * @param version version produced by the change
+     */
+    default void onReplaced(int index, Task oldTask, Task newTask, long version) {
+    }
+
+    /**
+     * Called after the whole list was replaced, e.g. by undo or redo.
+     *
+     * @param tasks the new content
+     * @param version version produced by the change
+     */
+    default void onReset(List<Task> tasks, long version) {
+    }
+}
@@ -1,10 +1,19 @@
 package boyd.utils;
 
+import java.io.PrintWriter;
+import java.io.Writer;
+
 /**
  * Console UI helper for the Boyd chatbot.
  * <p>
  * Provides convenience methods to print a consistent separator line,
- * standard greetings/farewells, and framed messages to {@link System#out}.
+ * standard greetings/farewells, and framed messages to a {@link Writer}
+ * ({@link System#out} unless another is given).
+ * </p>
+ * <p>
+ * Output written to a given writer is only flushed by {@link #flush()} (and after each
+ * chunk of a streamed response), so a caller printing many responses in a row decides
+ * when they reach the screen.
  * </p>
  *
  * <h2>Example</h2>
@@ -20,11 +29,33 @@ public class Ui {
     private static final String LINE = "____________________________________________________________";
     private static final String CHATBOT_NAME = "Boyd";
 
+    private final PrintWriter out;
+
+    /**
+     * Creates a UI that prints straight to {@link System#out}.
+     */
+    public Ui() {
+        this.out = new PrintWriter(System.out, true);
+    }
+
+    /**
+     * Creates a UI that prints to the given writer.
+     *
+     * @param out destination of all output
+     * @throws IllegalArgumentException if {@code out} is {@code null}
+     */
+    public Ui(Writer out) {
+        if (out == null) {
+            throw new IllegalArgumentException("out must be non-null");
+        }
+        this.out = out instanceof PrintWriter ? (PrintWriter) out : new PrintWriter(out);
+    }
+
     /**
      * Prints the horizontal separator line followed by a newline.
      */
     public void printLine() {
-        System.out.println(LINE);
+        out.println(LINE);
     }
 
     /**
@@ -33,8 +64,8 @@ public class Ui {
      */
     public void greet() {
         printLine();
-        System.out.println("Hello! I'm " + CHATBOT_NAME + "!");
-        System.out.println("What can I do for you?");
+        out.println("Hello! I'm " + CHATBOT_NAME + "!");
+        out.println("What can I do for you?");
         printLine();
     }
 
@@ -43,7 +74,7 @@ public class Ui {
      */
     public void bye() {
         printLine();
-        System.out.println("Bye. Hope to see you again soon!");
+        out.println("Bye. Hope to see you again soon!");
         printLine();
     }
 
@@ -54,8 +85,8 @@ public class Ui {
      */
     public void printErrorMessage(String message) {
         printLine();
-        System.out.println("Error: " + message);
-        System.out.println("Please try again.");
+        out.println("Error: " + message);
+        out.println("Please try again.");
         printLine();
     }
 
@@ -66,7 +97,36 @@ public class Ui {
      */
     public void printWithLines(String message) {
         printLine();
-        System.out.println(message);
+        out.println(message);
+        printLine();
+    }
+
+    /**
+     * Prints a command's response framed by the separator line; errors get the
+     * {@link #printErrorMessage(String)} treatment. A streamed response is printed
+     * chunk by chunk and flushed after each chunk, so it never has to be held whole.
+     *
+     * @param response the response to display
+     */
+    public void printResponse(BoydResponse response) {
+        if (response.isError()) {
+            printErrorMessage(response.message());
+            return;
+        }
+        printLine();
+        for (String chunk : response.chunks()) {
+            out.println(chunk);
+            if (response.isStreamed()) {
+                out.flush();
+            }
+        }
         printLine();
     }
+
+    /**
+     * Sends everything printed so far to the underlying writer.
+     */
+    public void flush() {
+        out.flush();
+    }
 }
@@ -0,0 +1,55 @@
+package boyd;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import boyd.utils.TaskList;
+
+class BoydConsoleTest {
+
+    private static final String LINE = "_".repeat(60);
+
+    @Test
+    void run_framesEachResponseAndStopsAtBye() throws Exception {
+        String script = String.join(System.lineSeparator(), "todo read book", "mark 9", "list", "bye", "todo ignored");
+        StringWriter out = new StringWriter();
+        Boyd boyd = new Boyd(new TaskList(List.of(), null));
+
+        new BoydConsole(boyd).run(new StringReader(script), out);
+
+        String expected = String.join(System.lineSeparator(),
+                LINE, "Hello! I'm Boyd!", "What can I do for you?", LINE,
+                LINE, "Got it! Added:", "  [T][ ] read book", "Now you have 1 tasks in this list.", LINE,
+                LINE, "Error: " + boyd.getResponse("mark 9").message(), "Please try again.", LINE,
+                LINE, "1. [T][ ] read book", LINE,
+                LINE, "Bye. Hope to see you again soon!", LINE, "");
+        assertEquals(expected, out.toString());
+        assertEquals(1, boyd.getTaskList().size());
+    }
+
+    @Test
+    void run_longScriptWithoutBye_savesEveryCommand(@TempDir Path dir) throws Exception {
+        int count = 3 * BoydConsole.MAX_BATCH + 7;
+        StringBuilder script = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            script.append("todo task ").append(i).append('\n');
+        }
+        Path file = dir.resolve("boyd.txt");
+        StringWriter out = new StringWriter();
+
+        new BoydConsole(new Boyd(file.toString())).run(new StringReader(script.toString()), out);
+
+        assertEquals(count, Files.readAllLines(file).size());
+        assertTrue(out.toString().endsWith("Now you have " + count + " tasks in this list."
+                + System.lineSeparator() + LINE + System.lineSeparator()));
+    }
+}
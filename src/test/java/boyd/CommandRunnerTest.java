@@ -0,0 +1,100 @@
+package boyd;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import boyd.tasks.Task;
+import boyd.tasks.ToDo;
+import boyd.utils.BoydResponse;
+import boyd.utils.Parser;
+import boyd.utils.TaskList;
+
+class CommandRunnerTest {
+
+    @Test
+    void commands_runAndCallBackInSubmissionOrder() throws Exception {
+        ExecutorService uiThread = Executors.newSingleThreadExecutor();
+        List<String> delivered = Collections.synchronizedList(new ArrayList<>());
+        try (CommandRunner runner = new CommandRunner(new Boyd(new TaskList(List.of(), null)), uiThread)) {
+            CompletableFuture<Void> last = null;
+            for (int i = 1; i <= 200; i++) {
+                last = runner.submit("todo task " + i, res -> delivered.add(res.message()));
+            }
+            last = runner.submit("delete 1", res -> delivered.add(res.message()));
+            last.get(30, TimeUnit.SECONDS);
+        } finally {
+            uiThread.shutdown();
+        }
+
+        assertEquals(201, delivered.size());
+        for (int i = 1; i <= 200; i++) {
+            assertTrue(delivered.get(i - 1).contains("task " + i + System.lineSeparator()));
+        }
+        assertTrue(delivered.get(200).contains("task 1" + System.lineSeparator()));
+    }
+
+    @Test
+    void callback_runsOnCallbackExecutor() throws Exception {
+        ExecutorService uiThread = Executors.newSingleThreadExecutor(r -> new Thread(r, "fake-ui"));
+        List<String> threads = new ArrayList<>();
+        try (CommandRunner runner = new CommandRunner(new Boyd(new TaskList(List.of(), null)), uiThread)) {
+            runner.submit("list", (BoydResponse res) -> threads.add(Thread.currentThread().getName()))
+                    .get(30, TimeUnit.SECONDS);
+        } finally {
+            uiThread.shutdown();
+        }
+        assertEquals(List.of("fake-ui"), threads);
+    }
+
+    @Test
+    void streamedResponse_deliversChunksBeforeResponse() throws Exception {
+        List<Task> initial = new ArrayList<>();
+        for (int i = 1; i <= Parser.CHUNK_LINES + 1; i++) {
+            initial.add(new ToDo("task " + i));
+        }
+        ExecutorService uiThread = Executors.newSingleThreadExecutor();
+        List<String> delivered = Collections.synchronizedList(new ArrayList<>());
+        try (CommandRunner runner = new CommandRunner(new Boyd(new TaskList(initial, null)), uiThread)) {
+            runner.submit("list", chunk -> delivered.add("chunk"), res -> delivered.add("done"));
+            runner.submit("find task 7", chunk -> delivered.add("chunk"), res -> delivered.add(res.message()))
+                    .get(30, TimeUnit.SECONDS);
+        } finally {
+            uiThread.shutdown();
+        }
+        // The list takes two chunks; the search over the same long list streams its one chunk too.
+        assertEquals(List.of("chunk", "chunk", "done", "chunk"), delivered.subList(0, 4));
+        assertTrue(delivered.get(4).startsWith("1. [T][ ] task 7" + System.lineSeparator()));
+        assertEquals(5, delivered.size());
+    }
+
+    @Test
+    void commandsSubmittedWhileLoading_runOnceLoadedInOrder() throws Exception {
+        ExecutorService uiThread = Executors.newSingleThreadExecutor();
+        CompletableFuture<Boyd> loading = new CompletableFuture<>();
+        List<String> delivered = Collections.synchronizedList(new ArrayList<>());
+        try (CommandRunner runner = new CommandRunner(loading, uiThread)) {
+            runner.submit("todo early", res -> delivered.add(res.message()));
+            CompletableFuture<Void> last = runner.submit("list", res -> delivered.add(res.message()));
+            Thread.sleep(50);
+            assertTrue(delivered.isEmpty(), "nothing runs before the core is loaded");
+
+            loading.complete(new Boyd(new TaskList(List.of(new ToDo("loaded")), null)));
+            last.get(30, TimeUnit.SECONDS);
+        } finally {
+            uiThread.shutdown();
+        }
+        assertEquals(2, delivered.size());
+        assertTrue(delivered.get(1).contains("1. [T][ ] loaded"));
+        assertTrue(delivered.get(1).contains("2. [T][ ] early"));
+    }
+}
@@ -0,0 +1,81 @@
+package boyd;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+class StartupMetricsTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void marks_areRecordedOnceFromTheClock() {
+        AtomicLong clock = new AtomicLong(120);
+        StartupMetrics metrics = new StartupMetrics(clock::get);
+        assertEquals(StartupMetrics.NOT_YET, metrics.getFirstPaintMillis());
+        assertEquals(StartupMetrics.NOT_YET, metrics.getReadyMillis());
+
+        assertTrue(metrics.markFirstPaint());
+        clock.set(900);
+        assertFalse(metrics.markFirstPaint());
+        assertTrue(metrics.markReady(42));
+        clock.set(1000);
+        assertFalse(metrics.markReady(7));
+
+        assertEquals(120, metrics.getFirstPaintMillis());
+        assertEquals(900, metrics.getReadyMillis());
+        assertEquals(42, metrics.getReadyTasks());
+    }
+
+    @Test
+    void marks_areRecordedAsEvents_notPrinted() throws IOException {
+        Path recordingFile = dir.resolve("startup.jfr");
+        AtomicLong clock = new AtomicLong(120);
+        StartupMetrics metrics = new StartupMetrics(clock::get);
+        PrintStream out = System.out;
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        try (Recording recording = new Recording()) {
+            recording.enable("boyd.Startup").withThreshold(Duration.ZERO);
+            recording.start();
+            System.setOut(new PrintStream(printed, true));
+            try {
+                metrics.markFirstPaint();
+                clock.set(900);
+                metrics.markReady(42);
+            } finally {
+                System.setOut(out);
+            }
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+        assertEquals("", printed.toString());
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile).stream()
+                .filter(event -> event.getEventType().getName().equals("boyd.Startup"))
+                .sorted((a, b) -> a.getStartTime().compareTo(b.getStartTime()))
+                .collect(Collectors.toList());
+        assertEquals(2, events.size());
+        assertEquals("first paint", events.get(0).getString("milestone"));
+        assertEquals(Duration.ofMillis(120), events.get(0).getDuration("uptime"));
+        assertEquals("ready", events.get(1).getString("milestone"));
+        assertEquals(Duration.ofMillis(900), events.get(1).getDuration("uptime"));
+        assertEquals(42, events.get(1).getInt("tasks"));
+    }
+}
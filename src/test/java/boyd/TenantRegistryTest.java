@@ -0,0 +1,130 @@
+package boyd;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TenantRegistryTest {
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void tenants_useTheirOwnFiles() throws Exception {
+        try (TenantRegistry registry = new TenantRegistry(dataDir, 10, 1_000)) {
+            registry.get("alice").getResponse("todo alice task");
+            registry.get("bob").getResponse("todo bob task");
+        }
+        assertEquals(List.of("T | 0 | alice task"), Files.readAllLines(dataDir.resolve("alice.txt")));
+        assertEquals(List.of("T | 0 | bob task"), Files.readAllLines(dataDir.resolve("bob.txt")));
+    }
+
+    @Test
+    void leastRecentlyUsed_isEvictedOverCountBudget_andReloaded() {
+        TenantRegistry registry = new TenantRegistry(dataDir, 2, 1_000);
+        Boyd alice = registry.get("alice");
+        alice.getResponse("todo remember me");
+        registry.get("bob");
+        registry.get("alice"); // alice is now the most recently used
+        registry.get("carol");
+
+        assertEquals(2, registry.residentCount());
+        assertFalse(registry.isResident("bob"));
+        assertSame(alice, registry.get("alice"));
+
+        registry.get("bob");
+        registry.get("carol");
+        assertFalse(registry.isResident("alice"));
+        Boyd reloaded = registry.get("alice");
+        assertNotSame(alice, reloaded);
+        assertEquals("1. [T][ ] remember me", reloaded.getResponse("list").message());
+    }
+
+    @Test
+    void tenants_areEvictedOverTaskBudget() {
+        TenantRegistry registry = new TenantRegistry(dataDir, 10, 3);
+        registry.get("alice").getResponse("todo a");
+        registry.get("alice").getResponse("todo b");
+        registry.get("bob").getResponse("todo c");
+        registry.get("bob").getResponse("todo d");
+
+        registry.get("bob");
+        assertTrue(registry.isResident("bob"));
+        assertFalse(registry.isResident("alice"));
+    }
+
+    @Test
+    void residentTaskCount_followsChanges() {
+        TenantRegistry registry = new TenantRegistry(dataDir, 10, 1_000);
+        Boyd alice = registry.get("alice");
+        alice.getResponse("todo a");
+        alice.getResponse("todo b");
+        alice.getResponse("delete 1");
+        alice.getResponse("undo");
+        registry.get("bob").getResponse("todo c");
+        assertEquals(3, registry.residentTaskCount());
+
+        registry.close();
+        assertEquals(0, registry.residentTaskCount());
+    }
+
+    @Test
+    void evictedInstance_refusesWrites() throws Exception {
+        TenantRegistry registry = new TenantRegistry(dataDir, 1, 1_000);
+        Boyd alice = registry.get("alice");
+        alice.getResponse("todo kept");
+        registry.get("bob");
+        Boyd reloaded = registry.get("alice");
+        reloaded.getResponse("todo added after reload");
+
+        assertTrue(alice.getResponse("todo lost").isError());
+        assertTrue(alice.getResponse("delete 1").isError());
+        assertEquals(List.of("T | 0 | kept", "T | 0 | added after reload"),
+                Files.readAllLines(dataDir.resolve("alice.txt")));
+    }
+
+    @Test
+    void concurrentGets_shareOneInstance() throws Exception {
+        TenantRegistry registry = new TenantRegistry(dataDir, 10, 1_000);
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Boyd>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return registry.get("alice");
+                }));
+            }
+            start.countDown();
+            Boyd first = results.get(0).get();
+            for (Future<Boyd> result : results) {
+                assertSame(first, result.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void invalidUserId_isRejected() {
+        TenantRegistry registry = new TenantRegistry(dataDir, 1, 1);
+        assertThrows(IllegalArgumentException.class, () -> registry.get("../etc/passwd"));
+        assertThrows(IllegalArgumentException.class, () -> registry.get(""));
+    }
+}
@@ -0,0 +1,111 @@
+package boyd.server;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import boyd.utils.BoydResponse;
+
+/**
+ * Throughput/latency load generator for {@link BoydServer}.
+ *
+ * <p>Opens {@code clients} concurrent connections, each sending {@code commandsPerClient}
+ * commands (alternating {@code todo} and {@code find}), and reports commands/sec and
+ * round-trip latency percentiles. Run against a live server with
+ * {@code BoydLoadClient <port> [clients] [commandsPerClient]}.</p>
+ */
+public class BoydLoadClient {
+
+    /** Aggregated outcome of a load run. */
+    public static final class Result {
+        final int commands;
+        final int errors;
+        final long elapsedNanos;
+        final long[] sortedLatencies;
+
+        Result(int commands, int errors, long elapsedNanos, long[] sortedLatencies) {
+            this.commands = commands;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+            this.sortedLatencies = sortedLatencies;
+        }
+
+        double commandsPerSecond() {
+            return commands / (elapsedNanos / 1e9);
+        }
+
+        long percentileMicros(double p) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            int idx = (int) Math.min(sortedLatencies.length - 1, Math.ceil(p * sortedLatencies.length) - 1);
+            return TimeUnit.NANOSECONDS.toMicros(sortedLatencies[Math.max(0, idx)]);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d commands, %d errors, %.0f cmd/s, p50=%dus p99=%dus p99.9=%dus max=%dus",
+                    commands, errors, commandsPerSecond(), percentileMicros(0.50), percentileMicros(0.99),
+                    percentileMicros(0.999), percentileMicros(1.0));
+        }
+    }
+
+    /**
+     * Runs a load test against a server on localhost.
+     */
+    static Result run(int port, int clients, int commandsPerClient) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        List<Future<long[]>> futures = new ArrayList<>();
+        int[] errors = new int[clients];
+        long start = System.nanoTime();
+        for (int c = 0; c < clients; c++) {
+            final int client = c;
+            futures.add(pool.submit(() -> {
+                long[] latencies = new long[commandsPerClient];
+                try (BoydClient boydClient = new BoydClient("localhost", port)) {
+                    for (int i = 0; i < commandsPerClient; i++) {
+                        String command = i % 2 == 0
+                                ? "todo client" + client + " task" + i
+                                : "find client" + client + " ";
+                        long t0 = System.nanoTime();
+                        BoydResponse response = boydClient.send(command);
+                        latencies[i] = System.nanoTime() - t0;
+                        if (response.isError()) {
+                            errors[client]++;
+                        }
+                    }
+                }
+                return latencies;
+            }));
+        }
+
+        long[] all = new long[clients * commandsPerClient];
+        int offset = 0;
+        for (Future<long[]> f : futures) {
+            long[] latencies = f.get(5, TimeUnit.MINUTES);
+            System.arraycopy(latencies, 0, all, offset, latencies.length);
+            offset += latencies.length;
+        }
+        long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+        Arrays.sort(all);
+        return new Result(all.length, Arrays.stream(errors).sum(), elapsed, all);
+    }
+
+    /**
+     * Entry point for manual load runs against an already running server.
+     *
+     * @param args {@code <port> [clients] [commandsPerClient]}
+     * @throws Exception if the run fails
+     */
+    public static void main(String[] args) throws Exception {
+        int port = Integer.parseInt(args[0]);
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int commandsPerClient = args.length > 2 ? Integer.parseInt(args[2]) : 1_000;
+        System.out.println(run(port, clients, commandsPerClient));
+    }
+}
@@ -0,0 +1,129 @@
+package boyd.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import boyd.Boyd;
+import boyd.tasks.Task;
+import boyd.tasks.ToDo;
+import boyd.utils.BoydResponse;
+import boyd.utils.Parser;
+import boyd.utils.Storage;
+import boyd.utils.TaskList;
+
+class BoydServerTest {
+
+    @Test
+    void roundTrip_overLoopback() throws Exception {
+        TaskList tasks = new TaskList(List.of(), null);
+        try (BoydServer server = new BoydServer(new Boyd(tasks), 0).start();
+             BoydClient client = new BoydClient("localhost", server.getPort())) {
+            assertTrue(client.getGreeting().message().contains("Boyd"));
+
+            BoydResponse added = client.send("todo read book");
+            assertTrue(added.message().contains("read book"));
+
+            BoydResponse list = client.send("list");
+            assertEquals("1. [T][ ] read book", list.message());
+
+            assertTrue(client.send("mark 9").isError());
+            assertTrue(client.send("bye").isExit());
+        }
+    }
+
+    @Test
+    void versions_roundTrip_andStaleWritesConflict() throws Exception {
+        TaskList tasks = new TaskList(List.of(), null);
+        try (BoydServer server = new BoydServer(new Boyd(tasks), 0).start();
+             BoydClient alice = new BoydClient("localhost", server.getPort());
+             BoydClient bob = new BoydClient("localhost", server.getPort())) {
+            alice.send("todo first");
+            alice.send("todo second");
+            BoydResponse seen = bob.send("list");
+            assertEquals(2, seen.version());
+
+            alice.send("delete 1");
+            BoydResponse stale = bob.send("delete 1 @v" + seen.version());
+            assertTrue(stale.isConflict());
+            assertEquals(3, stale.version());
+            assertEquals(1, tasks.size());
+
+            BoydResponse retried = bob.send("delete 1 @v" + stale.version());
+            assertFalse(retried.isError(), retried.message());
+            assertEquals(0, tasks.size());
+        }
+    }
+
+    @Test
+    void failedSaves_areFlagged() throws Exception {
+        Storage failing = new Storage() {
+            @Override
+            public void save(List<? extends Task> tasks) {
+                throw new RuntimeException("disk full");
+            }
+        };
+        TaskList tasks = new TaskList(List.of(), failing);
+        try (BoydServer server = new BoydServer(new Boyd(tasks), 0).start();
+             BoydClient client = new BoydClient("localhost", server.getPort())) {
+            BoydResponse added = client.send("todo read book");
+
+            assertFalse(added.isError(), added.message());
+            assertTrue(added.isSaveFailed());
+            assertEquals(1, added.version());
+            assertFalse(client.send("list").isSaveFailed());
+        }
+    }
+
+    @Test
+    void multiLineMessages_surviveFraming() throws Exception {
+        TaskList tasks = new TaskList(List.of(), null);
+        try (BoydServer server = new BoydServer(new Boyd(tasks), 0).start();
+             BoydClient client = new BoydClient("localhost", server.getPort())) {
+            client.send("todo .hidden");
+            client.send("todo plain");
+
+            BoydResponse list = client.send("list");
+            assertEquals("1. [T][ ] .hidden" + System.lineSeparator() + "2. [T][ ] plain", list.message());
+        }
+    }
+
+    @Test
+    void streamedList_arrivesLineByLine() throws Exception {
+        List<Task> initial = new ArrayList<>();
+        for (int i = 1; i <= Parser.CHUNK_LINES * 3; i++) {
+            initial.add(new ToDo(i == 5 ? ".dotted" : "task " + i));
+        }
+        TaskList tasks = new TaskList(initial, null);
+        try (BoydServer server = new BoydServer(new Boyd(tasks), 0).start();
+             BoydClient client = new BoydClient("localhost", server.getPort())) {
+            List<String> lines = new ArrayList<>();
+            BoydResponse list = client.send("list", lines::add);
+            assertFalse(list.isError());
+            assertEquals(tasks.getVersion(), list.version());
+            assertEquals(Parser.CHUNK_LINES * 3, lines.size());
+            assertEquals("5. [T][ ] .dotted", lines.get(4));
+            assertEquals(String.join(System.lineSeparator(), lines), client.send("list").message());
+        }
+    }
+
+    @Test
+    void manyConcurrentClients_allCommandsApplied() throws Exception {
+        TaskList tasks = new TaskList(List.of(), null);
+        int clients = 200;
+        int commandsPerClient = 20;
+        try (BoydServer server = new BoydServer(new Boyd(tasks), 0).start()) {
+            BoydLoadClient.Result result = BoydLoadClient.run(server.getPort(), clients, commandsPerClient);
+            System.out.println("BoydServer loopback load: " + result);
+
+            assertEquals(0, result.errors);
+            assertEquals(clients * commandsPerClient, result.commands);
+            assertEquals(clients * commandsPerClient / 2, tasks.size());
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package boyd.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+
+import boyd.Boyd;
+import boyd.tasks.Task;
+import boyd.tasks.ToDo;
+import boyd.utils.BoydResponse;
+import boyd.utils.TaskList;
+
+class ReplicationTest {
+
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    @Test
+    void follower_catchesUpFromSnapshot_thenAppliesLiveChanges() throws Exception {
+        TaskList tasks = new TaskList(List.of(), null);
+        Boyd leaderBoyd = new Boyd(tasks);
+        leaderBoyd.getResponse("todo read book");
+        leaderBoyd.getResponse("deadline return book /by 2025-09-20 18:00");
+
+        try (ReplicationLeader leader = new ReplicationLeader(tasks, 0, 100).start();
+             ReplicationFollower follower = new ReplicationFollower("localhost", leader.getPort(), 5_000).start()) {
+            awaitSameContent(tasks, follower.getTaskList());
+
+            leaderBoyd.getResponse("event party /from 2025-09-21 18:00 /to 2025-09-21 22:00");
+            leaderBoyd.getResponse("mark 1");
+            leaderBoyd.getResponse("delete 2");
+            leaderBoyd.getResponse("undo");
+            tasks.addAll(List.of(new ToDo("imported 1"), new ToDo("imported 2")));
+            awaitSameContent(tasks, follower.getTaskList());
+            assertEquals(tasks.getVersion(), follower.getTaskList().getVersion());
+
+            assertEquals(leaderBoyd.getResponse("list").message(), follower.getResponse("list").message());
+            assertEquals(leaderBoyd.getResponse("find book").message(), follower.getResponse("find book").message());
+        }
+    }
+
+    @Test
+    void follower_refusesWrites() throws Exception {
+        TaskList tasks = new TaskList(List.of(), null);
+        try (ReplicationLeader leader = new ReplicationLeader(tasks, 0, 100).start();
+             ReplicationFollower follower = new ReplicationFollower("localhost", leader.getPort(), 5_000).start()) {
+            BoydResponse response = follower.getResponse("todo sneaky");
+            assertTrue(response.isError());
+            assertEquals(ReplicationFollower.READ_ONLY_MESSAGE, response.message());
+            assertTrue(follower.getResponse("bye").isExit());
+            assertEquals(0, tasks.size());
+        }
+    }
+
+    @Test
+    void follower_withoutLeader_refusesStaleReads() {
+        try (ReplicationFollower follower = new ReplicationFollower("localhost", 1, 200).start()) {
+            BoydResponse response = follower.getResponse("list");
+            assertTrue(response.isError());
+            assertEquals(ReplicationFollower.STALE_MESSAGE, response.message());
+        }
+    }
+
+    @Test
+    void laggingFollower_getsSnapshot_onceLogIsTrimmed() throws Exception {
+        TaskList tasks = new TaskList(List.of(), null);
+        try (ReplicationLeader leader = new ReplicationLeader(tasks, 0, 4).start()) {
+            String epoch;
+            try (Socket socket = new Socket("localhost", leader.getPort())) {
+                epoch = handshake(socket, reader(socket), "-", 0);
+            }
+            for (int i = 0; i < 10; i++) {
+                tasks.add(new ToDo("t" + i));
+            }
+
+            // Version 7 is still in the log (versions 7..10): the follower gets the missing changes.
+            try (Socket socket = new Socket("localhost", leader.getPort())) {
+                BufferedReader in = reader(socket);
+                handshake(socket, in, epoch, 6);
+                assertTrue(in.readLine().startsWith("ADD 7 6 "));
+            }
+            // Version 2 was trimmed: the follower must start over from a snapshot.
+            try (Socket socket = new Socket("localhost", leader.getPort())) {
+                BufferedReader in = reader(socket);
+                handshake(socket, in, epoch, 1);
+                assertEquals("RESET 10 10", in.readLine());
+            }
+            // An unknown epoch always gets a snapshot.
+            try (Socket socket = new Socket("localhost", leader.getPort())) {
+                BufferedReader in = reader(socket);
+                handshake(socket, in, "0", 9);
+                assertEquals("RESET 10 10", in.readLine());
+            }
+        }
+    }
+
+    @Test
+    void followerBehindAReset_getsSnapshot() throws Exception {
+        TaskList tasks = new TaskList(List.of(), null);
+        try (ReplicationLeader leader = new ReplicationLeader(tasks, 0, 100).start()) {
+            String epoch;
+            try (Socket socket = new Socket("localhost", leader.getPort())) {
+                epoch = handshake(socket, reader(socket), "-", 0);
+            }
+            for (int i = 0; i < 3; i++) {
+                tasks.add(new ToDo("t" + i));
+            }
+            tasks.undo();
+            tasks.add(new ToDo("t3"));
+
+            // Version 4 is the undo: a follower that has not seen it starts over from a snapshot.
+            try (Socket socket = new Socket("localhost", leader.getPort())) {
+                BufferedReader in = reader(socket);
+                handshake(socket, in, epoch, 1);
+                assertEquals("RESET 5 3", in.readLine());
+            }
+            // A follower past it gets the missing changes as usual.
+            try (Socket socket = new Socket("localhost", leader.getPort())) {
+                BufferedReader in = reader(socket);
+                handshake(socket, in, epoch, 4);
+                assertTrue(in.readLine().startsWith("ADD 5 2 "));
+            }
+        }
+    }
+
+    @Test
+    void followerJvms_serveReplicatedReads_overLoopback() throws Exception {
+        TaskList tasks = new TaskList(List.of(), null);
+        Boyd leaderBoyd = new Boyd(tasks);
+        leaderBoyd.getResponse("todo read book");
+        List<Process> processes = new ArrayList<>();
+        try (ReplicationLeader leader = new ReplicationLeader(tasks, 0, 100).start()) {
+            List<Integer> ports = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                Process process = startFollowerJvm(leader.getPort());
+                processes.add(process);
+                ports.add(readListeningPort(process));
+            }
+            leaderBoyd.getResponse("todo return book");
+            leaderBoyd.getResponse("mark 2");
+            String expected = leaderBoyd.getResponse("list").message();
+
+            for (int port : ports) {
+                try (BoydClient client = new BoydClient("localhost", port)) {
+                    await(() -> expected.equals(send(client, "list").message()));
+                    assertEquals(ReplicationFollower.READ_ONLY_MESSAGE, client.send("delete 1").message());
+                }
+            }
+        } finally {
+            for (Process process : processes) {
+                process.destroy();
+            }
+        }
+    }
+
+    private static Process startFollowerJvm(int leaderPort) throws IOException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        return new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                ReplicationFollower.class.getName(), String.valueOf(leaderPort), "0", "5000")
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+    }
+
+    private static int readListeningPort(Process process) throws IOException {
+        BufferedReader out = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        String line = out.readLine();
+        assertTrue(line != null && line.startsWith("Boyd follower listening on "), "unexpected output: " + line);
+        return Integer.parseInt(line.substring(line.lastIndexOf(':') + 1));
+    }
+
+    /** Reads HELLO, sends FOLLOW, and returns the leader's epoch. */
+    private static String handshake(Socket socket, BufferedReader in, String epoch, long version)
+            throws IOException {
+        String hello = in.readLine();
+        assertTrue(hello.startsWith("HELLO "));
+        Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+        out.write("FOLLOW " + epoch + " " + version + "\n");
+        out.flush();
+        return hello.substring("HELLO ".length());
+    }
+
+    private static BufferedReader reader(Socket socket) throws IOException {
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    private static BoydResponse send(BoydClient client, String command) {
+        try {
+            return client.send(command);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void awaitSameContent(TaskList leader, TaskList follower) throws InterruptedException {
+        await(() -> leader.getVersion() == follower.getVersion()
+                && render(leader.getTasks()).equals(render(follower.getTasks())));
+    }
+
+    private static List<String> render(List<Task> tasks) {
+        List<String> rendered = new ArrayList<>();
+        for (Task task : tasks) {
+            rendered.add(task.toString());
+        }
+        return rendered;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met within " + TIMEOUT_MILLIS + " ms");
+            Thread.sleep(20);
+        }
+    }
+}
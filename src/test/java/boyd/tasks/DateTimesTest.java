@@ -0,0 +1,134 @@
+package boyd.tasks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks {@link DateTimes} against the {@code java.time} calls it replaces, input by input.
+ */
+class DateTimesTest {
+
+    private static final String[] YEARS = {"0000", "0001", "1900", "1999", "2000", "2023", "2024", "2100", "9999"};
+    private static final String[] ODD_INPUTS = {
+        "", " ", "2024-01-01 ", " 2024-01-01", "2024-1-01", "2024-01-1", "2024/01/01", "2024-01-01T10:00",
+        "+2024-01-01", "-0001-01-01", "+10000-01-01", "10000-01-01", "+99999-12-31 23:59", "-2024-02-29 10:00",
+        "２０２４-01-01", "2024-01-01  10:00", "2024-01-01 1000", "2024-01-01 10:0a",
+        "2024-01-01 10:00:00", "2024-01-01 9:00", "2024-01-01\t10:00", "2024-01-31 24:00", "9999-12-31 24:00",
+        "2024-02-30 24:00", "2024-01-01 24:01", "2024-01-01 -1:00",
+    };
+
+    @Test
+    void parseDate_matchesLocalDateParse() {
+        for (String text : inputs()) {
+            assertSame(() -> LocalDate.parse(text), () -> DateTimes.parseDate(text), text);
+        }
+    }
+
+    @Test
+    void parseDateTime_matchesPatternFormatter() {
+        for (String text : inputs()) {
+            assertSame(() -> LocalDateTime.parse(text, DateTimes.DATE_TIME_FORMAT),
+                    () -> DateTimes.parseDateTime(text), text);
+        }
+    }
+
+    @Test
+    void parseDateTimeParts_matchesParsingTheJoinedString() {
+        List<String> times = new ArrayList<>(times());
+        times.addAll(List.of("", "10", "10:00 ", "1000", "+1:00", "10:00:00", "10.00"));
+        List<String> dates = new ArrayList<>(dates());
+        dates.addAll(List.of("+10000-01-01", "-0001-12-31", "2024-01-01 ", "2024-1-1"));
+        for (String date : dates) {
+            for (String time : times) {
+                assertSame(() -> {
+                    LocalDate.parse(date);
+                    return LocalDateTime.parse(date + " " + time, DateTimes.DATE_TIME_FORMAT);
+                }, () -> DateTimes.parseDateTime(date, time), date + " | " + time);
+            }
+        }
+    }
+
+    @Test
+    void format_matchesPatternFormatter() {
+        Random random = new Random(36);
+        List<LocalDateTime> dateTimes = new ArrayList<>(List.of(
+                LocalDateTime.of(0, 1, 1, 0, 0), LocalDateTime.of(9999, 12, 31, 23, 59),
+                LocalDateTime.of(10_000, 1, 1, 0, 0), LocalDateTime.of(-1, 6, 15, 12, 30),
+                LocalDateTime.of(2019, 12, 2, 18, 0, 59, 999_999_999)));
+        for (int i = 0; i < 10_000; i++) {
+            LocalDate date = LocalDate.ofEpochDay(random.nextInt(3_000_000) - 1_000_000);
+            dateTimes.add(date.atTime(random.nextInt(24), random.nextInt(60)));
+        }
+        for (LocalDateTime dateTime : dateTimes) {
+            assertEquals(dateTime.format(DateTimes.DATE_TIME_FORMAT), DateTimes.format(dateTime), dateTime.toString());
+            StringBuilder iso = new StringBuilder("x");
+            DateTimes.appendIso(dateTime, iso);
+            assertEquals("x" + dateTime.format(DateTimes.ISO_FORMAT), iso.toString(), dateTime.toString());
+        }
+    }
+
+    /** Every date and datetime built from boundary fields, the odd inputs, and random strings. */
+    private static List<String> inputs() {
+        List<String> inputs = new ArrayList<>(List.of(ODD_INPUTS));
+        for (String date : dates()) {
+            inputs.add(date);
+            for (String time : times()) {
+                inputs.add(date + " " + time);
+            }
+        }
+        Random random = new Random(2019);
+        String alphabet = "0123456789--:: +";
+        for (int i = 0; i < 20_000; i++) {
+            char[] chars = new char[10 + random.nextInt(8)];
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = alphabet.charAt(random.nextInt(alphabet.length()));
+            }
+            inputs.add(new String(chars));
+        }
+        return inputs;
+    }
+
+    private static List<String> dates() {
+        List<String> dates = new ArrayList<>();
+        for (String year : YEARS) {
+            for (int month = 0; month <= 13; month++) {
+                for (int day = 0; day <= 32; day++) {
+                    dates.add(String.format("%s-%02d-%02d", year, month, day));
+                }
+            }
+        }
+        return dates;
+    }
+
+    private static List<String> times() {
+        List<String> times = new ArrayList<>();
+        for (int hour = 0; hour <= 25; hour++) {
+            for (int minute : new int[] {0, 1, 30, 59, 60, 99}) {
+                times.add(String.format("%02d:%02d", hour, minute));
+            }
+        }
+        return times;
+    }
+
+    /** Asserts both calls return equal values, or both throw {@link DateTimeParseException}. */
+    private static void assertSame(Supplier<Object> expected, Supplier<Object> actual, String input) {
+        assertEquals(outcome(expected), outcome(actual), "input: '" + input + "'");
+    }
+
+    private static String outcome(Supplier<Object> call) {
+        try {
+            return String.valueOf(call.get());
+        } catch (DateTimeParseException e) {
+            return "DateTimeParseException";
+        }
+    }
+}
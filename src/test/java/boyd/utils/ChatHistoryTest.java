@@ -0,0 +1,57 @@
+package boyd.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ChatHistoryTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void add_keepsMemoryBoundedAndReadsSpilledMessagesBack() {
+        Path spillFile = dir.resolve("chat.bin");
+        List<ChatMessage> added = new ArrayList<>();
+        try (ChatHistory history = new ChatHistory(100, spillFile)) {
+            for (int i = 0; i < 5_000; i++) {
+                ChatMessage.Sender sender = ChatMessage.Sender.values()[i % 3];
+                ChatMessage message = new ChatMessage(sender, "message " + i + (i % 7 == 0 ? "\ncafé 😀" : ""));
+                assertEquals(i, history.add(message));
+                added.add(message);
+                assertTrue(history.sizeInMemory() <= 100);
+            }
+            assertEquals(5_000, history.size());
+            assertTrue(Files.exists(spillFile));
+            // Newest first, as when scrolling up, then oldest first.
+            for (int i = 4_999; i >= 0; i--) {
+                assertEquals(added.get(i), history.get(i));
+            }
+            for (int i = 0; i < 5_000; i++) {
+                assertEquals(added.get(i), history.get(i));
+            }
+            assertThrows(IndexOutOfBoundsException.class, () -> history.get(5_000));
+        }
+        assertFalse(Files.exists(spillFile));
+    }
+
+    @Test
+    void add_withUnwritableSpillFile_keepsMessagesInMemory() {
+        try (ChatHistory history = new ChatHistory(4, dir.resolve("missing/dir/chat.bin"))) {
+            for (int i = 0; i < 20; i++) {
+                history.add(new ChatMessage(ChatMessage.Sender.USER, "m" + i));
+            }
+            assertEquals(20, history.sizeInMemory());
+            assertEquals("m0", history.get(0).getText());
+        }
+    }
+}
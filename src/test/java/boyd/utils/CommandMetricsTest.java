@@ -0,0 +1,146 @@
+package boyd.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CommandMetricsTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void handledLines_areRecordedByStageAndCommand() throws Exception {
+        CommandMetrics.reset();
+        TaskList tasks = new TaskList(List.of(), null);
+        Parser.handle("todo read book", tasks);
+        Parser.handle("TODO", tasks);
+        Parser.handle("fly to the moon", tasks);
+        Parser.handle(Parser.prepare("mark 1"), tasks);
+
+        Map<String, LatencyHistogram> histograms = CommandMetrics.histograms();
+        assertEquals(2, histograms.get("total todo").getCount());
+        assertEquals(1, histograms.get("total todo").getErrorCount());
+        assertEquals(1, histograms.get("total unknown").getErrorCount());
+        assertEquals(1, histograms.get("handle mark").getCount());
+        assertFalse(histograms.containsKey("total mark"), "prepared elsewhere: only handling is timed");
+        assertFalse(histograms.containsKey("handle todo"));
+
+        BoydResponse stats = Parser.handle("stats", tasks);
+        assertTrue(stats.message().startsWith("Latencies in microseconds:"));
+        assertTrue(stats.message().contains("total todo"));
+        assertTrue(stats.message().contains(" 50.0%"));
+
+        CommandMetrics.registerMBean();
+        CommandMetrics.registerMBean();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(CommandMetrics.OBJECT_NAME);
+        assertEquals(2L, server.getAttribute(name, "total.todo.count"));
+        assertEquals(0.5, server.getAttribute(name, "total.todo.errorRate"));
+        assertTrue((Double) server.getAttribute(name, "total.todo.p999Micros") > 0);
+        assertTrue(server.getMBeanInfo(name).getAttributes().length >= 6 * histograms.size());
+
+        server.invoke(name, "reset", new Object[0], new String[0]);
+        assertEquals("No commands measured yet.", CommandMetrics.report());
+    }
+
+    @Test
+    void saves_areRecorded() {
+        CommandMetrics.reset();
+        TaskList tasks = new TaskList(List.of(), new Storage(dir.resolve("boyd.txt").toString()));
+        tasks.setSaveListener(CommandMetrics.saveListener());
+        tasks.batch(() -> {
+            Parser.handle("todo a", tasks);
+            Parser.handle("todo b", tasks);
+        });
+        Parser.handle("todo c", tasks);
+        tasks.flush();
+
+        Map<String, LatencyHistogram> histograms = CommandMetrics.histograms();
+        assertEquals(1, histograms.get("save batch").getCount());
+        assertEquals(1, histograms.get("save todo").getCount());
+        assertEquals(1, histograms.get("save").getCount());
+    }
+
+    @Test
+    void commands_areTimedByStage() {
+        CommandMetrics.reset();
+        TaskList tasks = new TaskList(List.of(), new Storage(dir.resolve("boyd.txt").toString()));
+        tasks.setSaveListener(CommandMetrics.saveListener());
+        CommandMetrics.setStageSampleRate(1);
+        try {
+            Parser.handle("todo a", tasks);
+            Parser.handle("list", tasks);
+            Parser.handle(Parser.prepare("mark 1"), tasks);
+        } finally {
+            CommandMetrics.setStageSampleRate(CommandMetrics.DEFAULT_STAGE_SAMPLE_RATE);
+        }
+
+        Map<String, LatencyHistogram> histograms = CommandMetrics.histograms();
+        for (String stage : List.of("parse", "mutate", "save", "respond")) {
+            assertEquals(1, histograms.get(stage + " todo").getCount(), stage);
+            assertEquals(1, histograms.get(stage + " mark").getCount(), stage);
+        }
+        assertEquals(1, histograms.get("parse list").getCount());
+        assertEquals(1, histograms.get("respond list").getCount());
+        assertFalse(histograms.containsKey("mutate list"), "a read changes nothing");
+        assertFalse(histograms.containsKey("save list"));
+    }
+
+    @Test
+    void stages_areSampled() {
+        CommandMetrics.reset();
+        TaskList tasks = new TaskList(List.of(), null);
+        tasks.setSaveListener(CommandMetrics.saveListener());
+        for (int i = 0; i < 1_000; i++) {
+            Parser.handle("todo a", tasks);
+        }
+
+        Map<String, LatencyHistogram> histograms = CommandMetrics.histograms();
+        assertEquals(1_000, histograms.get("total todo").getCount());
+        long sampled = histograms.get("respond todo").getCount();
+        assertTrue(sampled > 0 && sampled < 200, "about one in 16: " + sampled);
+        assertEquals(sampled, histograms.get("mutate todo").getCount());
+    }
+
+    @Test
+    void saves_areRecordedOnlyForListsWithTheListener() {
+        CommandMetrics.reset();
+        TaskList tasks = new TaskList(List.of(), new Storage(dir.resolve("boyd.txt").toString()));
+        Parser.handle("todo a", tasks);
+
+        Map<String, LatencyHistogram> histograms = CommandMetrics.histograms();
+        assertEquals(1, histograms.get("total todo").getCount());
+        assertFalse(histograms.containsKey("mutate todo"));
+        assertFalse(histograms.containsKey("save todo"));
+    }
+
+    @Test
+    void disabledMetrics_recordNothing() {
+        CommandMetrics.reset();
+        TaskList tasks = new TaskList(List.of(), new Storage(dir.resolve("boyd.txt").toString()));
+        tasks.setSaveListener(CommandMetrics.saveListener());
+        CommandMetrics.setEnabled(false);
+        try {
+            Parser.handle("todo a", tasks);
+            Parser.handle(Parser.prepare("mark 1"), tasks);
+            tasks.flush();
+        } finally {
+            CommandMetrics.setEnabled(true);
+        }
+
+        assertTrue(CommandMetrics.histograms().isEmpty());
+        assertEquals(1, tasks.size());
+    }
+}
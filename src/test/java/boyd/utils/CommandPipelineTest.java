@@ -0,0 +1,241 @@
+package boyd.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import boyd.tasks.Task;
+import boyd.tasks.ToDo;
+
+class CommandPipelineTest {
+
+    @TempDir
+    Path dir;
+
+    private static class CountingStorage extends Storage {
+        private final AtomicInteger saves = new AtomicInteger();
+        private volatile int lastSavedSize = -1;
+
+        @Override
+        public void save(List<? extends Task> tasks) {
+            saves.incrementAndGet();
+            lastSavedSize = tasks.size();
+        }
+    }
+
+    @Test
+    void manyProducers_keepProgramOrder_andBatchSaves() throws Exception {
+        int producers = 8;
+        int commandsPerProducer = 2_000;
+        CountingStorage storage = new CountingStorage();
+        TaskList tasks = new TaskList(List.of(), storage);
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        try (CommandPipeline pipeline = new CommandPipeline(tasks, 256, 2)) {
+            List<Future<List<CompletableFuture<BoydResponse>>>> submitted = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                final int producer = p;
+                submitted.add(pool.submit(() -> {
+                    List<CompletableFuture<BoydResponse>> futures = new ArrayList<>();
+                    for (int i = 0; i < commandsPerProducer; i++) {
+                        futures.add(pipeline.submit(i % 2 == 0
+                                ? "todo " + producer + ":" + i
+                                : "deadline " + producer + ":" + i + " /by 2024-02-29 23:59"));
+                    }
+                    return futures;
+                }));
+            }
+            for (Future<List<CompletableFuture<BoydResponse>>> f : submitted) {
+                for (CompletableFuture<BoydResponse> response : f.get(60, TimeUnit.SECONDS)) {
+                    assertFalse(response.get(60, TimeUnit.SECONDS).isError());
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(producers * commandsPerProducer, tasks.size());
+        assertEquals(tasks.size(), storage.lastSavedSize);
+        assertTrue(storage.saves.get() <= producers * commandsPerProducer);
+        int[] next = new int[producers];
+        for (Task t : tasks.getTasks()) {
+            String[] parts = t.getDescription().split(":");
+            int producer = Integer.parseInt(parts[0]);
+            assertEquals(next[producer]++, Integer.parseInt(parts[1]));
+        }
+    }
+
+    @Test
+    void responses_matchSequentialParser() throws Exception {
+        List<String> script = List.of("list", "todo read book", "deadline return book",
+                "deadline return book /by 2019-12-02 18:00", "event x /from 2019-12-02 /to nope",
+                "mark 2", "find book", "delete 1", "blah", "undo", "list");
+        TaskList sequential = new TaskList(List.of(), null);
+        TaskList piped = new TaskList(List.of(), null);
+        try (CommandPipeline pipeline = new CommandPipeline(piped, 4, 3)) {
+            List<CompletableFuture<BoydResponse>> futures = new ArrayList<>();
+            for (String line : script) {
+                if (line.startsWith("list") || line.startsWith("find")) {
+                    // Reads are answered at once, so wait for the changes before them, as a client would.
+                    CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+                }
+                futures.add(pipeline.submit(line));
+            }
+            for (int i = 0; i < script.size(); i++) {
+                BoydResponse expected = Parser.handle(script.get(i), sequential);
+                BoydResponse actual = futures.get(i).get(30, TimeUnit.SECONDS);
+                assertEquals(expected.message(), actual.message());
+                assertEquals(expected.isError(), actual.isError());
+            }
+        }
+    }
+
+    @Test
+    void reads_areAnsweredWithoutWaitingForWriters() throws Exception {
+        TaskList tasks = new TaskList(List.of(new ToDo("read book")), null);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread writer = holdWriteLock(tasks, release);
+        try (CommandPipeline pipeline = new CommandPipeline(tasks, 4, 1)) {
+            CompletableFuture<BoydResponse> add = pipeline.submit("todo return book");
+            CompletableFuture<BoydResponse> list = pipeline.submit("list");
+
+            assertTrue(list.isDone(), "a read does not wait for the write lock");
+            assertEquals("1. [T][ ] read book", list.get().message());
+            assertFalse(add.isDone());
+
+            release.countDown();
+            assertFalse(add.get(30, TimeUnit.SECONDS).isError());
+        } finally {
+            release.countDown();
+            writer.join();
+        }
+    }
+
+    @Test
+    void import_readsItsFileBeforeWaitingForWriters() throws Exception {
+        TaskList tasks = new TaskList(List.of(), new Storage(dir.resolve("boyd.txt").toString()));
+        Path file = Files.createDirectories(dir.resolve(TaskImporter.DIRECTORY_NAME)).resolve("in.txt");
+        Files.write(file, List.of("todo a", "todo b"));
+        CountDownLatch release = new CountDownLatch(1);
+        Thread writer = holdWriteLock(tasks, release);
+        try (CommandPipeline pipeline = new CommandPipeline(tasks, 4, 1)) {
+            CompletableFuture<BoydResponse> imported = pipeline.submit("import in.txt");
+            // The file has been read by the time submit returns, while another writer still holds the list.
+            Files.delete(file);
+            assertFalse(imported.isDone());
+
+            release.countDown();
+            assertFalse(imported.get(30, TimeUnit.SECONDS).isError());
+            assertEquals(2, tasks.size());
+        } finally {
+            release.countDown();
+            writer.join();
+        }
+    }
+
+    @Test
+    void failedSave_keepsResponses_andFlagsThem() throws Exception {
+        Storage failing = new Storage() {
+            @Override
+            public void save(List<? extends Task> tasks) {
+                throw new RuntimeException("disk full");
+            }
+        };
+        TaskList tasks = new TaskList(List.of(), failing);
+        try (CommandPipeline pipeline = new CommandPipeline(tasks, 4, 1)) {
+            BoydResponse added = pipeline.submit("todo read book").get(30, TimeUnit.SECONDS);
+
+            assertFalse(added.isError());
+            assertTrue(added.isSaveFailed());
+            assertTrue(added.message().contains("read book"));
+            assertEquals(1, added.version());
+            assertEquals(1, tasks.size());
+        }
+    }
+
+    @Test
+    void close_completesEveryFuture() throws Exception {
+        TaskList tasks = new TaskList(List.of(), null);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<List<CompletableFuture<BoydResponse>>>> submitted = new ArrayList<>();
+        CommandPipeline pipeline = new CommandPipeline(tasks, 8, 2);
+        for (int p = 0; p < 4; p++) {
+            submitted.add(pool.submit(() -> {
+                List<CompletableFuture<BoydResponse>> futures = new ArrayList<>();
+                try {
+                    for (int i = 0; i < 10_000; i++) {
+                        futures.add(pipeline.submit("todo " + i));
+                    }
+                } catch (IllegalStateException e) {
+                    // Closed while submitting.
+                }
+                return futures;
+            }));
+        }
+        Thread.sleep(20);
+        pipeline.close();
+        pool.shutdown();
+
+        for (Future<List<CompletableFuture<BoydResponse>>> f : submitted) {
+            for (CompletableFuture<BoydResponse> future : f.get(30, TimeUnit.SECONDS)) {
+                try {
+                    future.get(30, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    assertTrue(e.getCause() instanceof IllegalStateException);
+                }
+            }
+        }
+    }
+
+    @Test
+    void idlePipeline_parksItsThreads() throws Exception {
+        TaskList tasks = new TaskList(List.of(), null);
+        try (CommandPipeline pipeline = new CommandPipeline(tasks, 4, 2)) {
+            pipeline.submit("todo a").get(30, TimeUnit.SECONDS);
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (!allPipelineThreadsWaiting() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(allPipelineThreadsWaiting());
+            assertEquals(2, pipeline.submit("todo b").get(30, TimeUnit.SECONDS).version());
+        }
+    }
+
+    private static boolean allPipelineThreadsWaiting() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(t -> t.getName().startsWith("boyd-pipeline-"))
+                .allMatch(t -> t.getState() == Thread.State.WAITING);
+    }
+
+    /** Starts a thread that holds {@code tasks}' write lock, inside a batch, until {@code release}. */
+    private static Thread holdWriteLock(TaskList tasks, CountDownLatch release) throws InterruptedException {
+        CountDownLatch holding = new CountDownLatch(1);
+        Thread writer = new Thread(() -> tasks.batch(() -> {
+            holding.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        writer.start();
+        holding.await();
+        return writer;
+    }
+}
@@ -0,0 +1,41 @@
+package boyd.utils;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class CommandTableTest {
+
+    private static final CommandHandler A = (command, tasks) -> BoydResponse.ok("a");
+    private static final CommandHandler B = (command, tasks) -> BoydResponse.ok("b");
+
+    @Test
+    void lookup_ignoresCase_andMatchesWholeKeywordsOnly() {
+        CommandTable table = CommandTable.empty().with("mark", A).with("market", B);
+        assertSame(A, table.lookup("MaRk"));
+        assertSame(B, table.lookup("market"));
+        assertNull(table.lookup("mar"));
+        assertNull(table.lookup("marks"));
+        assertNull(table.lookup(""));
+        assertNull(table.lookup("märk"));
+    }
+
+    @Test
+    void with_leavesOriginalTableUnchanged() {
+        CommandTable original = CommandTable.empty().with("list", A);
+        CommandTable updated = original.with("List", B).with("find", A);
+        assertSame(A, original.lookup("list"));
+        assertNull(original.lookup("find"));
+        assertSame(B, updated.lookup("list"));
+        assertSame(A, updated.lookup("find"));
+    }
+
+    @Test
+    void with_rejectsInvalidKeywords() {
+        assertThrows(IllegalArgumentException.class, () -> CommandTable.empty().with("", A));
+        assertThrows(IllegalArgumentException.class, () -> CommandTable.empty().with("two words", A));
+        assertThrows(IllegalArgumentException.class, () -> CommandTable.empty().with("list", null));
+    }
+}
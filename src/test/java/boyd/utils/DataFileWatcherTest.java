@@ -0,0 +1,114 @@
+package boyd.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import boyd.tasks.Task;
+import boyd.tasks.ToDo;
+
+class DataFileWatcherTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void reload_appliesOnlyTheChangedLines() throws IOException {
+        Storage storage = new Storage(dir.resolve("boyd.txt").toString());
+        TaskList tasks = new TaskList(storage.load(), storage);
+        for (String name : List.of("a", "b", "c", "d")) {
+            tasks.add(new ToDo(name));
+        }
+        List<String> events = new ArrayList<>();
+        tasks.addListener(new TaskListListener() {
+            @Override
+            public void onAdded(int index, Task task, long version) {
+                events.add("add " + index + " " + task);
+            }
+
+            @Override
+            public void onRemoved(int index, Task task, long version) {
+                events.add("remove " + index);
+            }
+
+            @Override
+            public void onReplaced(int index, Task oldTask, Task newTask, long version) {
+                events.add("set " + index + " " + newTask);
+            }
+        });
+        DataFileWatcher watcher = new DataFileWatcher(tasks, storage);
+
+        writeLines("T | 0 | a", "T | 0 | b", "T | 1 | c", "T | 0 | d");
+        assertEquals(1, watcher.reload());
+        writeLines("T | 0 | a", "T | 1 | c", "T | 0 | d");
+        assertEquals(1, watcher.reload());
+        writeLines("T | 0 | a", "T | 1 | c", "T | 0 | d", "T | 0 | e");
+        assertEquals(1, watcher.reload());
+
+        assertEquals(List.of("set 2 [T][X] c", "remove 1", "add 3 [T][ ] e"), events);
+        assertEquals("[T][ ] a|[T][X] c|[T][ ] d|[T][ ] e", render(tasks));
+
+        // The app's own saves leave nothing to apply.
+        tasks.add(new ToDo("f"));
+        assertEquals(0, watcher.reload());
+        assertEquals(5, tasks.size());
+    }
+
+    @Test
+    void reload_ignoresHalfWrittenFile() throws IOException {
+        Storage storage = new Storage(dir.resolve("boyd.txt").toString());
+        TaskList tasks = new TaskList(storage.load(), storage);
+        tasks.add(new ToDo("a"));
+        DataFileWatcher watcher = new DataFileWatcher(tasks, storage);
+
+        writeLines("T | 0 | a", "T | 0");
+        assertEquals(0, watcher.reload());
+        assertEquals(1, tasks.size());
+
+        writeLines("T | 0 | a", "T | 0 | b");
+        assertEquals(1, watcher.reload());
+        assertEquals(2, tasks.size());
+    }
+
+    @Test
+    void watcher_appliesExternalWrites() throws Exception {
+        Storage storage = new Storage(dir.resolve("boyd.txt").toString());
+        TaskList tasks = new TaskList(storage.load(), storage);
+        tasks.add(new ToDo("a"));
+        try (DataFileWatcher watcher = new DataFileWatcher(tasks, storage).start()) {
+            writeLines("T | 0 | a", "T | 0 | written by another tool");
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (tasks.size() < 2) {
+                assertTrue(System.currentTimeMillis() < deadline, "external write was not picked up");
+                Thread.sleep(20);
+            }
+            assertEquals("[T][ ] a|[T][ ] written by another tool", render(tasks));
+
+            // The next save keeps the other tool's task.
+            tasks.add(new ToDo("c"));
+            assertEquals(3, storage.load().size());
+        }
+    }
+
+    private void writeLines(String... lines) throws IOException {
+        Files.write(dir.resolve("boyd.txt"), List.of(lines), StandardCharsets.UTF_8);
+    }
+
+    private static String render(TaskList tasks) {
+        List<String> rendered = new ArrayList<>();
+        for (Task task : tasks.getTasks()) {
+            rendered.add(task.toString());
+        }
+        return String.join("|", rendered);
+    }
+}
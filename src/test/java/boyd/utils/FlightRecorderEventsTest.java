@@ -0,0 +1,73 @@
+package boyd.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import boyd.tasks.ToDo;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+class FlightRecorderEventsTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void commandsLoadsAndSaves_areRecorded() throws IOException {
+        Path recordingFile = dir.resolve("boyd.jfr");
+        Path saveFile = dir.resolve("boyd.txt");
+        Storage storage = new Storage(saveFile.toString());
+        try (Recording recording = new Recording()) {
+            recording.enable("boyd.Command").withThreshold(Duration.ZERO);
+            recording.enable("boyd.StorageLoad");
+            recording.enable("boyd.StorageSave");
+            recording.start();
+
+            TaskList tasks = new TaskList(List.of(new ToDo("read book")), storage);
+            Parser.handle("  todo return book  ", tasks);
+            Parser.handle("delete 9", tasks);
+            Parser.handle(Parser.prepare("mark 1"), tasks);
+            storage.load();
+
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile);
+        List<RecordedEvent> commands = ofType(events, "boyd.Command");
+        assertEquals(3, commands.size());
+        assertEquals("todo", commands.get(0).getString("command"));
+        assertEquals("todo return book".length(), commands.get(0).getInt("inputLength"));
+        assertEquals("ok", commands.get(0).getString("outcome"));
+        assertEquals("error", commands.get(1).getString("outcome"));
+        assertTrue(commands.get(2).getBoolean("isParsedAhead"));
+
+        List<RecordedEvent> saves = ofType(events, "boyd.StorageSave");
+        assertEquals(2, saves.size(), "the add and the mark saved; the failed delete did not");
+        assertEquals(2, saves.get(1).getInt("tasks"));
+        assertEquals(Files.size(saveFile), saves.get(1).getLong("bytes"));
+
+        RecordedEvent load = ofType(events, "boyd.StorageLoad").get(0);
+        assertEquals(2, load.getInt("lines"));
+        assertEquals(2, load.getInt("tasks"));
+        assertEquals(Files.size(saveFile), load.getLong("bytes"));
+    }
+
+    private static List<RecordedEvent> ofType(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .sorted((a, b) -> a.getStartTime().compareTo(b.getStartTime()))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,74 @@
+package boyd.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+    @Test
+    void buckets_coverEveryValueOnceWithinPrecision() {
+        int previous = -1;
+        long value = 0;
+        while (value <= LatencyHistogram.MAX_TRACKABLE_NANOS) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(index >= previous, "indexes rise with values");
+            previous = index;
+            long highest = LatencyHistogram.highestValueIn(index);
+            assertTrue(highest >= value);
+            assertTrue(highest - value <= value / LatencyHistogram.SUB_BUCKETS, "within 1/64 of " + value);
+            assertEquals(index, LatencyHistogram.indexOf(highest));
+            if (highest < LatencyHistogram.MAX_TRACKABLE_NANOS) {
+                assertEquals(index + 1, LatencyHistogram.indexOf(highest + 1));
+            }
+            value = value < 4096 ? value + 1 : value * 17 / 16;
+        }
+    }
+
+    @Test
+    void percentiles_matchRecordedValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(99));
+        for (long micros = 1; micros <= 1_000; micros++) {
+            histogram.record(micros * 1_000, micros % 100 == 0);
+        }
+        assertEquals(1_000, histogram.getCount());
+        assertEquals(10, histogram.getErrorCount());
+        assertEquals(1_000_000, histogram.getMaxNanos());
+        assertEquals(500_000, histogram.getValueAtPercentile(50), 500_000 / 64.0);
+        assertEquals(990_000, histogram.getValueAtPercentile(99), 990_000 / 64.0);
+        assertEquals(1_000_000, histogram.getValueAtPercentile(100));
+        assertEquals(1_000, histogram.getValueAtPercentile(0), 1_000 / 64.0);
+        assertThrows(IllegalArgumentException.class, () -> histogram.getValueAtPercentile(101));
+
+        histogram.record(-5, false);
+        histogram.record(Long.MAX_VALUE, false);
+        assertEquals(1_002, histogram.getCount());
+        assertEquals(Long.MAX_VALUE, histogram.getMaxNanos());
+    }
+
+    @Test
+    void concurrentRecords_areAllCounted() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    histogram.record(i, false);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(200_000, histogram.getCount());
+        assertEquals(49_999, histogram.getMaxNanos());
+    }
+}
@@ -0,0 +1,76 @@
+package boyd.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import boyd.tasks.Task;
+import boyd.tasks.ToDo;
+import javafx.collections.ListChangeListener;
+
+class ObservableTaskListTest {
+
+    /** Stands in for the UI thread: runs queued tasks when asked. */
+    private final List<Runnable> uiQueue = new ArrayList<>();
+
+    private void runUiQueue() {
+        while (!uiQueue.isEmpty()) {
+            uiQueue.remove(0).run();
+        }
+    }
+
+    @Test
+    void changes_areAppliedInOrderAsOneEventPerDrain() {
+        TaskList source = new TaskList(List.of(new ToDo("a"), new ToDo("b")), null);
+        ObservableTaskList rows = new ObservableTaskList(source, uiQueue::add);
+        List<String> events = new ArrayList<>();
+        rows.addListener((ListChangeListener<Task>) change -> {
+            StringBuilder sb = new StringBuilder();
+            while (change.next()) {
+                sb.append(change.wasReplaced() ? "set" : change.wasAdded() ? "add" : "remove")
+                        .append(change.getFrom()).append(' ');
+            }
+            events.add(sb.toString().trim());
+        });
+        assertEquals(2, rows.size());
+
+        source.add(new ToDo("c"));
+        source.mark(1);
+        source.remove(2);
+        assertEquals(2, rows.size(), "nothing changes until the UI thread runs");
+        runUiQueue();
+
+        assertEquals(1, events.size());
+        assertEquals(source.getTasks(), rows);
+        assertTrue(rows.get(0).isDone());
+
+        source.undo();
+        runUiQueue();
+        assertEquals(source.getTasks(), rows);
+        assertEquals(2, events.size());
+
+        source.addAll(List.of(new ToDo("e"), new ToDo("f")));
+        runUiQueue();
+        assertEquals(source.getTasks(), rows);
+        assertEquals("add3", events.get(2));
+
+        rows.close();
+        source.add(new ToDo("d"));
+        runUiQueue();
+        assertEquals(2, rows.size());
+    }
+
+    @Test
+    void findFilter_matchesLikeFind() {
+        TaskList source = new TaskList(List.of(new ToDo("Read BOOK"), new ToDo("run")), null);
+        assertTrue(ObservableTaskList.findFilter(" book ").test(source.get(0)));
+        assertFalse(ObservableTaskList.findFilter("book").test(source.get(1)));
+        assertTrue(ObservableTaskList.findFilter("").test(source.get(1)));
+        assertEquals(1, source.find("book").size());
+    }
+}
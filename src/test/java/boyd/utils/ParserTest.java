@@ -1,14 +1,19 @@
 package boyd.utils;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 
 import boyd.exceptions.BoydException;
 import boyd.tasks.Deadline;
 import boyd.tasks.Task;
+import boyd.tasks.ToDo;
 
 
 class ParserTest {
@@ -32,4 +37,117 @@ class ParserTest {
         assertThrows(BoydException.class, ()
                 -> Parser.parseTask("event meeting /from 2025-10-20 10:20"));
     }
+
+    @Test
+    void handle_keepsErrorMessages() {
+        TaskList tasks = new TaskList(List.of(), null);
+        assertEquals("Command cannot be empty.", Parser.handle("   ", tasks).message());
+        assertEquals("Unknown command: blah", Parser.handle("blah blah", tasks).message());
+        assertEquals("Unknown command: list", Parser.handle("list x", tasks).message());
+        assertEquals("Command should be: \"mark <number>\"", Parser.handle("mark", tasks).message());
+        assertEquals("You must enter a valid number after 'delete'.", Parser.handle("delete 1 2", tasks).message());
+        assertEquals("Command should be: \"find <keyword>\"", Parser.handle("find", tasks).message());
+        assertEquals("The description of a todo cannot be empty!", Parser.handle("todo", tasks).message());
+        assertEquals("Deadline must have a description and a '/by' date.",
+                Parser.handle("deadline /by 2020-01-01", tasks).message());
+        assertEquals("Event must have both a '/from' and a '/to' time.",
+                Parser.handle("event x /from /to 2020-01-01 11:00", tasks).message());
+        assertEquals(0, tasks.size());
+    }
+
+    @Test
+    void parseTask_findsMarkersAsWholeWordsOnly() {
+        Task deadline = Parser.parseTask("deadline x/by y /byx z /by 2020-01-01");
+        assertEquals("x/by y /byx z", deadline.getDescription());
+
+        Task event = Parser.parseTask("event a /to b /from 2020-01-01 10:00 /to 2020-01-01 11:00");
+        assertEquals("a /to b", event.getDescription());
+    }
+
+    @Test
+    void keywords_areCaseInsensitive() {
+        TaskList tasks = new TaskList(List.of(new ToDo("read book")), null);
+        assertEquals("1. [T][ ] read book", Parser.handle("LiSt", tasks).message());
+        assertTrue(Parser.handle("MARK 1", tasks).message().contains("[T][X] read book"));
+        assertEquals("1. [T][X] read book", Parser.handle("Find book", tasks).message());
+    }
+
+    @Test
+    void register_addsPluggableCommand() {
+        Parser.register("count", (command, tasks) -> BoydResponse.ok("You have " + tasks.size() + " tasks."));
+        TaskList tasks = new TaskList(List.of(new ToDo("a"), new ToDo("b")), null);
+        assertEquals("You have 2 tasks.", Parser.handle("COUNT", tasks).message());
+        assertEquals("Unknown command: counts", Parser.handle("counts", tasks).message());
+    }
+
+    @Test
+    void list_showsPages_andReusesRenderUntilChanged() {
+        List<Task> initial = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            initial.add(new ToDo("t" + i));
+        }
+        TaskList tasks = new TaskList(initial, null);
+        String nl = System.lineSeparator();
+
+        assertEquals("3. [T][ ] t3" + nl + "4. [T][ ] t4" + nl + "Page 2 of 3 (tasks 3-4 of 5).",
+                Parser.handle("list 2 2", tasks).message());
+        assertEquals("5. [T][ ] t5" + nl + "Page 3 of 3 (tasks 5-5 of 5).", Parser.handle("list 3 2", tasks).message());
+        assertEquals("There is no page 4: the list has 3 page(s) of 2 tasks.",
+                Parser.handle("list 4 2", tasks).message());
+        assertEquals("Page and page size must be at least 1.", Parser.handle("list 1 0", tasks).message());
+        assertEquals("Unknown command: list", Parser.handle("list 1 2 3", tasks).message());
+        assertTrue(Parser.handle("list 1", tasks).message().endsWith("Page 1 of 1 (tasks 1-5 of 5)."));
+
+        String first = Parser.handle("list", tasks).message();
+        assertSame(first, Parser.handle("list", tasks).message());
+        String unchangedLine = tasks.get(2).toDisplayString();
+
+        Parser.handle("mark 4", tasks);
+        String second = Parser.handle("list", tasks).message();
+        assertTrue(second.contains("4. [T][X] t4"));
+        assertEquals(first.replace("4. [T][ ] t4", "4. [T][X] t4"), second);
+        assertSame(unchangedLine, tasks.get(2).toDisplayString());
+    }
+
+    @Test
+    void responses_carryTheVersionTheyCommitted() {
+        TaskList tasks = new TaskList(List.of(), null);
+
+        assertEquals(1, Parser.handle("todo a", tasks).version());
+        assertEquals(2, Parser.handle("todo b", tasks).version());
+        BoydResponse delete = Parser.handle("delete 1 @v2", tasks);
+        assertEquals(3, delete.version());
+        assertTrue(delete.message().endsWith("Now you have 1 tasks in this list."));
+        assertEquals(4, Parser.handle("undo @v3", tasks).version());
+        assertEquals(5, Parser.handle("redo", tasks).version());
+        assertEquals(BoydResponse.NO_VERSION, Parser.handle("stats", tasks).version());
+    }
+
+    @Test
+    void largeListAndFind_areStreamedInChunks() {
+        int count = Parser.CHUNK_LINES * 2 + 10;
+        List<Task> initial = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            initial.add(new ToDo((i % 2 == 0 ? "even " : "odd ") + i));
+        }
+        TaskList tasks = new TaskList(initial, null);
+
+        BoydResponse list = Parser.handle("list", tasks);
+        assertTrue(list.isStreamed());
+        assertEquals(tasks.getVersion(), list.version());
+        List<String> chunks = new ArrayList<>();
+        list.chunks().forEach(chunks::add);
+        assertEquals(3, chunks.size());
+        assertTrue(chunks.get(2).startsWith((Parser.CHUNK_LINES * 2 + 1) + ". [T][ ] odd "));
+        String[] lines = list.message().split(System.lineSeparator());
+        assertEquals(count, lines.length);
+        assertEquals(count + ". [T][ ] even " + count, lines[count - 1]);
+
+        BoydResponse find = Parser.handle("find EVEN", tasks);
+        assertTrue(find.isStreamed());
+        String[] matches = find.message().split(System.lineSeparator());
+        assertEquals(count / 2, matches.length);
+        assertEquals("1. [T][ ] even 2", matches[0]);
+        assertEquals("No matching tasks found.", Parser.handle("find nothing", tasks).message());
+    }
 }
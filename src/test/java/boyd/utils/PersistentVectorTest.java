@@ -0,0 +1,54 @@
+package boyd.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class PersistentVectorTest {
+
+    @Test
+    void randomEdits_matchArrayList() {
+        Random random = new Random(42);
+        PersistentVector<Integer> vector = PersistentVector.empty();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            int op = random.nextInt(4);
+            if (op == 0 && !expected.isEmpty()) {
+                int idx = random.nextInt(expected.size());
+                expected.remove(idx);
+                vector = vector.remove(idx);
+            } else if (op == 1 && !expected.isEmpty()) {
+                int idx = random.nextInt(expected.size());
+                expected.set(idx, i);
+                vector = vector.set(idx, i);
+            } else {
+                int idx = random.nextInt(expected.size() + 1);
+                expected.add(idx, i);
+                vector = vector.insert(idx, i);
+            }
+        }
+        assertEquals(expected, vector.asList());
+        assertEquals(expected, PersistentVector.of(expected).asList());
+    }
+
+    @Test
+    void updates_leaveOldVersionsUntouched() {
+        PersistentVector<String> v1 = PersistentVector.of(List.of("a", "b", "c"));
+        PersistentVector<String> v2 = v1.remove(1).append("d").set(0, "z");
+
+        assertEquals(List.of("a", "b", "c"), v1.asList());
+        assertEquals(List.of("z", "c", "d"), v2.asList());
+    }
+
+    @Test
+    void get_outOfRange_throws() {
+        PersistentVector<String> v = PersistentVector.of(List.of("a"));
+        assertThrows(IndexOutOfBoundsException.class, () -> v.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> v.insert(2, "b"));
+    }
+}
@@ -0,0 +1,90 @@
+package boyd.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class RenderCoalescerTest {
+
+    /** Stands in for the UI thread: runs queued tasks when asked. */
+    private final List<Runnable> uiQueue = new ArrayList<>();
+
+    private void runUiQueue() {
+        while (!uiQueue.isEmpty()) {
+            uiQueue.remove(0).run();
+        }
+    }
+
+    @Test
+    void burst_isRenderedAsOneBatchInOrder() {
+        List<List<Integer>> batches = new ArrayList<>();
+        RenderCoalescer<Integer> coalescer = new RenderCoalescer<>(uiQueue::add, batches::add);
+        for (int i = 0; i < 1_000; i++) {
+            coalescer.submit(i);
+        }
+        assertEquals(1, uiQueue.size(), "one render scheduled for the whole burst");
+        runUiQueue();
+
+        assertEquals(1, batches.size());
+        assertEquals(1_000, batches.get(0).size());
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(Integer.valueOf(i), batches.get(0).get(i));
+        }
+
+        coalescer.submit(1_000);
+        runUiQueue();
+        assertEquals(List.of(1_000), batches.get(1));
+
+        coalescer.close();
+        coalescer.submit(1_001);
+        runUiQueue();
+        assertEquals(2, batches.size());
+    }
+
+    @Test
+    void concurrentSubmits_areAllRenderedOnTheUiThread() throws Exception {
+        ExecutorService uiThread = Executors.newSingleThreadExecutor(r -> new Thread(r, "fake-ui"));
+        List<Integer> rendered = new ArrayList<>();
+        List<String> threads = new ArrayList<>();
+        RenderCoalescer<Integer> coalescer = new RenderCoalescer<>(uiThread, batch -> {
+            rendered.addAll(batch);
+            threads.add(Thread.currentThread().getName());
+        });
+        int writers = 4;
+        int perWriter = 10_000;
+        CountDownLatch done = new CountDownLatch(writers);
+        for (int w = 0; w < writers; w++) {
+            int base = w * perWriter;
+            new Thread(() -> {
+                for (int i = 0; i < perWriter; i++) {
+                    coalescer.submit(base + i);
+                }
+                done.countDown();
+            }).start();
+        }
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        uiThread.submit(() -> { }).get(30, TimeUnit.SECONDS);
+        uiThread.shutdown();
+        assertTrue(uiThread.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(writers * perWriter, rendered.size());
+        assertTrue(threads.stream().allMatch("fake-ui"::equals));
+        // Each writer's items keep their relative order.
+        int[] last = new int[writers];
+        Arrays.fill(last, -1);
+        for (int item : rendered) {
+            int writer = item / perWriter;
+            assertTrue(item > last[writer]);
+            last[writer] = item;
+        }
+    }
+}
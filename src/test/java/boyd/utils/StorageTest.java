@@ -0,0 +1,85 @@
+package boyd.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import boyd.tasks.Deadline;
+import boyd.tasks.Event;
+import boyd.tasks.Task;
+import boyd.tasks.ToDo;
+
+class StorageTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void save_writesEachRecordAndLineSeparatorAsUtf8() throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        String[] descriptions = {"read book", "café 中文", "smile 😀", "lone \ud800 surrogate"};
+        // Enough tasks to span several write blocks.
+        for (int i = 0; i < 6_000; i++) {
+            String description = descriptions[i % descriptions.length] + " " + i;
+            Task task = switch (i % 3) {
+            case 0 -> new ToDo(description);
+            case 1 -> new Deadline(description, "2024-02-29", "23:59");
+            default -> new Event(description, "2024-03-01 09:00", "2024-03-01 10:00");
+            };
+            if (i % 5 == 0) {
+                task.markAsDone();
+            }
+            tasks.add(task);
+        }
+        Storage storage = new Storage(dir.resolve("data/boyd.txt").toString());
+        storage.save(tasks);
+
+        StringBuilder expected = new StringBuilder();
+        for (Task task : tasks) {
+            expected.append(task.toDataString()).append(System.lineSeparator());
+        }
+        assertArrayEquals(expected.toString().getBytes(StandardCharsets.UTF_8),
+                Files.readAllBytes(dir.resolve("data/boyd.txt")));
+
+        List<Task> loaded = storage.load();
+        assertEquals(tasks.size(), loaded.size());
+        assertEquals("T | 1 | café 中文 45", loaded.get(45).toDataString());
+        assertEquals("D | 1 | smile 😀 10 | 2024-02-29 23:59", loaded.get(10).toDataString());
+
+        // Saving fewer tasks truncates the rest of the file.
+        storage.save(tasks.subList(0, 1));
+        assertEquals(List.of("T | 1 | read book 0"), Files.readAllLines(dir.resolve("data/boyd.txt")));
+    }
+
+    @Test
+    void load_reportsRisingProgressEndingAtOne() throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            tasks.add(new ToDo("task " + i));
+        }
+        Storage storage = new Storage(dir.resolve("boyd.txt").toString());
+        storage.save(tasks);
+
+        List<Double> progress = new ArrayList<>();
+        assertEquals(tasks.size(), storage.load(progress::add).size());
+        assertTrue(progress.size() > 2, "reported while reading, not only at the end");
+        for (int i = 1; i < progress.size(); i++) {
+            assertTrue(progress.get(i) >= progress.get(i - 1));
+        }
+        assertEquals(1.0, progress.get(progress.size() - 1));
+
+        progress.clear();
+        new Storage(dir.resolve("missing.txt").toString()).load(progress::add);
+        assertEquals(List.of(1.0), progress);
+    }
+}
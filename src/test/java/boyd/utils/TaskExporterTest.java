@@ -0,0 +1,163 @@
+package boyd.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import boyd.tasks.Deadline;
+import boyd.tasks.Event;
+import boyd.tasks.Task;
+import boyd.tasks.ToDo;
+
+class TaskExporterTest {
+
+    @TempDir
+    Path dir;
+
+    private TaskList sample() {
+        Task done = new ToDo("read \"the\" book, twice");
+        done.markAsDone();
+        return new TaskList(List.of(done,
+                new Deadline("return book\tnow", "2019-12-02", "18:00"),
+                new Event("café 😀 sync \ud800", "2024-03-01 09:00", "2024-03-01 10:30")), null);
+    }
+
+    @Test
+    void export_csv_quotesOnlyWhereNeeded() throws IOException {
+        Path file = dir.resolve("tasks.csv");
+
+        int count = TaskExporter.export(sample().snapshot(), TaskExporter.Format.CSV, file, null);
+
+        assertEquals(3, count);
+        assertEquals("type,done,description,by,from,to\r\n"
+                + "todo,true,\"read \"\"the\"\" book, twice\",,,\r\n"
+                + "deadline,false,return book\tnow,2019-12-02T18:00,,\r\n"
+                + "event,false,café 😀 sync ?,,2024-03-01T09:00,2024-03-01T10:30\r\n",
+                Files.readString(file, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void export_json_escapesAndFilters() throws IOException {
+        Path file = dir.resolve("tasks.json");
+        TaskList tasks = sample();
+
+        assertEquals(2, TaskExporter.export(tasks.snapshot(), TaskExporter.Format.JSON, file, " BOOK "));
+        assertEquals("[\n"
+                + "{\"type\":\"todo\",\"done\":true,\"description\":\"read \\\"the\\\" book, twice\"},\n"
+                + "{\"type\":\"deadline\",\"done\":false,\"description\":\"return book\\tnow\","
+                + "\"by\":\"2019-12-02T18:00\"}\n"
+                + "]\n", Files.readString(file, StandardCharsets.UTF_8));
+
+        assertEquals(1, TaskExporter.export(tasks.snapshot(), TaskExporter.Format.JSON, file, "sync"));
+        assertEquals("[\n{\"type\":\"event\",\"done\":false,\"description\":\"café 😀 sync \\ud800\","
+                + "\"from\":\"2024-03-01T09:00\",\"to\":\"2024-03-01T10:30\"}\n]\n",
+                Files.readString(file, StandardCharsets.UTF_8));
+
+        assertEquals(0, TaskExporter.export(tasks.snapshot(), TaskExporter.Format.JSON, file, "nothing"));
+        assertEquals("[]\n", Files.readString(file, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void export_writesTheSnapshotItWasGiven() throws IOException {
+        List<Task> initial = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            initial.add(new ToDo("task " + i));
+        }
+        TaskList tasks = new TaskList(initial, null);
+        TaskList.Snapshot snapshot = tasks.snapshot();
+        tasks.remove(1);
+        tasks.mark(1);
+
+        Path file = dir.resolve("big.csv");
+        assertEquals(20_000, TaskExporter.export(snapshot, TaskExporter.Format.CSV, file, ""));
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(20_001, lines.size());
+        assertEquals("todo,false,task 0,,,", lines.get(1));
+        assertEquals("todo,false,task 1,,,", lines.get(2));
+        assertEquals("todo,false,task 19999,,,", lines.get(20_000));
+    }
+
+    @Test
+    void export_failure_leavesEarlierFileIntact() throws IOException {
+        Path file = dir.resolve("tasks.csv");
+        Files.writeString(file, "earlier", StandardCharsets.UTF_8);
+        Task broken = new ToDo("broken") {
+            @Override
+            public String getDescription() {
+                throw new IllegalStateException("cannot describe");
+            }
+        };
+        List<Task> items = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            items.add(new ToDo("task " + i));
+        }
+        items.add(broken);
+        TaskList tasks = new TaskList(items, null);
+
+        assertThrows(IllegalStateException.class,
+                () -> TaskExporter.export(tasks.snapshot(), TaskExporter.Format.CSV, file, null));
+        assertEquals("earlier", Files.readString(file, StandardCharsets.UTF_8));
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(List.of(file), files.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void exportCommand_reportsCountAndUsage() {
+        TaskList tasks = new TaskList(sample().getTasks(), new Storage(dir.resolve("boyd.txt").toString()));
+        Path file = dir.resolve(TaskExporter.DIRECTORY_NAME).resolve("out.csv");
+
+        assertEquals("Exported 3 tasks to " + file + ".", Parser.handle("export csv out.csv", tasks).message());
+        assertEquals("Exported 1 tasks to " + file + ".",
+                Parser.handle("export CSV out.csv twice", tasks).message());
+        assertEquals("Export format must be csv or json.", Parser.handle("export xml out.csv", tasks).message());
+        assertEquals("Command should be: \"export csv|json <file> [keyword]\"",
+                Parser.handle("export csv", tasks).message());
+    }
+
+    @Test
+    void exportCommand_refusesFilesOutsideExportDirectory() {
+        Path saveFile = dir.resolve("boyd.txt");
+        TaskList tasks = new TaskList(sample().getTasks(), new Storage(saveFile.toString()));
+        String refusal = "Files can only be exported to " + dir.resolve(TaskExporter.DIRECTORY_NAME) + ".";
+
+        for (String name : List.of("../boyd.txt", "a/../../x.csv", ".", saveFile.toString(),
+                dir.resolve(TaskExporter.DIRECTORY_NAME).resolve("x.csv").toString())) {
+            BoydResponse response = Parser.handle("export csv " + name, tasks);
+            assertTrue(response.isError(), name);
+            assertEquals(refusal, response.message(), name);
+        }
+        assertFalse(Files.exists(saveFile));
+    }
+
+    @Test
+    void exportCommand_refusesSymbolicLinksOutOfExportDirectory() throws IOException {
+        TaskList tasks = new TaskList(sample().getTasks(), new Storage(dir.resolve("data/boyd.txt").toString()));
+        Path exports = Files.createDirectories(dir.resolve("data").resolve(TaskExporter.DIRECTORY_NAME));
+        Path outside = Files.createDirectory(dir.resolve("outside"));
+        Files.createSymbolicLink(exports.resolve("link"), outside);
+        String refusal = "Files can only be exported to " + exports + ".";
+
+        for (String name : List.of("link/out.csv", "link/sub/out.csv", "link/sub/deeper/out.csv")) {
+            BoydResponse response = Parser.handle("export csv " + name, tasks);
+            assertTrue(response.isError(), name);
+            assertEquals(refusal, response.message(), name);
+        }
+        try (Stream<Path> created = Files.list(outside)) {
+            assertEquals(List.of(), created.collect(Collectors.toList()), "nothing is created outside");
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package boyd.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import boyd.exceptions.BoydException;
+import boyd.tasks.Task;
+import boyd.tasks.ToDo;
+
+class TaskImporterTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void importFile_addsTasksInFileOrderAndSavesOnce() throws IOException {
+        List<String> lines = new ArrayList<>();
+        List<String> expectedTasks = new ArrayList<>();
+        List<String> expectedErrors = new ArrayList<>();
+        for (int i = 0; i < 2 * TaskImporter.BLOCK_LINES + 100; i++) {
+            String line = switch (i % 7) {
+            case 0 -> "todo read book " + i;
+            case 1 -> "deadline return book " + i + " /by 2024-02-29 23:59";
+            case 2 -> "event sync " + i + " /from 2024-03-01 09:00 /to 2024-03-01 10:00";
+            case 3 -> "deadline bad date " + i + " /by 2024-02-30x";
+            case 4 -> "mark " + i;
+            case 5 -> "   ";
+            default -> "todo café " + i;
+            };
+            lines.add(line);
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                expectedTasks.add(Parser.parseTask(line).toDataString());
+            } catch (BoydException e) {
+                expectedErrors.add("Line " + (i + 1) + ": " + e.getMessage());
+            }
+        }
+        Path file = dir.resolve("export.txt");
+        Files.write(file, lines, StandardCharsets.UTF_8);
+        AtomicInteger saves = new AtomicInteger();
+        Storage storage = new Storage(dir.resolve("boyd.txt").toString()) {
+            @Override
+            public synchronized void save(List<? extends Task> tasks) {
+                saves.incrementAndGet();
+                super.save(tasks);
+            }
+        };
+        TaskList tasks = new TaskList(List.of(new ToDo("existing")), storage);
+
+        TaskImporter.Result result = TaskImporter.importFile(file, tasks);
+
+        assertEquals(expectedTasks.size(), result.getImported());
+        assertEquals(expectedErrors, result.getErrors());
+        assertEquals(1, saves.get());
+        assertEquals(1, result.getVersion());
+        assertEquals(1, tasks.getVersion());
+        List<String> actual = new ArrayList<>();
+        for (Task task : tasks.getTasks()) {
+            actual.add(task.toDataString());
+        }
+        assertEquals("T | 0 | existing", actual.remove(0));
+        assertEquals(expectedTasks, actual);
+        assertEquals(expectedTasks.size() + 1, storage.load().size());
+
+        tasks.undo();
+        assertEquals(1, tasks.size());
+    }
+
+    @Test
+    void importCommand_summarizesAndReportsMissingFiles() throws IOException {
+        Path imports = Files.createDirectories(dir.resolve(TaskImporter.DIRECTORY_NAME));
+        Files.write(imports.resolve("few.txt"), List.of("todo a", "list", "todo b"), StandardCharsets.UTF_8);
+        TaskList tasks = new TaskList(List.of(), new Storage(dir.resolve("boyd.txt").toString()));
+
+        BoydResponse response = Parser.handle("import few.txt", tasks);
+        assertEquals(1, response.version());
+        assertEquals(String.format("Imported 2 tasks from %s.%n1 line(s) could not be imported:%n"
+                + "  Line 2: Unknown command: list", imports.resolve("few.txt")), response.message());
+        assertEquals(2, tasks.size());
+
+        BoydResponse missing = Parser.handle("import nope.txt", tasks);
+        assertTrue(missing.isError());
+        assertEquals("File not found: nope.txt", missing.message());
+        assertTrue(Parser.handle("import", tasks).isError());
+    }
+
+    @Test
+    void importCommand_refusesFilesOutsideImportDirectory() throws IOException {
+        Path imports = Files.createDirectories(dir.resolve(TaskImporter.DIRECTORY_NAME));
+        Path saveFile = dir.resolve("boyd.txt");
+        Files.write(saveFile, List.of("T | 0 | secret"), StandardCharsets.UTF_8);
+        Files.write(dir.resolve("other.txt"), List.of("todo a"), StandardCharsets.UTF_8);
+        TaskList tasks = new TaskList(List.of(), new Storage(saveFile.toString()));
+        String refusal = "Files can only be imported from " + imports + ".";
+
+        for (String name : List.of("../boyd.txt", "../other.txt", "a/../../other.txt", ".", saveFile.toString(),
+                dir.resolve("other.txt").toString(), imports.resolve("x/../../other.txt").toString())) {
+            BoydResponse response = Parser.handle("import " + name, tasks);
+            assertTrue(response.isError(), name);
+            assertEquals(refusal, response.message(), name);
+        }
+        assertEquals(0, tasks.size());
+    }
+}
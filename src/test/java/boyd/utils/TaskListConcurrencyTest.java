@@ -0,0 +1,157 @@
+package boyd.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import boyd.exceptions.BoydException;
+import boyd.tasks.Task;
+import boyd.tasks.ToDo;
+
+/**
+ * Hammers a shared {@link TaskList} from many threads and checks that every observed
+ * state is one a sequential execution could have produced.
+ */
+class TaskListConcurrencyTest {
+    private static final int WRITERS = 8;
+    private static final int ADDS_PER_WRITER = 2_000;
+    private static final int READERS = 4;
+
+    /** Records the size of every saved version, in save order. */
+    private static class RecordingStorage extends Storage {
+        private final List<Integer> savedSizes = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void save(List<? extends Task> tasks) {
+            savedSizes.add(tasks.size());
+        }
+    }
+
+    @Test
+    void concurrentAdds_snapshotsAreLinearizable() throws Exception {
+        TaskList list = new TaskList(List.of(), null);
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS + READERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writersDone = new AtomicBoolean(false);
+        List<Future<?>> writers = new ArrayList<>();
+        List<Future<?>> readers = new ArrayList<>();
+
+        for (int w = 0; w < WRITERS; w++) {
+            final int writer = w;
+            writers.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < ADDS_PER_WRITER; i++) {
+                    list.add(new ToDo(writer + ":" + i));
+                }
+                return null;
+            }));
+        }
+        for (int r = 0; r < READERS; r++) {
+            readers.add(pool.submit(() -> {
+                start.await();
+                int lastSize = 0;
+                while (!writersDone.get()) {
+                    List<Task> snapshot = list.getTasks();
+                    assertTrue(snapshot.size() >= lastSize, "snapshot sizes must never shrink");
+                    lastSize = snapshot.size();
+                    assertProgramOrder(snapshot);
+                    list.find("1");
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> f : writers) {
+            f.get(60, TimeUnit.SECONDS);
+        }
+        writersDone.set(true);
+        for (Future<?> f : readers) {
+            f.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        List<Task> result = list.getTasks();
+        assertEquals(WRITERS * ADDS_PER_WRITER, result.size());
+        int[] perWriter = assertProgramOrder(result);
+        for (int count : perWriter) {
+            assertEquals(ADDS_PER_WRITER, count);
+        }
+    }
+
+    @Test
+    void concurrentAddsAndRemoves_saveHistoryIsSequential() throws Exception {
+        RecordingStorage storage = new RecordingStorage();
+        TaskList list = new TaskList(List.of(), storage);
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger removed = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int w = 0; w < WRITERS; w++) {
+            final boolean isRemover = w % 2 == 1;
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < ADDS_PER_WRITER; i++) {
+                    if (!isRemover) {
+                        list.add(new ToDo("task " + i));
+                        continue;
+                    }
+                    try {
+                        list.remove(1);
+                        removed.incrementAndGet();
+                    } catch (BoydException e) {
+                        // List was momentarily empty; a valid outcome under contention.
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> f : futures) {
+            f.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        int adds = (WRITERS / 2) * ADDS_PER_WRITER;
+        assertEquals(adds - removed.get(), list.size());
+        assertEquals(adds + removed.get(), storage.savedSizes.size());
+        // Each save captures exactly one mutation applied to the previous saved version.
+        int previous = 0;
+        for (int size : storage.savedSizes) {
+            assertEquals(1, Math.abs(size - previous), "saves must form a sequential history");
+            previous = size;
+        }
+        assertEquals(list.size(), previous);
+    }
+
+    /**
+     * Checks that each writer's tasks appear as a gap-free prefix in its own program order.
+     *
+     * @return number of tasks seen per writer
+     */
+    private static int[] assertProgramOrder(List<Task> snapshot) {
+        int[] next = new int[WRITERS];
+        for (Task t : snapshot) {
+            String[] parts = t.getDescription().split(":");
+            int writer = Integer.parseInt(parts[0]);
+            int seq = Integer.parseInt(parts[1]);
+            assertEquals(next[writer], seq, "writer " + writer + " out of order");
+            next[writer]++;
+        }
+        return next;
+    }
+}
@@ -1,13 +1,16 @@
 package boyd.utils;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
+import boyd.tasks.Task;
 import boyd.tasks.ToDo;
 
 class FakeStorage extends Storage {
@@ -45,4 +48,161 @@ class TaskListTest {
         var ex = assertThrows(boyd.exceptions.BoydException.class, () -> list.remove(1));
         assertTrue(ex.getMessage().contains("Invalid item number!"));
     }
+
+    @Test
+    void undoRedo_restoresVersions_andPersists() {
+        FakeStorage fs = new FakeStorage();
+        TaskList list = new TaskList(List.of(), fs);
+        list.add(new ToDo("x"));
+        list.mark(1);
+
+        list.undo();
+        assertEquals(" ", list.get(0).getStatusIcon());
+        list.undo();
+        assertEquals(0, list.size());
+        list.redo();
+        assertEquals(1, list.size());
+        assertEquals(5, fs.getSaves());
+    }
+
+    @Test
+    void mutations_returnTheStateTheyCommitted() {
+        TaskList list = new TaskList(List.of(new ToDo("a")), null);
+
+        TaskList.Change added = list.add(new ToDo("b"));
+        TaskList.Change removed = list.remove(1);
+        TaskList.Snapshot undone = list.undo();
+        TaskList.Snapshot redone = list.redo();
+
+        assertEquals("b", added.getTask().getDescription());
+        assertEquals(added.getTask().getVersion(), added.getSnapshot().getVersion());
+        assertEquals(2, added.getSnapshot().getTasks().size());
+        assertEquals("a", removed.getTask().getDescription());
+        assertEquals(added.getSnapshot().getVersion() + 1, removed.getSnapshot().getVersion());
+        assertEquals(List.of(list.get(0)), removed.getSnapshot().getTasks());
+        assertEquals(removed.getSnapshot().getVersion() + 1, undone.getVersion());
+        assertEquals(2, undone.getTasks().size());
+        assertSame(list.snapshot(), redone);
+        assertEquals(1, redone.getTasks().size());
+    }
+
+    @Test
+    void addAll_isOneChange() {
+        FakeStorage fs = new FakeStorage();
+        TaskList list = new TaskList(List.of(new ToDo("a")), fs);
+        List<String> events = new ArrayList<>();
+        list.addListener(new TaskListListener() {
+            @Override
+            public void onAddedAll(int index, List<Task> tasks, long version) {
+                events.add(index + " " + tasks.size() + " @" + version);
+            }
+        });
+
+        TaskList.Snapshot after = list.addAll(List.of(new ToDo("b"), new ToDo("c"), new ToDo("d")));
+
+        assertEquals(1, after.getVersion());
+        assertEquals(4, after.getTasks().size());
+        assertEquals(1, list.get(3).getVersion());
+        assertEquals(List.of("1 3 @1"), events);
+        assertEquals(1, fs.getSaves());
+        assertSame(after, list.addAll(List.of()));
+
+        list.undo();
+        assertEquals(1, list.size());
+        list.redo();
+        assertEquals(4, list.size());
+    }
+
+    @Test
+    void undo_isBoundedByHistoryDepth() {
+        TaskList list = new TaskList(List.of(), null, 2);
+        list.add(new ToDo("a"));
+        list.add(new ToDo("b"));
+        list.add(new ToDo("c"));
+
+        list.undo();
+        list.undo();
+        var ex = assertThrows(boyd.exceptions.BoydException.class, list::undo);
+        assertTrue(ex.getMessage().contains("Nothing to undo"));
+        assertEquals(1, list.size());
+    }
+
+    @Test
+    void getTasks_isUnaffectedByLaterMutations() {
+        TaskList list = new TaskList(List.of(new ToDo("a")), null);
+        List<Task> snapshot = list.getTasks();
+        list.mark(1);
+        list.add(new ToDo("b"));
+
+        assertEquals(1, snapshot.size());
+        assertEquals(" ", snapshot.get(0).getStatusIcon());
+    }
+
+    @Test
+    void versionedWrites_conflictOnlyWhenTheirTaskMayHaveMoved() {
+        TaskList list = new TaskList(List.of(), null);
+        list.add(new ToDo("a"));
+        list.add(new ToDo("b"));
+        list.add(new ToDo("c"));
+        long seen = list.getVersion();
+        assertEquals(3, seen);
+
+        // Appending and marking other tasks do not move task 2.
+        list.add(new ToDo("d"));
+        list.mark(1);
+        assertEquals("b", list.mark(2, seen).getDescription());
+        assertEquals(6, list.get(1).getVersion());
+
+        // Task 2 itself changed after version 3.
+        assertThrows(boyd.exceptions.VersionConflictException.class, () -> list.remove(2, seen));
+
+        // A removal shifts positions: every older expectation is now stale.
+        long beforeRemoval = list.getVersion();
+        list.remove(1);
+        var ex = assertThrows(boyd.exceptions.VersionConflictException.class, () -> list.remove(3, beforeRemoval));
+        assertEquals(list.getVersion(), ex.getCurrentVersion());
+        assertEquals(3, list.size());
+        assertEquals("d", list.remove(3, list.getVersion()).getTask().getDescription());
+    }
+
+    @Test
+    void versionedUndo_requiresCurrentVersion() {
+        TaskList list = new TaskList(List.of(), null);
+        list.add(new ToDo("a"));
+        long seen = list.getVersion();
+        list.add(new ToDo("b"));
+
+        assertThrows(boyd.exceptions.VersionConflictException.class, () -> list.undo(seen));
+        assertThrows(boyd.exceptions.BoydException.class, () -> list.undo(99));
+        list.undo(list.getVersion());
+        assertEquals(1, list.size());
+    }
+
+    @Test
+    void saveListener_hearsOfChangesAndSaves() {
+        List<String> heard = new ArrayList<>();
+        TaskList list = new TaskList(List.of(), new FakeStorage());
+        list.setSaveListener(new SaveListener() {
+            @Override
+            public void onChanged() {
+                heard.add("changed");
+            }
+
+            @Override
+            public void onSaved(long start, long end, boolean isError, boolean isEndOfBatch) {
+                assertTrue(end >= start);
+                heard.add(isEndOfBatch ? "saved batch" : "saved");
+            }
+        });
+
+        list.add(new ToDo("a"));
+        list.batch(() -> {
+            list.add(new ToDo("b"));
+            list.mark(1);
+        });
+        list.setSaveListener(null);
+        list.add(new ToDo("c"));
+
+        assertEquals(List.of("changed", "saved", "changed", "changed", "saved batch"), heard);
+    }
 }
@@ -3,19 +3,25 @@
 REM create bin directory if it doesn't exist
 if not exist ..\bin mkdir ..\bin
 
-REM delete output from previous run
+REM delete output and save data from previous run
 if exist ACTUAL.TXT del ACTUAL.TXT
+if exist data rmdir /s /q data
 
-REM compile the code into the bin folder
-javac  -cp ..\src\main\java -Xlint:none -d ..\bin ..\src\main\java\*.java
+REM compile the console code (everything except the JavaFX GUI) into the bin folder
+if exist sources.txt del sources.txt
+for /r ..\src\main\java %%f in (*.java) do (
+    findstr /m "javafx" "%%f" >nul || echo "%%f">>sources.txt
+)
+javac  -cp ..\src\main\java -Xlint:none -encoding UTF-8 -d ..\bin @sources.txt
 IF ERRORLEVEL 1 (
     echo ********** BUILD FAILURE **********
     exit /b 1
 )
 REM no error here, errorlevel == 0
+del sources.txt
 
 REM run the program, feed commands from input.txt file and redirect the output to the ACTUAL.TXT
-java -classpath ..\bin Duke < input.txt > ACTUAL.TXT
+java -classpath ..\bin boyd.BoydConsole .\data\boyd.txt < input.txt > ACTUAL.TXT
 
 REM compare the output to the expected output
 FC ACTUAL.TXT EXPECTED.TXT
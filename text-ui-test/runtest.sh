@@ -6,14 +6,15 @@ then
     mkdir ../bin
 fi
 
-# delete output from previous run
+# delete output and save data from previous run
 if [ -e "./ACTUAL.TXT" ]
 then
     rm ACTUAL.TXT
 fi
+rm -rf ./data
 
-# compile the code into the bin folder, terminates if error occurred
-if ! javac -cp ../src/main/java -Xlint:none -d ../bin $(find ../src/main/java -name "*.java")
+# compile the console code (everything except the JavaFX GUI) into the bin folder, terminates if error occurred
+if ! javac -cp ../src/main/java -Xlint:none -encoding UTF-8 -d ../bin $(grep -rL "javafx" ../src/main/java --include="*.java")
 
 then
     echo "********** BUILD FAILURE **********"
@@ -21,7 +22,7 @@ then
 fi
 
 # run the program, feed commands from input.txt file and redirect the output to the ACTUAL.TXT
-java -classpath ../bin Boyd < input.txt > ACTUAL.TXT
+java -classpath ../bin boyd.BoydConsole ./data/boyd.txt < input.txt > ACTUAL.TXT
 
 # compare the output to the expected output
 diff ACTUAL.TXT EXPECTED.TXT